@@ -0,0 +1,142 @@
+#!/usr/bin/env python3
+
+"""
+CPAchecker is a tool for configurable software verification.
+This file is part of CPAchecker.
+
+Copyright (C) 2007-2020  Dirk Beyer
+All rights reserved.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+
+CPAchecker web page:
+  http://cpachecker.sosy-lab.org
+"""
+
+
+# Compare the results of two runs of the JMH micro benchmarks (ant run-jmh)
+# and report changes of the score and of the allocation rate per operation.
+# Exits with status 1 if a benchmark regressed by more than the given threshold.
+
+import argparse
+import json
+import sys
+
+ALLOCATION_METRIC = "·gc.alloc.rate.norm"
+
+# modes where a higher score is better, all other modes measure time
+THROUGHPUT_MODES = {"thrpt"}
+
+
+def load_results(path):
+    with open(path) as f:
+        results = json.load(f)
+    return {result_key(r): r for r in results}
+
+
+def result_key(result):
+    params = result.get("params") or {}
+    param_string = ",".join("{}={}".format(k, v) for k, v in sorted(params.items()))
+    return "{}({}) [{}]".format(result["benchmark"], param_string, result["mode"])
+
+
+def allocation(result):
+    metric = (result.get("secondaryMetrics") or {}).get(ALLOCATION_METRIC)
+    return metric["score"] if metric else None
+
+
+def relative_change(old, new):
+    if old == 0:
+        return 0.0 if new == 0 else float("inf")
+    return (new - old) / old
+
+
+def compare(baseline, current, threshold):
+    """Print a comparison table and return the list of regressed benchmarks."""
+    regressions = []
+    print(
+        "{:<90} {:>14} {:>14} {:>9} {:>12}".format(
+            "Benchmark", "Baseline", "Current", "Change", "Alloc change"
+        )
+    )
+    for key in sorted(current):
+        new = current[key]
+        old = baseline.get(key)
+        new_score = new["primaryMetric"]["score"]
+        unit = new["primaryMetric"]["scoreUnit"]
+        if old is None:
+            print("{:<90} {:>14} {:>14.3f} {}".format(key, "-", new_score, unit))
+            continue
+
+        old_score = old["primaryMetric"]["score"]
+        change = relative_change(old_score, new_score)
+        if new["mode"] in THROUGHPUT_MODES:
+            slowdown = -change
+        else:
+            slowdown = change
+
+        old_alloc = allocation(old)
+        new_alloc = allocation(new)
+        alloc_change = None
+        if old_alloc is not None and new_alloc is not None:
+            alloc_change = relative_change(old_alloc, new_alloc)
+
+        print(
+            "{:<90} {:>14.3f} {:>14.3f} {:>+8.1%} {:>12} {}".format(
+                key,
+                old_score,
+                new_score,
+                change,
+                "-" if alloc_change is None else "{:+.1%}".format(alloc_change),
+                unit,
+            )
+        )
+        if slowdown > threshold or (alloc_change is not None and alloc_change > threshold):
+            regressions.append(key)
+
+    for key in sorted(set(baseline) - set(current)):
+        print("{:<90} (missing in current results)".format(key))
+    return regressions
+
+
+def main(args=None):
+    parser = argparse.ArgumentParser(
+        description="Compare two JSON result files of JMH and report regressions."
+    )
+    parser.add_argument("baseline", help="JSON result file of JMH for the baseline")
+    parser.add_argument("current", help="JSON result file of JMH for the current state")
+    parser.add_argument(
+        "--threshold",
+        type=float,
+        default=0.1,
+        help="relative slowdown or allocation increase that counts as regression",
+    )
+    options = parser.parse_args(args)
+
+    regressions = compare(
+        load_results(options.baseline), load_results(options.current), options.threshold
+    )
+    if regressions:
+        print()
+        print("Regressions of more than {:.0%}:".format(options.threshold))
+        for key in regressions:
+            print("  " + key)
+        return 1
+    return 0
+
+
+if __name__ == "__main__":
+    if sys.version_info[0] < 3:
+        sys.exit("This script requires Python 3.")
+    sys.exit(main())
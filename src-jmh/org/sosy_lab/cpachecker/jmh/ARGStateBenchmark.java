@@ -0,0 +1,83 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+
+/** Benchmarks for building the ARG, i.e., creating states and adding parents. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ARGStateBenchmark {
+
+  /** Number of states that are created in each invocation. */
+  @Param({"1000"})
+  public int states;
+
+  /** Number of parents of each merged state. */
+  @Param({"2", "16"})
+  public int parents;
+
+  /** A linear chain of states, as created by the analysis of straight-line code. */
+  @Benchmark
+  public ARGState buildChain() {
+    ARGState state = new ARGState(null, null);
+    for (int i = 1; i < states; i++) {
+      state = new ARGState(null, state);
+    }
+    return state;
+  }
+
+  /** States with several parents, as created by merging states at join points. */
+  @Benchmark
+  public ARGState addParents() {
+    ARGState root = new ARGState(null, null);
+    ARGState[] predecessors = new ARGState[parents];
+    for (int i = 0; i < parents; i++) {
+      predecessors[i] = new ARGState(null, root);
+    }
+    ARGState last = root;
+    for (int i = 0; i < states / parents; i++) {
+      last = new ARGState(null, predecessors[0]);
+      for (int j = 1; j < parents; j++) {
+        last.addParent(predecessors[j]);
+      }
+    }
+    return last;
+  }
+}
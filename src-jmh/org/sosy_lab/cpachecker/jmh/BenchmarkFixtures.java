@@ -0,0 +1,85 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Shared fixtures for the benchmarks. All benchmarks are run from the root directory of the
+ * project, such that programs from {@code test/programs} can be referenced with relative paths.
+ */
+final class BenchmarkFixtures {
+
+  /** A mid-sized program with several functions, loops, and pointers. */
+  static final String DEFAULT_PROGRAM = "test/programs/simple/SynchronousSimulator_blast.i";
+
+  private BenchmarkFixtures() {}
+
+  /**
+   * Create a configuration without output files and with a solver that is available on all
+   * platforms, plus the given options as key-value pairs.
+   */
+  static Configuration configuration(String... pOptions) throws InvalidConfigurationException {
+    ConfigurationBuilder builder =
+        TestDataTools.configurationForTest().setOption("solver.solver", "SMTINTERPOL");
+    for (int i = 0; i + 1 < pOptions.length; i += 2) {
+      builder.setOption(pOptions[i], pOptions[i + 1]);
+    }
+    return builder.build();
+  }
+
+  static LogManager logger() {
+    return LogManager.createNullLogManager();
+  }
+
+  /** Parse the given program and create the CFA like a normal analysis run would. */
+  static CFA parseProgram(String pProgram, Configuration pConfig)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
+    return new CFACreator(pConfig, logger(), ShutdownNotifier.createDummy())
+        .parseFileAndCreateCFA(ImmutableList.of(pProgram));
+  }
+
+  /** Return all edges of the given CFA, in a deterministic order. */
+  static List<CFAEdge> allEdges(CFA pCfa) {
+    ImmutableList.Builder<CFAEdge> edges = ImmutableList.builder();
+    for (CFANode node : pCfa.getAllNodes()) {
+      edges.addAll(CFAUtils.leavingEdges(node));
+    }
+    return edges.build();
+  }
+}
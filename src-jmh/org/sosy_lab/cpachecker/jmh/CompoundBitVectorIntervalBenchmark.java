@@ -0,0 +1,104 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cpa.invariants.BitVectorInfo;
+import org.sosy_lab.cpachecker.cpa.invariants.BitVectorInterval;
+import org.sosy_lab.cpachecker.cpa.invariants.CompoundBitVectorInterval;
+import org.sosy_lab.cpachecker.cpa.invariants.OverflowEventHandler;
+
+/** Benchmarks for the arithmetic operations of {@link CompoundBitVectorInterval}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompoundBitVectorIntervalBenchmark {
+
+  /** Size of the bit vectors. */
+  @Param({"32", "64"})
+  public int size;
+
+  /** Whether signed wrap-around is allowed (as for unsigned types or with -fwrapv). */
+  @Param({"false", "true"})
+  public boolean allowSignedWrapAround;
+
+  private CompoundBitVectorInterval small;
+  private CompoundBitVectorInterval large;
+
+  @Setup
+  public void setup() {
+    BitVectorInfo info = BitVectorInfo.from(size, true);
+    // compound intervals with several parts, like after joining several branches
+    small = CompoundBitVectorInterval.singleton(info, -3);
+    for (int i = 0; i < 4; i++) {
+      small = small.unionWith(interval(info, 10L * i, 10L * i + 5));
+    }
+    large = CompoundBitVectorInterval.of(interval(info, -1_000_000L, 1_000_000L));
+    large = large.unionWith(interval(info, 5_000_000L, 6_000_000L));
+  }
+
+  private static BitVectorInterval interval(BitVectorInfo pInfo, long pLower, long pUpper) {
+    return BitVectorInterval.of(pInfo, BigInteger.valueOf(pLower), BigInteger.valueOf(pUpper));
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval add() {
+    return small.add(large, allowSignedWrapAround, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval multiply() {
+    return small.multiply(large, allowSignedWrapAround, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval divide() {
+    return large.divide(small, allowSignedWrapAround, OverflowEventHandler.EMPTY);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval union() {
+    return small.unionWith(large);
+  }
+
+  @Benchmark
+  public CompoundBitVectorInterval intersect() {
+    return large.intersectWith(small);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+
+/**
+ * Benchmark for {@link PathFormulaManagerImpl#makeAnd(PathFormula, CFAEdge)}, which converts
+ * each edge of a real program into a formula.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathFormulaManagerBenchmark {
+
+  @Param({BenchmarkFixtures.DEFAULT_PROGRAM})
+  public String program;
+
+  /** Whether to use the encoding for pointers with aliasing (which is more expensive). */
+  @Param({"false", "true"})
+  public boolean handlePointerAliasing;
+
+  private Solver solver;
+  private PathFormulaManager pfmgr;
+  private List<CFAEdge> edges;
+  private PathFormula empty;
+
+  @Setup
+  public void setup() throws Exception {
+    Configuration config =
+        BenchmarkFixtures.configuration(
+            "cpa.predicate.handlePointerAliasing", Boolean.toString(handlePointerAliasing));
+    CFA cfa = BenchmarkFixtures.parseProgram(program, config);
+    edges = BenchmarkFixtures.allEdges(cfa);
+
+    solver = Solver.create(config, BenchmarkFixtures.logger(), ShutdownNotifier.createDummy());
+    pfmgr =
+        new PathFormulaManagerImpl(
+            solver.getFormulaManager(),
+            config,
+            BenchmarkFixtures.logger(),
+            ShutdownNotifier.createDummy(),
+            cfa,
+            AnalysisDirection.FORWARD);
+    empty = pfmgr.makeEmptyPathFormula();
+  }
+
+  @TearDown
+  public void tearDown() {
+    solver.close();
+  }
+
+  /** Convert every edge of the program separately, starting with an empty path formula. */
+  @Benchmark
+  public void makeAndForAllEdges(Blackhole pBlackhole) throws Exception {
+    for (CFAEdge edge : edges) {
+      pBlackhole.consume(pfmgr.makeAnd(empty, edge));
+    }
+  }
+}
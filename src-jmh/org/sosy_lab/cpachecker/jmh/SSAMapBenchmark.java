@@ -0,0 +1,105 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.collect.MapsDifference;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+/** Benchmarks for creating and merging {@link SSAMap} instances. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SSAMapBenchmark {
+
+  /** Number of variables in the SSA maps. */
+  @Param({"10", "100", "1000"})
+  public int variables;
+
+  /** Number of variables that are changed by a single edge. */
+  private static final int CHANGED_VARIABLES = 5;
+
+  private SSAMap ssa;
+  private SSAMap otherSsa;
+
+  @Setup
+  public void setup() {
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < variables; i++) {
+      builder.setIndex(name(i), CNumericTypes.INT, 1);
+    }
+    ssa = builder.build();
+
+    // the other map differs in some variables, like after two different branches
+    builder = ssa.builder();
+    for (int i = 0; i < variables; i += 7) {
+      builder.setIndex(name(i), CNumericTypes.INT, 2);
+    }
+    otherSsa = builder.build();
+  }
+
+  private static String name(int i) {
+    return "main::var" + i;
+  }
+
+  @Benchmark
+  public SSAMap updateIndices() {
+    SSAMapBuilder builder = ssa.builder();
+    for (int i = 0; i < CHANGED_VARIABLES; i++) {
+      String name = name(i * 3 % variables);
+      builder.setIndex(name, CNumericTypes.INT, builder.getFreshIndex(name));
+    }
+    return builder.build();
+  }
+
+  @Benchmark
+  public int lookupIndices() {
+    int sum = 0;
+    for (int i = 0; i < variables; i++) {
+      sum += ssa.getIndex(name(i));
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public SSAMap merge() {
+    return SSAMap.merge(ssa, otherSsa, MapsDifference.ignoreMapsDifference());
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Benchmarks for the operations of {@link ValueAnalysisState} that are executed for every
+ * transfer, i.e., copying a state and assigning a value.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueAnalysisStateBenchmark {
+
+  /** Number of tracked variables in the state. */
+  @Param({"10", "100", "1000"})
+  public int variables;
+
+  private MemoryLocation[] locations;
+  private ValueAnalysisState state;
+  private ValueAnalysisState biggerState;
+  private int next = 0;
+
+  @Setup
+  public void setup() {
+    locations = new MemoryLocation[variables];
+    state = new ValueAnalysisState(MachineModel.LINUX64);
+    for (int i = 0; i < variables; i++) {
+      locations[i] = MemoryLocation.valueOf("main", "var" + i);
+      state.assignConstant(locations[i], new NumericValue(i), CNumericTypes.INT);
+    }
+    biggerState = ValueAnalysisState.copyOf(state);
+    biggerState.assignConstant(
+        MemoryLocation.valueOf("main", "other"), new NumericValue(0), CNumericTypes.INT);
+  }
+
+  @Benchmark
+  public ValueAnalysisState copy() {
+    return ValueAnalysisState.copyOf(state);
+  }
+
+  /** A typical assignment edge: copy the state and change one variable. */
+  @Benchmark
+  public ValueAnalysisState copyAndAssign() {
+    ValueAnalysisState successor = ValueAnalysisState.copyOf(state);
+    next = (next + 1) % variables;
+    successor.assignConstant(locations[next], new NumericValue(-next), CNumericTypes.INT);
+    return successor;
+  }
+
+  @Benchmark
+  public boolean isLessOrEqual() {
+    return biggerState.isLessOrEqual(state);
+  }
+}
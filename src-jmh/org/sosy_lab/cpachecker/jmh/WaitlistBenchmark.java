@@ -0,0 +1,131 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.jmh;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.callstack.CallstackState;
+import org.sosy_lab.cpachecker.cpa.composite.CompositeState;
+import org.sosy_lab.cpachecker.cpa.location.LocationStateFactory;
+
+/**
+ * Benchmark for the waitlist implementations, which adds states for all locations of a real
+ * program to a reached set and pops them again, interleaved like in the main loop of the
+ * analysis. Each state carries a callstack of varying depth, such that the callstack-sorted
+ * waitlist has several partitions to choose from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitlistBenchmark {
+
+  /** Number of states per location, each with a callstack of different depth. */
+  private static final int STATES_PER_LOCATION = 4;
+
+  @Param({BenchmarkFixtures.DEFAULT_PROGRAM})
+  public String program;
+
+  @Param({"DFS", "BFS", "RAND"})
+  public String traversalOrder;
+
+  /** Additional sorting of the waitlist, as used by the default configurations. */
+  @Param({"none", "useReversePostorder", "useCallstack"})
+  public String secondaryOrder;
+
+  private ReachedSetFactory reachedSetFactory;
+  private List<AbstractState> states;
+  private final Precision precision = new Precision() {};
+
+  @Setup
+  public void setup() throws Exception {
+    Configuration config = BenchmarkFixtures.configuration();
+    CFA cfa = BenchmarkFixtures.parseProgram(program, config);
+
+    if (secondaryOrder.equals("none")) {
+      config = BenchmarkFixtures.configuration("analysis.traversal.order", traversalOrder);
+    } else {
+      config =
+          BenchmarkFixtures.configuration(
+              "analysis.traversal.order", traversalOrder,
+              "analysis.traversal." + secondaryOrder, "true");
+    }
+    reachedSetFactory = new ReachedSetFactory(config, BenchmarkFixtures.logger());
+
+    LocationStateFactory locations =
+        new LocationStateFactory(cfa, AnalysisDirection.FORWARD, config);
+    states = new ArrayList<>();
+    for (CFANode node : cfa.getAllNodes()) {
+      // several states per location, as with a data analysis that does not merge
+      CallstackState callstack = null;
+      for (int i = 0; i < STATES_PER_LOCATION; i++) {
+        callstack = new CallstackState(callstack, node.getFunctionName(), node);
+        states.add(
+            new ARGState(
+                new CompositeState(ImmutableList.of(locations.getState(node), callstack)), null));
+      }
+    }
+  }
+
+  @Benchmark
+  public void addAndPop(Blackhole pBlackhole) {
+    ReachedSet reached = reachedSetFactory.create();
+    int i = 0;
+    for (AbstractState state : states) {
+      reached.add(state, precision);
+      // pop one state for every two added states, such that the waitlist grows
+      if (i++ % 2 == 1) {
+        pBlackhole.consume(reached.popFromWaitlist());
+      }
+    }
+    while (reached.hasWaitingState()) {
+      pBlackhole.consume(reached.popFromWaitlist());
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cfa;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+
+/**
+ * A cache for CFAs on disk, such that several analysis runs for the same program (e.g., the
+ * configurations of a portfolio) parse the program only once.
+ *
+ * <p>The key of a CFA is a hash over the content of the source files and over all configuration
+ * options that influence the creation of the CFA. The cache files start with a header with the
+ * format version and the version of CPAchecker, files with a different header are ignored. The CFA
+ * itself is stored with Java serialization, like for the option cfa.serialize: all CFA and AST
+ * classes already support it, and the version header ensures that a file is only read by the same
+ * build of CPAchecker that wrote it.
+ * Concurrent runs for the same key synchronize via a lock file, such that only one of them parses
+ * the program and the others wait for the result.
+ */
+final class CFACache {
+
+  private static final String MAGIC = "CPAchecker-CFA";
+  private static final int FORMAT_VERSION = 1;
+  private static final String SUFFIX = ".cfa";
+
+  /** Prefixes of the names of all options that influence the creation of the CFA. */
+  private static final ImmutableList<String> RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of(
+          "cfa.",
+          "parser.",
+          "liveVar.",
+          "dependencegraph.",
+          "language",
+          "analysis.entryFunction",
+          "analysis.machineModel",
+          "analysis.interprocedural",
+          "analysis.functionPointer",
+          "analysis.threadOperationsTransform",
+          "analysis.useGlobalVars",
+          "analysis.useLoopStructure");
+
+  /** Options that match the prefixes above, but only control output and not the CFA itself. */
+  private static final ImmutableSet<String> IGNORED_OPTIONS =
+      ImmutableSet.of(
+          "cfa.cacheDirectory",
+          "cfa.callgraph.export",
+          "cfa.callgraph.file",
+          "cfa.callgraph.fileUsed",
+          "cfa.export",
+          "cfa.exportPerFunction",
+          "cfa.exportToC",
+          "cfa.exportToC.file",
+          "cfa.file",
+          "cfa.pixelGraphicFile",
+          "cfa.serialize",
+          "cfa.serializeFile",
+          "cfa.showDeadCode",
+          "cfa.variableClassification.domainTypeStatisticsFile",
+          "cfa.variableClassification.logfile",
+          "cfa.variableClassification.printStatsOnStartup",
+          "cfa.variableClassification.typeMapFile",
+          "dependencegraph.exportDot",
+          "parser.preprocessor.dumpDirectory",
+          "parser.preprocessor.dumpResults");
+
+  @FunctionalInterface
+  interface CFAProducer {
+    ImmutableCFA create() throws Exception;
+  }
+
+  private final Path directory;
+  private final LogManager logger;
+  private final HashCode configurationHash;
+
+  // stats
+  int loadedCFAs = 0;
+
+  CFACache(Path pDirectory, Configuration pConfig, LogManager pLogger) {
+    directory = pDirectory;
+    logger = pLogger;
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(CPAchecker.getPlainVersion(), UTF_8).putChar('\n');
+    for (String line : Splitter.on('\n').split(pConfig.asPropertiesString())) {
+      if (isRelevantOption(line)) {
+        hasher.putString(line, UTF_8).putChar('\n');
+      }
+    }
+    configurationHash = hasher.hash();
+  }
+
+  /** Check whether a line of the form "name = value" is an option that influences the CFA. */
+  private static boolean isRelevantOption(String pLine) {
+    int separator = pLine.indexOf('=');
+    String name = (separator < 0 ? pLine : pLine.substring(0, separator)).trim();
+    return RELEVANT_OPTION_PREFIXES.stream().anyMatch(name::startsWith)
+        && !IGNORED_OPTIONS.contains(name);
+  }
+
+  /**
+   * Return the CFA for the given source files from the cache, or create and store it if it is not
+   * in the cache.
+   */
+  ImmutableCFA getOrCreate(List<String> pSourceFiles, CFAProducer pProducer) throws Exception {
+    Path file = directory.resolve(computeKey(pSourceFiles) + SUFFIX);
+
+    ImmutableCFA cfa = load(file);
+    if (cfa != null) {
+      return cfa;
+    }
+
+    Files.createDirectories(directory);
+    Path lockFile = directory.resolve(file.getFileName() + ".lock");
+    try (FileChannel lockChannel =
+            FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = tryLock(lockChannel)) {
+      // somebody else might have created the CFA while we were waiting for the lock
+      cfa = load(file);
+      if (cfa == null) {
+        cfa = pProducer.create();
+        store(file, cfa);
+      }
+    }
+    return cfa;
+  }
+
+  private static @Nullable FileLock tryLock(FileChannel pChannel) throws IOException {
+    try {
+      return pChannel.lock(); // blocks until other processes release the lock
+    } catch (OverlappingFileLockException e) {
+      // another thread of this JVM holds the lock, parsing twice does not harm
+      return null;
+    }
+  }
+
+  private HashCode computeKey(List<String> pSourceFiles) throws IOException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBytes(configurationHash.asBytes());
+    for (String sourceFile : pSourceFiles) {
+      // the file name is part of the key because it is stored in the file locations of the CFA
+      hasher.putString(sourceFile, UTF_8).putChar('\n');
+      byte[] content = Files.readAllBytes(Paths.get(sourceFile));
+      hasher.putInt(content.length).putBytes(content);
+    }
+    return hasher.hash();
+  }
+
+  private @Nullable ImmutableCFA load(Path pFile) {
+    if (!Files.isRegularFile(pFile)) {
+      return null;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(pFile), 1 << 16)) {
+      DataInputStream header = new DataInputStream(in);
+      if (!header.readUTF().equals(MAGIC)
+          || header.readInt() != FORMAT_VERSION
+          || !header.readUTF().equals(CPAchecker.getPlainVersion())) {
+        logger.log(Level.FINE, "Ignoring cached CFA with different version in", pFile);
+        return null;
+      }
+      ObjectInputStream objectIn = new ObjectInputStream(in);
+      ImmutableCFA cfa = (ImmutableCFA) objectIn.readObject();
+      logger.log(Level.INFO, "Using cached CFA from", pFile);
+      loadedCFAs++;
+      return cfa;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.logDebugException(e, "Could not read cached CFA from " + pFile);
+      return null;
+    }
+  }
+
+  private void store(Path pFile, ImmutableCFA pCfa) {
+    try {
+      // write into a temporary file first, such that concurrent runs never see partial files
+      Path tmpFile = Files.createTempFile(directory, "tmp", SUFFIX);
+      try {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile), 1 << 16)) {
+          DataOutputStream header = new DataOutputStream(out);
+          header.writeUTF(MAGIC);
+          header.writeInt(FORMAT_VERSION);
+          header.writeUTF(CPAchecker.getPlainVersion());
+          header.flush();
+          ObjectOutputStream objectOut = new ObjectOutputStream(out);
+          objectOut.writeObject(pCfa);
+          objectOut.flush();
+        }
+        try {
+          Files.move(tmpFile, pFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(tmpFile, pFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not store CFA in cache");
+    }
+  }
+}
@@ -24,6 +24,7 @@
 package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
@@ -45,6 +46,8 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -220,6 +223,17 @@ public class CFACreator {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path serializeCfaFile = Paths.get("cfa.ser.gz");
 
+  @Option(
+    name = "cfa.cacheDirectory",
+    description =
+        "Directory for caching the created CFAs between runs of CPAchecker. A CFA is reused if"
+            + " the source files, the version of CPAchecker, and all options that influence the"
+            + " creation of the CFA are the same. Use an absolute path to share the cache between"
+            + " runs with different output directories. Not supported with parser.usePreprocessor."
+  )
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private Path cacheDirectory = null;
+
   @Option(
     secure = true,
     name = "cfa.pixelGraphicFile",
@@ -304,6 +318,7 @@ public class CFACreator {
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
+    private @Nullable CFACache cache = null;
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
 
@@ -329,6 +344,15 @@ public class CFACreator {
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
       }
+      if (cache != null) {
+        out.println("    Number of cached CFAs:    " + cache.loadedCFAs);
+        if (cache.loadedCFAs > 0) {
+          // the post-processing that collects these statistics is skipped for cached CFAs
+          out.println(
+              "    Statistics of variable classification and dependence graph are not available"
+                  + " for cached CFAs.");
+        }
+      }
 
       for (Statistics st : statisticsCollection) {
         StatisticsUtils.printStatistics(st, out, logger, pResult, pReached);
@@ -391,6 +415,15 @@ public class CFACreator {
     stats.parsingTime = parser.getParseTime();
     stats.conversionTime = parser.getCFAConstructionTime();
 
+    if (cacheDirectory != null) {
+      if (usePreprocessor) {
+        // the result of the preprocessor depends on the include files, which we do not know
+        logger.log(Level.WARNING, "CFA cache is not supported with the preprocessor, ignoring it.");
+      } else {
+        stats.cache = new CFACache(cacheDirectory, config, logger);
+      }
+    }
+
     stats.parserInstantiationTime.stop();
   }
 
@@ -411,7 +444,8 @@ public class CFACreator {
       FunctionEntryNode mainFunction = parseResult.getFunctions().get(mainFunctionName);
       assert mainFunction != null : "program lacks main function.";
 
-      CFA cfa = createCFA(parseResult, mainFunction);
+      ImmutableCFA cfa = createCFA(parseResult, mainFunction);
+      exportCFAIfRequested(cfa);
 
       return cfa;
     } finally {
@@ -435,34 +469,57 @@ public class CFACreator {
 
     stats.totalTime.start();
     try {
-      // FIRST, parse file(s) and create CFAs for each function
-      logger.log(Level.FINE, "Starting parsing of file(s)");
+      final ImmutableCFA cfa;
+      if (stats.cache != null) {
+        cfa = getOrCreateCachedCFA(sourceFiles);
+      } else {
+        cfa = parseFilesAndCreateCFA(sourceFiles);
+      }
+      exportCFAIfRequested(cfa);
+      return cfa;
 
-      final ParseResult c = parseToCFAs(sourceFiles);
+    } finally {
+      stats.totalTime.stop();
+    }
+  }
 
-      logger.log(Level.FINE, "Parser Finished");
+  private ImmutableCFA getOrCreateCachedCFA(List<String> sourceFiles)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
+    try {
+      return stats.cache.getOrCreate(sourceFiles, () -> parseFilesAndCreateCFA(sourceFiles));
+    } catch (Exception e) {
+      Throwables.propagateIfPossible(e, InvalidConfigurationException.class, IOException.class);
+      Throwables.propagateIfPossible(e, ParserException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("creation of CFA", e);
+    }
+  }
 
-      FunctionEntryNode mainFunction;
+  private ImmutableCFA parseFilesAndCreateCFA(List<String> sourceFiles)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
+    // FIRST, parse file(s) and create CFAs for each function
+    logger.log(Level.FINE, "Starting parsing of file(s)");
 
-      switch (language) {
-      case JAVA:
-        mainFunction = getJavaMainMethod(sourceFiles, c.getFunctions());
-        break;
-      case C:
-        mainFunction = getCMainFunction(sourceFiles, c.getFunctions());
-        break;
-      default:
-        throw new AssertionError();
-      }
+    final ParseResult c = parseToCFAs(sourceFiles);
 
-      return createCFA(c, mainFunction);
+    logger.log(Level.FINE, "Parser Finished");
 
-    } finally {
-      stats.totalTime.stop();
+    FunctionEntryNode mainFunction;
+
+    switch (language) {
+    case JAVA:
+      mainFunction = getJavaMainMethod(sourceFiles, c.getFunctions());
+      break;
+    case C:
+      mainFunction = getCMainFunction(sourceFiles, c.getFunctions());
+      break;
+    default:
+      throw new AssertionError();
     }
+
+    return createCFA(c, mainFunction);
   }
 
-  private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
+  private ImmutableCFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
 
@@ -585,6 +642,12 @@ public class CFACreator {
     assert CFACheck.check(mainFunction, null, machineModel);
     stats.checkTime.stop();
 
+    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
+
+    return immutableCFA;
+  }
+
+  private void exportCFAIfRequested(ImmutableCFA immutableCFA) {
     if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
         || ((exportFunctionCallsFile != null) && exportFunctionCalls)
         || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
@@ -593,10 +656,6 @@ public class CFACreator {
         || (exportCfaToCFile != null && exportCfaToC)) {
       exportCFAAsync(immutableCFA);
     }
-
-    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
-
-    return immutableCFA;
   }
 
   private void instrumentCfa(MutableCFA pCfa) throws InvalidConfigurationException {
@@ -51,6 +51,7 @@ import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.automaton.Automaton;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonEdgeGuards;
 import org.sosy_lab.cpachecker.cpa.automaton.ControlAutomatonCPA;
 import org.sosy_lab.cpachecker.cpa.composite.CompositeCPA;
 import org.sosy_lab.cpachecker.cpa.location.LocationCPA;
@@ -69,6 +70,14 @@ public class CPABuilder {
       description="CPA to use (see doc/Configuration.md for more documentation on this)")
   private String cpaName = CompositeCPA.class.getCanonicalName();
 
+  @Option(
+      secure = true,
+      name = "specification.shareEdgeGuards",
+      description =
+          "Evaluate conditions on CFA edges that occur in several specification automata only once"
+              + " per edge for all automata, instead of once per automaton and visit of the edge.")
+  private boolean shareEdgeGuards = true;
+
   private final Configuration config;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
@@ -103,7 +112,13 @@ public class CPABuilder {
     List<ConfigurableProgramAnalysis> cpas =
         new ArrayList<>(specAutomata.size() + additionalAutomata.size());
 
-    for (Automaton automaton : Iterables.concat(specAutomata, additionalAutomata)) {
+    Iterable<Automaton> automata = Iterables.concat(specAutomata, additionalAutomata);
+    AutomatonEdgeGuards edgeGuards = null;
+    if (shareEdgeGuards && Iterables.size(automata) > 1) {
+      edgeGuards = new AutomatonEdgeGuards(automata);
+    }
+
+    for (Automaton automaton : automata) {
       String cpaAlias = automaton.getName();
 
       if (!usedAliases.add(cpaAlias)) {
@@ -117,6 +132,9 @@ public class CPABuilder {
       factory.set(cfa, CFA.class);
       factory.set(pAggregatedReachedSets, AggregatedReachedSets.class);
       factory.set(automaton, Automaton.class);
+      if (edgeGuards != null) {
+        factory.set(edgeGuards, AutomatonEdgeGuards.class);
+      }
       factory.setShutdownNotifier(shutdownNotifier);
 
       cpas.add(factory.createInstance());
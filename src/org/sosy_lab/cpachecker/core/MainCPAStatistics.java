@@ -74,6 +74,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.CompactPartitionedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ForwardingReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.LocationMappedReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.PartitionedReachedSet;
@@ -490,12 +491,21 @@ class MainCPAStatistics implements Statistics {
       out.println("  Number of reached functions:   " + functions + " (" + StatisticsUtils.toPercent(functions, cfa.getNumberOfFunctions()) + ")");
     }
 
-    if (reached instanceof PartitionedReachedSet) {
-      PartitionedReachedSet p = (PartitionedReachedSet)reached;
-      int partitions = p.getNumberOfPartitions();
+    if (reached instanceof PartitionedReachedSet
+        || reached instanceof CompactPartitionedReachedSet) {
+      int partitions;
+      Map.Entry<Object, Collection<AbstractState>> maxPartition;
+      if (reached instanceof PartitionedReachedSet) {
+        PartitionedReachedSet p = (PartitionedReachedSet) reached;
+        partitions = p.getNumberOfPartitions();
+        maxPartition = p.getMaxPartition();
+      } else {
+        CompactPartitionedReachedSet p = (CompactPartitionedReachedSet) reached;
+        partitions = p.getNumberOfPartitions();
+        maxPartition = p.getMaxPartition();
+      }
       out.println("  Number of partitions:          " + partitions);
       out.println("    Avg size of partitions:      " + reachedSize / partitions);
-      Map.Entry<Object, Collection<AbstractState>> maxPartition = p.getMaxPartition();
       out.print  ("    Max size of partitions:      " + maxPartition.getValue().size());
       if (maxPartition.getValue().size() > 1) {
         out.println(" (with key " + maxPartition.getKey() + ")");
@@ -24,6 +24,8 @@
 package org.sosy_lab.cpachecker.core.algorithm;
 
 import com.google.common.base.Functions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,12 +35,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.ClassOption;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -48,6 +56,7 @@ import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithThreadSafeTransfer;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCovering;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
@@ -61,8 +70,10 @@ import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
@@ -91,6 +102,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     private int   countMerge        = 0;
     private int   countStop         = 0;
     private int   countBreak        = 0;
+    private int   countBatches      = 0;
+    private int   maxBatchSize      = 0;
 
     private Map<String, AbstractStatValue> reachedSetStatistics = new HashMap<>();
 
@@ -157,6 +170,11 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       out.println("Number of times merged:          " + countMerge);
       out.println("Number of times stopped:         " + countStop);
       out.println("Number of times breaked:         " + countBreak);
+      if (countBatches > 0) {
+        out.println("Number of parallel batches:      " + countBatches);
+        out.println("Average size of parallel batch:  " + countIterations / countBatches);
+        out.println("Max size of parallel batch:      " + maxBatchSize);
+      }
       out.println();
       out.println("Total time for CPA algorithm:     " + totalTimer + " (Max: " + totalTimer.getMaxTime().formatAs(TimeUnit.SECONDS) + ")");
       out.println("  Time for choose from waitlist:  " + chooseTimer);
@@ -188,8 +206,31 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         + " Useful for incomplete analysis with no counterexample checking.")
     private boolean reportFalseAsUnknown = false;
 
+    @Option(
+        secure = true,
+        name = "parallel.threads",
+        description =
+            "Number of threads for computing the successors of several states from the waitlist "
+                + "concurrently (1 disables parallel exploration, -1 uses all available cores). "
+                + "Precision adjustment, merge, stop and updates of the reached set are still "
+                + "done sequentially. All CPAs need to declare that their transfer relation "
+                + "is thread-safe, otherwise the configuration is rejected.")
+    @IntegerOption(min = -1)
+    private int parallelThreads = 1;
+
+    @Option(
+        secure = true,
+        name = "parallel.batchSize",
+        description =
+            "maximal number of states that are taken from the waitlist at once "
+                + "if successors are computed in parallel (0 for four times the number of threads)")
+    @IntegerOption(min = 0)
+    private int parallelBatchSize = 0;
+
     private final ForcedCovering forcedCovering;
 
+    private final int numberOfThreads;
+
     private final ConfigurableProgramAnalysis cpa;
     private final LogManager logger;
     private final ShutdownNotifier shutdownNotifier;
@@ -208,11 +249,45 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
         forcedCovering = null;
       }
 
+      if (parallelThreads == 0) {
+        throw new InvalidConfigurationException(
+            "Option cpa.parallel.threads needs to be positive or -1.");
+      }
+      numberOfThreads =
+          parallelThreads == -1 ? Runtime.getRuntime().availableProcessors() : parallelThreads;
+      if (numberOfThreads > 1) {
+        checkThreadSafety(cpa);
+        if (parallelBatchSize == 0) {
+          parallelBatchSize = 4 * numberOfThreads;
+        }
+      }
+    }
+
+    private static void checkThreadSafety(ConfigurableProgramAnalysis pCpa)
+        throws InvalidConfigurationException {
+      List<String> unsafeCpas =
+          CPAs.asIterable(pCpa)
+              .filter(c -> !(c instanceof ConfigurableProgramAnalysisWithThreadSafeTransfer))
+              .transform(c -> c.getClass().getSimpleName())
+              .toList();
+      if (!unsafeCpas.isEmpty()) {
+        throw new InvalidConfigurationException(
+            "Option cpa.parallel.threads is not supported, because the transfer relations of the "
+                + "following CPAs are not thread-safe: "
+                + String.join(", ", unsafeCpas));
+      }
     }
 
     @Override
     public CPAAlgorithm newInstance() {
-      return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
+      return new CPAAlgorithm(
+          cpa,
+          logger,
+          shutdownNotifier,
+          forcedCovering,
+          reportFalseAsUnknown,
+          numberOfThreads,
+          parallelBatchSize);
     }
   }
 
@@ -238,10 +313,17 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
 
   private final AlgorithmStatus status;
 
+  /** Number of threads for computing successors, 1 if successors are computed sequentially. */
+  private final int parallelThreads;
+
+  private final int parallelBatchSize;
+
   private CPAAlgorithm(ConfigurableProgramAnalysis cpa, LogManager logger,
       ShutdownNotifier pShutdownNotifier,
       ForcedCovering pForcedCovering,
-      boolean pIsImprecise) {
+      boolean pIsImprecise,
+      int pParallelThreads,
+      int pParallelBatchSize) {
 
     transferRelation = cpa.getTransferRelation();
     mergeOperator = cpa.getMergeOperator();
@@ -251,6 +333,8 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     this.shutdownNotifier = pShutdownNotifier;
     this.forcedCovering = pForcedCovering;
     status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+    parallelThreads = pParallelThreads;
+    parallelBatchSize = pParallelBatchSize;
   }
 
   @Override
@@ -265,6 +349,22 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
   }
 
   private AlgorithmStatus run0(final ReachedSet reachedSet) throws CPAException, InterruptedException {
+    if (parallelThreads > 1) {
+      // the executor is owned by this run, such that no threads are left over afterwards
+      ExecutorService executor =
+          Executors.newFixedThreadPool(
+              parallelThreads,
+              new ThreadFactoryBuilder()
+                  .setDaemon(true) // do not block termination of CPAchecker
+                  .setNameFormat("CPAAlgorithm-successors-%d")
+                  .build());
+      try {
+        return runParallel(reachedSet, executor);
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
     while (reachedSet.hasWaitingState()) {
       shutdownNotifier.shutdownIfNecessary();
 
@@ -301,6 +401,164 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     return status;
   }
 
+  /**
+   * Variant of the main loop that takes several states from the waitlist at once and computes
+   * their successors concurrently. Afterwards the successors are handled sequentially in the order
+   * in which the states were taken from the waitlist, such that precision adjustment, merge, stop,
+   * and all modifications of the reached set behave exactly as in the sequential loop.
+   */
+  private AlgorithmStatus runParallel(final ReachedSet reachedSet, ExecutorService pExecutor)
+      throws CPAException, InterruptedException {
+    while (reachedSet.hasWaitingState()) {
+      shutdownNotifier.shutdownIfNecessary();
+
+      int size = reachedSet.getWaitlist().size();
+      if (size >= stats.maxWaitlistSize) {
+        stats.maxWaitlistSize = size;
+      }
+
+      stats.chooseTimer.start();
+      List<AbstractState> states = new ArrayList<>(Math.min(size, parallelBatchSize));
+      List<Precision> precisions = new ArrayList<>(Math.min(size, parallelBatchSize));
+      while (states.size() < parallelBatchSize && reachedSet.hasWaitingState()) {
+        stats.countWaitlistSize += reachedSet.getWaitlist().size();
+        AbstractState state = reachedSet.popFromWaitlist();
+        states.add(state);
+        precisions.add(reachedSet.getPrecision(state));
+      }
+      stats.chooseTimer.stop();
+
+      stats.countIterations += states.size();
+      stats.countBatches++;
+      stats.maxBatchSize = Math.max(states.size(), stats.maxBatchSize);
+      logger.log(Level.FINER, "Retrieved", states.size(), "states from waitlist");
+
+      // index of the first state whose successors were not yet completely handled
+      int firstUnhandled = 0;
+      List<Collection<? extends AbstractState>> successors = null;
+      try {
+        if (forcedCovering != null) {
+          // forced covering modifies the reached set, thus it cannot run in parallel
+          for (int i = 0; i < states.size(); i++) {
+            if (tryForcedCovering(states.get(i), precisions.get(i), reachedSet)) {
+              states.set(i, null);
+            }
+          }
+        }
+
+        successors = computeSuccessorsInParallel(states, precisions, pExecutor);
+
+        for (; firstUnhandled < states.size(); firstUnhandled++) {
+          AbstractState state = states.get(firstUnhandled);
+          if (state == null || !reachedSet.contains(state)) {
+            // State was covered or it was merged into another state while handling the
+            // successors of a previous state of this batch. In the latter case the result
+            // of the merge is already in the waitlist, so we can skip this state.
+            if (state != null) {
+              discardSuccessors(successors.get(firstUnhandled));
+            }
+            continue;
+          }
+          if (handleSuccessors(
+              state, precisions.get(firstUnhandled), successors.get(firstUnhandled), reachedSet)) {
+            // Prec operator requested break,
+            // the current state was re-added to the waitlist if necessary.
+            firstUnhandled++;
+            return status;
+          }
+        }
+
+      } finally {
+        // re-add all remaining states to the waitlist, their successors
+        // would otherwise be forgotten (which would be unsound)
+        for (int i = firstUnhandled; i < states.size(); i++) {
+          AbstractState state = states.get(i);
+          if (state != null) {
+            // The successors will be computed again, so they must not stay in the ARG.
+            // The successors of the state at firstUnhandled might be partially handled
+            // already, for these we behave like the sequential loop.
+            if (successors != null && i > firstUnhandled) {
+              discardSuccessors(successors.get(i));
+            }
+            if (reachedSet.contains(state)) {
+              reachedSet.reAddToWaitlist(state);
+            }
+          }
+        }
+      }
+    }
+
+    return status;
+  }
+
+  /**
+   * Compute the successors of all given states concurrently. Entries in the list of states may be
+   * null, the corresponding entry in the result is also null.
+   */
+  private List<Collection<? extends AbstractState>> computeSuccessorsInParallel(
+      List<AbstractState> pStates, List<Precision> pPrecisions, ExecutorService pExecutor)
+      throws CPAException, InterruptedException {
+    List<Future<Collection<? extends AbstractState>>> futures = new ArrayList<>(pStates.size());
+    stats.transferTimer.start();
+    try {
+      for (int i = 0; i < pStates.size(); i++) {
+        final AbstractState state = pStates.get(i);
+        final Precision precision = pPrecisions.get(i);
+        if (state == null) {
+          futures.add(null);
+        } else {
+          futures.add(
+              pExecutor.submit(
+                  () -> transferRelation.getAbstractSuccessors(state, precision)));
+        }
+      }
+
+      // Always wait for all tasks, even if one of them fails,
+      // such that no transfer is running anymore when we modify the reached set.
+      List<Collection<? extends AbstractState>> result = new ArrayList<>(pStates.size());
+      Throwable failure = null;
+      for (Future<Collection<? extends AbstractState>> future : futures) {
+        if (future == null) {
+          result.add(null);
+          continue;
+        }
+        try {
+          result.add(future.get());
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+          result.add(null);
+        }
+      }
+
+      if (failure != null) {
+        Throwables.propagateIfPossible(failure, CPAException.class, InterruptedException.class);
+        throw new UnexpectedCheckedException("transfer relation", failure);
+      }
+      return result;
+
+    } finally {
+      stats.transferTimer.stop();
+    }
+  }
+
+  /**
+   * Remove successors that were computed in advance but are not handled from the ARG. The
+   * transfer relation of the ARG attaches them to their parent immediately, and a later merge
+   * might have moved them to another state of the reached set.
+   */
+  private static void discardSuccessors(Collection<? extends AbstractState> pSuccessors) {
+    for (AbstractState successor : pSuccessors) {
+      if (successor instanceof ARGState) {
+        ARGState argSuccessor = (ARGState) successor;
+        if (!argSuccessor.isDestroyed()) {
+          argSuccessor.removeFromARG();
+        }
+      }
+    }
+  }
+
   /**
    * Handle one state from the waitlist, i.e., produce successors etc.
    * @param state The abstract state that was taken out of the waitlist
@@ -313,18 +571,9 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
       throws CPAException, InterruptedException {
     logger.log(Level.ALL, "Current state is", state, "with precision", precision);
 
-    if (forcedCovering != null) {
-      stats.forcedCoveringTimer.start();
-      try {
-        boolean stop = forcedCovering.tryForcedCovering(state, precision, reachedSet);
-
-        if (stop) {
-          // TODO: remove state from reached set?
-          return false;
-        }
-      } finally {
-        stats.forcedCoveringTimer.stop();
-      }
+    if (forcedCovering != null && tryForcedCovering(state, precision, reachedSet)) {
+      // TODO: remove state from reached set?
+      return false;
     }
 
     stats.transferTimer.start();
@@ -337,6 +586,33 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     // TODO When we have a nice way to mark the analysis result as incomplete,
     // we could continue analysis on a CPATransferException with the next state from waitlist.
 
+    return handleSuccessors(state, precision, successors, reachedSet);
+  }
+
+  private boolean tryForcedCovering(
+      final AbstractState state, final Precision precision, final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    stats.forcedCoveringTimer.start();
+    try {
+      return forcedCovering.tryForcedCovering(state, precision, reachedSet);
+    } finally {
+      stats.forcedCoveringTimer.stop();
+    }
+  }
+
+  /**
+   * Handle the successors of one state from the waitlist, i.e., adjust their precision, merge them
+   * into the reached set, and add them to the reached set if they are not covered.
+   *
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleSuccessors(
+      final AbstractState state,
+      final Precision precision,
+      final Collection<? extends AbstractState> successors,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+
     int numSuccessors = successors.size();
     logger.log(Level.FINER, "Current state has", numSuccessors, "successors");
     stats.countSuccessors += numSuccessors;
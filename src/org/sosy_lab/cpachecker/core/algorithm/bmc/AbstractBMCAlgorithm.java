@@ -33,11 +33,14 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -50,6 +53,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
@@ -57,9 +61,15 @@ import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
@@ -109,6 +119,7 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.automaton.CachingTargetLocationProvider;
 import org.sosy_lab.cpachecker.util.automaton.TargetLocationProvider;
 import org.sosy_lab.cpachecker.util.automaton.TestTargetLocationProvider;
@@ -181,12 +192,23 @@ abstract class AbstractBMCAlgorithm
   )
   private boolean usePropertyDirection = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Check the inductive step case for k on a separate thread with the solver of the step"
+              + " case, while the base case for k is checked. Not used together with"
+              + " bmc.usePropertyDirection.")
+  private boolean pipelineInduction = false;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
 
-  private final @Nullable ConfigurableProgramAnalysis stepCaseCPA;
-  private final @Nullable Algorithm stepCaseAlgorithm;
+  /**
+   * The CPA and algorithm of the step case. They can be stopped (including their solver) without
+   * stopping the whole analysis, e.g., if the base case of the pipelined induction found a bug.
+   */
+  private final @Nullable StepCaseManager<Pair<ConfigurableProgramAnalysis, Algorithm>> stepCase;
 
   protected final InvariantGenerator invariantGenerator;
   private final InvariantGeneratorHeadStart invariantGeneratorHeadStart;
@@ -260,15 +282,21 @@ abstract class AbstractBMCAlgorithm
 
     if (induction) {
       LogManager stepCaseLogger = logger.withComponentName("InductionStepCase");
-      CPABuilder builder =
-          new CPABuilder(
-              pConfig, stepCaseLogger, pShutdownManager.getNotifier(), pReachedSetFactory);
-      stepCaseCPA = builder.buildCPAs(cfa, pSpecification, new AggregatedReachedSets());
-      stepCaseAlgorithm =
-          CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, pShutdownManager.getNotifier());
+      stepCase =
+          new StepCaseManager<>(
+              pShutdownManager.getNotifier(),
+              stepCaseNotifier -> {
+                CPABuilder builder =
+                    new CPABuilder(pConfig, stepCaseLogger, stepCaseNotifier, pReachedSetFactory);
+                ConfigurableProgramAnalysis stepCaseCPA =
+                    builder.buildCPAs(pCFA, pSpecification, new AggregatedReachedSets());
+                Algorithm stepCaseAlgorithm =
+                    CPAAlgorithm.create(stepCaseCPA, stepCaseLogger, pConfig, stepCaseNotifier);
+                return Pair.of(stepCaseCPA, stepCaseAlgorithm);
+              },
+              stopped -> CPAs.closeCpaIfPossible(stopped.getFirst(), stepCaseLogger));
     } else {
-      stepCaseCPA = null;
-      stepCaseAlgorithm = null;
+      stepCase = null;
       invariantGenerationStrategy = InvariantGeneratorFactory.DO_NOTHING;
       invariantGeneratorHeadStartStrategy = InvariantGeneratorHeadStartFactories.NONE;
     }
@@ -368,6 +396,18 @@ abstract class AbstractBMCAlgorithm
 
     AlgorithmStatus status;
 
+    // the step case of the pipelined induction, which might still be running
+    Future<StepCaseResult> pendingStepCase = null;
+    ExecutorService stepCaseExecutor = null;
+    if (pipelineInduction && induction && !usePropertyDirection) {
+      stepCaseExecutor =
+          Executors.newSingleThreadExecutor(
+              new ThreadFactoryBuilder()
+                  .setDaemon(true) // do not block termination of CPAchecker
+                  .setNameFormat("BMC-step-case-%d")
+                  .build());
+    }
+
     try (ProverEnvironmentWithFallback prover =
         new ProverEnvironmentWithFallback(solver, ProverOptions.GENERATE_MODELS)) {
       invariantGeneratorHeadStart.waitForInvariantGenerator();
@@ -394,6 +434,16 @@ abstract class AbstractBMCAlgorithm
           return AlgorithmStatus.SOUND_AND_PRECISE;
         }
 
+        // the step case uses the solver of the step-case CPA, thus it can run concurrently
+        Future<StepCaseResult> stepCase = null;
+        if (stepCaseExecutor != null && status.isSound()) {
+          awaitStepCase(pendingStepCase);
+          pendingStepCase = null;
+          stepCase = startStepCase(reachedSet, candidateGenerator, stepCaseExecutor);
+          pendingStepCase = stepCase;
+        }
+        Set<CandidateInvariant> baseCaseViolations = new HashSet<>();
+
         // Perform a bounded model check on each candidate invariant
         Iterator<CandidateInvariant> candidateInvariantIterator = candidateGenerator.iterator();
         while (candidateInvariantIterator.hasNext()) {
@@ -406,6 +456,7 @@ abstract class AbstractBMCAlgorithm
             if (candidateInvariant == TargetLocationCandidateInvariant.INSTANCE) {
               return AlgorithmStatus.UNSOUND_AND_PRECISE;
             }
+            baseCaseViolations.add(candidateInvariant);
             candidateInvariantIterator.remove();
           }
 
@@ -429,7 +480,14 @@ abstract class AbstractBMCAlgorithm
           }
 
           // try to prove program safety via induction
-          if (induction && !sound) {
+          Optional<Boolean> pipelinedResult = Optional.empty();
+          if (induction && !sound && stepCase != null) {
+            pendingStepCase = null;
+            pipelinedResult = finishStepCase(stepCase, baseCaseViolations, candidateGenerator);
+          }
+          if (pipelinedResult.isPresent()) {
+            sound = pipelinedResult.get();
+          } else if (induction && !sound) {
             if (usePropertyDirection) {
               usePropertyDirection =
                   refineCtiBlockingClauses(reachedSet, prover, ctiBlockingClauses, checkedClauses);
@@ -455,11 +513,131 @@ abstract class AbstractBMCAlgorithm
         }
       }
       while (status.isSound() && adjustConditions());
+
+    } finally {
+      if (stepCaseExecutor != null) {
+        if (pendingStepCase != null && !pendingStepCase.isDone()) {
+          // The result is not needed anymore, e.g., because the base case found a bug.
+          // Later runs get a fresh step case, so they can still use induction.
+          logger.log(Level.FINE, "Stopping step case of k-induction, its result is not needed");
+          stepCase.stop("Result of step case of k-induction not needed", pendingStepCase);
+        } else {
+          // the step case must not outlive this run, its solver might be used again later
+          awaitStepCase(pendingStepCase);
+        }
+        stepCaseExecutor.shutdownNow();
+      }
     }
 
     return AlgorithmStatus.UNSOUND_AND_PRECISE;
   }
 
+  /**
+   * Start checking the step case for all applicable candidate invariants on the given executor.
+   * The candidates that were confirmed so far are assumed, but the results are not applied to the
+   * set of confirmed candidates, because the base case for the same k is checked concurrently.
+   */
+  private Future<StepCaseResult> startStepCase(
+      final ReachedSet pReachedSet,
+      final CandidateGenerator pCandidateGenerator,
+      ExecutorService pExecutor)
+      throws CPAException {
+    final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
+    final Set<Object> checkedKeys = getCheckedKeys(pReachedSet);
+    final ImmutableSet<CandidateInvariant> candidates =
+        from(pCandidateGenerator)
+            .filter(getCandidateApplicabilityPredicate(pReachedSet, checkedKeys))
+            .toSet();
+    final ImmutableSet<CandidateInvariant> confirmed = ImmutableSet.copyOf(confirmedCandidates);
+    // create the prover here, because the step case might need to be recreated
+    @SuppressWarnings("resource") // closed by the task
+    final KInductionProver prover = createInductionProver();
+
+    return pExecutor.submit(
+        () -> {
+          try (KInductionProver kInductionProver = prover) {
+            List<CandidateInvariant> proven = new ArrayList<>();
+            List<CandidateInvariant> provenParts = new ArrayList<>();
+            boolean sound =
+                checkStepCase(
+                    kInductionProver,
+                    k,
+                    candidates,
+                    checkedKeys,
+                    Iterables.concat(confirmed, provenParts),
+                    candidate -> {
+                      proven.add(candidate);
+                      Iterables.addAll(
+                          provenParts, CandidateInvariantCombination.getConjunctiveParts(candidate));
+                    },
+                    new TreeSet<>());
+            return new StepCaseResult(proven, sound);
+          }
+        });
+  }
+
+  /**
+   * Wait for the given step case and confirm the candidates proven by it.
+   *
+   * @return whether the step case proved the program safe, or nothing if the result needs to be
+   *     discarded, because the step case relied on a candidate that was violated in the base case.
+   */
+  private Optional<Boolean> finishStepCase(
+      Future<StepCaseResult> pStepCase,
+      Set<CandidateInvariant> pBaseCaseViolations,
+      CandidateGenerator pCandidateGenerator)
+      throws CPAException, InterruptedException, SolverException {
+    final StepCaseResult result;
+    stats.stepCaseWait.start();
+    try {
+      result = pStepCase.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, CPAException.class, SolverException.class);
+      Throwables.throwIfInstanceOf(cause, InterruptedException.class);
+      throw new UnexpectedCheckedException("step case of k-induction", cause);
+    } finally {
+      stats.stepCaseWait.stop();
+    }
+
+    if (!Collections.disjoint(result.proven, pBaseCaseViolations)) {
+      logger.log(Level.FINE, "Discarding step case that assumed candidates violated in base case");
+      stats.discardedStepCases++;
+      return Optional.empty();
+    }
+    for (CandidateInvariant candidate : result.proven) {
+      Iterables.addAll(
+          confirmedCandidates, CandidateInvariantCombination.getConjunctiveParts(candidate));
+      pCandidateGenerator.confirmCandidates(
+          CandidateInvariantCombination.getConjunctiveParts(candidate));
+    }
+    return Optional.of(result.sound);
+  }
+
+  /** Wait until the given step case terminated, ignoring its result. */
+  private void awaitStepCase(@Nullable Future<StepCaseResult> pStepCase) {
+    if (pStepCase != null) {
+      try {
+        Uninterruptibles.getUninterruptibly(pStepCase);
+      } catch (ExecutionException e) {
+        logger.logDebugException(e.getCause(), "Ignoring failure of unused step case");
+      }
+    }
+  }
+
+  private static final class StepCaseResult {
+
+    /** The candidates that were proven inductive, in the order in which they were assumed. */
+    private final ImmutableList<CandidateInvariant> proven;
+
+    private final boolean sound;
+
+    private StepCaseResult(List<CandidateInvariant> pProven, boolean pSound) {
+      proven = ImmutableList.copyOf(pProven);
+      sound = pSound;
+    }
+  }
+
   private boolean checkStepCase(
       final ReachedSet reachedSet,
       final CandidateGenerator candidateGenerator,
@@ -475,13 +653,46 @@ abstract class AbstractBMCAlgorithm
 
     Set<CandidateInvariant> candidates =
         FluentIterable.concat(pCtiBlockingClauses, candidateGenerator).filter(isApplicable).toSet();
-    Set<SymbolicCandiateInvariant> checked = new HashSet<>();
 
     shutdownNotifier.shutdownIfNecessary();
 
+    return checkStepCase(
+        kInductionProver,
+        k,
+        candidates,
+        checkedKeys,
+        confirmedCandidates,
+        candidate -> {
+          Iterables.addAll(
+              confirmedCandidates, CandidateInvariantCombination.getConjunctiveParts(candidate));
+          candidateGenerator.confirmCandidates(
+              CandidateInvariantCombination.getConjunctiveParts(candidate));
+        },
+        pCtiBlockingClauses);
+  }
+
+  /**
+   * Checks the step case for each of the given candidates.
+   *
+   * @param pAssumptions the candidates that may be assumed; this may be a view that is updated by
+   *     {@code pConfirm}.
+   * @param pConfirm called for each candidate (or weakening of an obligation) that was proven.
+   * @return whether the step case was successful for all candidates or for the target-location
+   *     candidate.
+   */
+  private boolean checkStepCase(
+      KInductionProver kInductionProver,
+      int k,
+      Set<CandidateInvariant> pCandidates,
+      Set<Object> checkedKeys,
+      Iterable<CandidateInvariant> pAssumptions,
+      Consumer<CandidateInvariant> pConfirm,
+      Set<Obligation> pCtiBlockingClauses)
+      throws InterruptedException, CPAException, SolverException {
+    Set<SymbolicCandiateInvariant> checked = new HashSet<>();
+
     boolean sound = true;
-    Iterable<CandidateInvariant> candidatesToCheck = candidates;
-    for (CandidateInvariant candidate : candidatesToCheck) {
+    for (CandidateInvariant candidate : pCandidates) {
       // No need to check the same clause twice
       if (candidate instanceof Obligation) {
         if (!checked.add(((Obligation) candidate).getBlockingClause())) {
@@ -500,18 +711,14 @@ abstract class AbstractBMCAlgorithm
 
       InductionResult<CandidateInvariant> inductionResult =
           kInductionProver.check(
-              Iterables.concat(confirmedCandidates, Collections.singleton(candidate)),
+              Iterables.concat(pAssumptions, Collections.singleton(candidate)),
               k,
               candidate,
               checkedKeys,
               InvariantStrengthenings.noStrengthening(),
               lifting);
       if (inductionResult.isSuccessful()) {
-        Iterables.addAll(
-            confirmedCandidates,
-            CandidateInvariantCombination.getConjunctiveParts(candidate));
-        candidateGenerator.confirmCandidates(
-            CandidateInvariantCombination.getConjunctiveParts(candidate));
+        pConfirm.accept(candidate);
         if (candidate == TargetLocationCandidateInvariant.INSTANCE) {
           sound = true;
           break;
@@ -525,18 +732,14 @@ abstract class AbstractBMCAlgorithm
           for (SymbolicCandiateInvariant weakening : weakenings) {
             inductionResult =
                 kInductionProver.check(
-                    Iterables.concat(confirmedCandidates, Collections.singleton(weakening)),
+                    Iterables.concat(pAssumptions, Collections.singleton(weakening)),
                     k,
                     weakening,
                     checkedKeys,
                     InvariantStrengthenings.noStrengthening(),
                     lifting);
             if (inductionResult.isSuccessful()) {
-              Iterables.addAll(
-                  confirmedCandidates,
-                  CandidateInvariantCombination.getConjunctiveParts(weakening));
-              candidateGenerator.confirmCandidates(
-                  CandidateInvariantCombination.getConjunctiveParts(weakening));
+              pConfirm.accept(weakening);
               break;
             }
           }
@@ -832,17 +1035,18 @@ abstract class AbstractBMCAlgorithm
     }
   }
 
-  protected KInductionProver createInductionProver() {
+  protected KInductionProver createInductionProver() throws CPAException {
     assert induction;
+    Pair<ConfigurableProgramAnalysis, Algorithm> stepCaseComponents = stepCase.get();
     return new KInductionProver(
         cfa,
         logger,
-        stepCaseAlgorithm,
-        stepCaseCPA,
+        stepCaseComponents.getSecond(),
+        stepCaseComponents.getFirst(),
         invariantGenerator,
         stats,
         reachedSetFactory,
-        shutdownNotifier,
+        stepCase.getNotifier(),
         getLoopHeads(),
         usePropertyDirection);
   }
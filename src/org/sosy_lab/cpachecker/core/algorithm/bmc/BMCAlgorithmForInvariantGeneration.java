@@ -107,7 +107,7 @@ public class BMCAlgorithmForInvariantGeneration extends AbstractBMCAlgorithm {
   }
 
   @Override
-  protected KInductionProver createInductionProver() {
+  protected KInductionProver createInductionProver() throws CPAException {
     final KInductionProver prover = super.createInductionProver();
 
     if (prover != null) {
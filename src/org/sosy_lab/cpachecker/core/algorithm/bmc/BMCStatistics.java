@@ -39,6 +39,9 @@ public class BMCStatistics implements Statistics {
   final Timer inductionPreparation = new Timer();
   final Timer inductionCheck = new Timer();
 
+  final Timer stepCaseWait = new Timer();
+  int discardedStepCases = 0;
+
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
     if (bmcPreparation.getNumberOfIntervals() > 0) {
@@ -57,6 +60,10 @@ public class BMCStatistics implements Statistics {
       out.println("Time for induction formula creation: " + inductionPreparation);
       out.println("Time for induction check:            " + inductionCheck);
     }
+    if (stepCaseWait.getNumberOfIntervals() > 0) {
+      out.println("Time waiting for step case:          " + stepCaseWait);
+      out.println("Number of discarded step cases:      " + discardedStepCases);
+    }
   }
 
   @Override
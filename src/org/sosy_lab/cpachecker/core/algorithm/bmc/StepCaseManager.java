@@ -0,0 +1,116 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+
+/**
+ * Manages the components of the step case of k-induction (e.g., its CPA, algorithm, and solver).
+ *
+ * <p>The components are bound to a shutdown notifier when they are created. In order to stop a
+ * step case whose result is not needed anymore without stopping the whole analysis, the components
+ * get their own child shutdown manager. Stopped components cannot be used anymore, so they are
+ * disposed and replaced by fresh components the next time they are requested.
+ *
+ * <p>This class is not thread-safe. The components may be used by another thread, but {@link
+ * #get()} and {@link #stop(String, Future)} must be called by the same thread.
+ */
+final class StepCaseManager<C> {
+
+  interface ComponentsFactory<C> {
+    C create(ShutdownNotifier pShutdownNotifier)
+        throws InvalidConfigurationException, CPAException;
+  }
+
+  private final ShutdownNotifier parentNotifier;
+  private final ComponentsFactory<C> factory;
+  private final Consumer<C> disposer;
+
+  private @Nullable ShutdownManager shutdownManager;
+  private @Nullable C components;
+
+  /** Create the manager and the first components, such that configuration errors show early. */
+  StepCaseManager(
+      ShutdownNotifier pParentNotifier, ComponentsFactory<C> pFactory, Consumer<C> pDisposer)
+      throws InvalidConfigurationException, CPAException {
+    parentNotifier = checkNotNull(pParentNotifier);
+    factory = checkNotNull(pFactory);
+    disposer = checkNotNull(pDisposer);
+    createComponents();
+  }
+
+  private void createComponents() throws InvalidConfigurationException, CPAException {
+    ShutdownManager newShutdownManager = ShutdownManager.createWithParent(parentNotifier);
+    components = factory.create(newShutdownManager.getNotifier());
+    shutdownManager = newShutdownManager;
+  }
+
+  /** Return the current components, or fresh ones if the previous ones were stopped. */
+  C get() throws CPAException {
+    if (components == null) {
+      try {
+        createComponents();
+      } catch (InvalidConfigurationException e) {
+        // the same configuration was already used successfully in the constructor
+        throw new CPAException("Could not recreate step case of k-induction", e);
+      }
+    }
+    return components;
+  }
+
+  /** Return the shutdown notifier of the current components. */
+  ShutdownNotifier getNotifier() {
+    checkState(shutdownManager != null, "step case was stopped");
+    return shutdownManager.getNotifier();
+  }
+
+  /**
+   * Stop the given task that uses the current components, wait until it terminated, and dispose
+   * the components. The result of the task is ignored.
+   */
+  void stop(String pReason, Future<?> pTask) {
+    checkState(components != null, "step case was already stopped");
+    C stoppedComponents = components;
+    shutdownManager.requestShutdown(pReason);
+    components = null;
+    shutdownManager = null;
+    try {
+      Uninterruptibles.getUninterruptibly(pTask);
+    } catch (ExecutionException e) {
+      // expected, the task was stopped
+    }
+    disposer.accept(stoppedComponents);
+  }
+}
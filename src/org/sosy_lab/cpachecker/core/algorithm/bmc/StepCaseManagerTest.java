@@ -0,0 +1,138 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+
+public class StepCaseManagerTest {
+
+  private ShutdownManager parent;
+  private ExecutorService executor;
+
+  /** The components of the step cases are just their shutdown notifiers. */
+  private StepCaseManager<ShutdownNotifier> manager;
+
+  private final List<ShutdownNotifier> created = new ArrayList<>();
+  private final List<ShutdownNotifier> disposed = new ArrayList<>();
+
+  @Before
+  public void setUp() throws Exception {
+    parent = ShutdownManager.create();
+    executor =
+        Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).build());
+    manager =
+        new StepCaseManager<>(
+            parent.getNotifier(),
+            notifier -> {
+              created.add(notifier);
+              return notifier;
+            },
+            disposed::add);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /** Start a task that runs until its step case is stopped. */
+  private Future<?> startBlockingTask(ShutdownNotifier pNotifier) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    Future<?> task =
+        executor.submit(
+            () -> {
+              started.countDown();
+              while (true) {
+                pNotifier.shutdownIfNecessary();
+                Thread.sleep(1);
+              }
+            });
+    started.await();
+    return task;
+  }
+
+  @Test
+  public void testComponentsAreCreatedEagerly() {
+    assertThat(created).hasSize(1);
+    assertThat(disposed).isEmpty();
+  }
+
+  @Test
+  public void testComponentsAreReused() throws Exception {
+    ShutdownNotifier first = manager.get();
+    assertThat(manager.get()).isSameInstanceAs(first);
+    assertThat(manager.getNotifier()).isSameInstanceAs(first);
+    assertThat(created).containsExactly(first);
+  }
+
+  @Test
+  public void testStopOnlyAffectsStepCase() throws Exception {
+    ShutdownNotifier components = manager.get();
+    Future<?> task = startBlockingTask(components);
+
+    manager.stop("test", task);
+
+    assertThat(task.isDone()).isTrue();
+    assertThat(components.shouldShutdown()).isTrue();
+    assertThat(parent.getNotifier().shouldShutdown()).isFalse();
+    assertThat(disposed).containsExactly(components);
+  }
+
+  @Test
+  public void testStoppedStepCaseIsRecreated() throws Exception {
+    ShutdownNotifier stopped = manager.get();
+    manager.stop("test", startBlockingTask(stopped));
+
+    // a later run gets a fresh step case that is not stopped
+    ShutdownNotifier fresh = manager.get();
+    assertThat(fresh).isNotSameInstanceAs(stopped);
+    assertThat(fresh.shouldShutdown()).isFalse();
+    assertThat(manager.getNotifier()).isSameInstanceAs(fresh);
+    assertThat(created).containsExactly(stopped, fresh).inOrder();
+
+    // and it can be stopped again
+    manager.stop("test", startBlockingTask(fresh));
+    assertThat(disposed).containsExactly(stopped, fresh).inOrder();
+  }
+
+  @Test
+  public void testShutdownOfAnalysisStopsStepCase() throws Exception {
+    ShutdownNotifier components = manager.get();
+    parent.requestShutdown("test");
+    assertThat(components.shouldShutdown()).isTrue();
+  }
+}
@@ -43,9 +43,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -95,6 +96,14 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
   )
   private int numberOfThreads = -1;
 
+  @Option(
+    description =
+        "analyze blocks first that have the most other blocks waiting for their results, "
+            + "instead of analyzing blocks in the order in which they were reached.",
+    secure = true
+  )
+  private boolean prioritizeBlocksWithDependents = true;
+
   @Option(description = "export number of running RSE instances as CSV", secure = true)
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path runningRSESeriesFile = Paths.get("RSESeries.csv");
@@ -144,7 +153,15 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
             .setDaemon(true) // for killing hanging threads at program exit
             .setNameFormat("ParallelBAM-thread-%d")
             .build();
-    final ExecutorService pool = Executors.newFixedThreadPool(numberOfCores, threadFactory);
+    // a fixed-size thread pool, where waiting tasks are sorted by their priority
+    final ExecutorService pool =
+        new ThreadPoolExecutor(
+            numberOfCores,
+            numberOfCores,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(),
+            threadFactory);
     final List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
     final AtomicBoolean terminateAnalysis = new AtomicBoolean(false);
 
@@ -162,6 +179,7 @@ public class ParallelBAMAlgorithm implements Algorithm, StatisticsProvider {
             true,
             reachedSetMapping,
             pool,
+            prioritizeBlocksWithDependents,
             algorithmFactory,
             shutdownNotifier,
             stats,
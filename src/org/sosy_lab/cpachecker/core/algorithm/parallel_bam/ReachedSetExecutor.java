@@ -28,6 +28,7 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Collections2;
+import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -44,8 +45,11 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
@@ -64,7 +68,6 @@ import org.sosy_lab.cpachecker.cpa.bam.BAMCPAWithBreakOnMissingBlock;
 import org.sosy_lab.cpachecker.cpa.bam.BAMTransferRelation;
 import org.sosy_lab.cpachecker.cpa.bam.MissingBlockAbstractionState;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.exceptions.UnsupportedCodeException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
@@ -99,6 +102,12 @@ class ReachedSetExecutor {
 
   private final ExecutorService pool;
 
+  /** wrapper for the pool that assigns priorities to all tasks of the current RSE. */
+  private final Executor prioritizingPool = this::schedule;
+
+  /** whether tasks of RSEs with many waiting dependents should be executed first. */
+  private final boolean prioritizeBlocksWithDependents;
+
   private final BAMCPAWithBreakOnMissingBlock bamcpa;
   private final AlgorithmFactory algorithmFactory;
   private final ShutdownNotifier shutdownNotifier;
@@ -128,6 +137,12 @@ class ReachedSetExecutor {
   private final Multimap<ReachedSetExecutor, AbstractState> dependingFrom =
       LinkedHashMultimap.create();
 
+  /**
+   * The number of entries in {@link #dependingFrom}, used as priority for scheduling. Can be
+   * accessed without locking {@link #dependingFrom}.
+   */
+  private final AtomicInteger numberOfWaitingDependents = new AtomicInteger(0);
+
   /** This future contains the list of tasks to be executed with this RSE. */
   private CompletableFuture<Void> waitingTask;
 
@@ -138,6 +153,7 @@ class ReachedSetExecutor {
       boolean pIsMainReachedSet,
       ConcurrentMap<ReachedSet, ReachedSetExecutor> pReachedSetMapping,
       ExecutorService pPool,
+      boolean pPrioritizeBlocksWithDependents,
       AlgorithmFactory pAlgorithmFactory,
       ShutdownNotifier pShutdownNotifier,
       ParallelBAMStatistics pStats,
@@ -150,6 +166,7 @@ class ReachedSetExecutor {
     isMainReachedSet = pIsMainReachedSet;
     reachedSetMapping = pReachedSetMapping;
     pool = pPool;
+    prioritizeBlocksWithDependents = pPrioritizeBlocksWithDependents;
     algorithmFactory = pAlgorithmFactory;
     shutdownNotifier = pShutdownNotifier;
     stats = pStats;
@@ -168,7 +185,7 @@ class ReachedSetExecutor {
     terminationCheckTimer = stats.terminationCheckTime.getNewTimer();
 
     // initialization with a NOOP, more tasks are appended later
-    waitingTask = CompletableFuture.runAsync(() -> {}, pool);
+    waitingTask = CompletableFuture.runAsync(() -> {}, prioritizingPool);
   }
 
   public Runnable asRunnable() {
@@ -186,7 +203,17 @@ class ReachedSetExecutor {
   }
 
   synchronized void addNewTask(Runnable r) {
-    waitingTask = waitingTask.thenRunAsync(r, pool).exceptionally(new ExceptionHandler(this));
+    waitingTask =
+        waitingTask.thenRunAsync(r, prioritizingPool).exceptionally(new ExceptionHandler(this));
+  }
+
+  /**
+   * Pass a task to the thread pool. The priority of the task is determined now, i.e., when all
+   * previous tasks of this RSE are finished and the task is ready for execution.
+   */
+  private void schedule(Runnable pTask) {
+    int priority = prioritizeBlocksWithDependents ? numberOfWaitingDependents.get() : 0;
+    pool.execute(new PrioritizedTask(pTask, priority));
   }
 
   /** use only for debugging and exception handling */
@@ -387,6 +414,7 @@ class ReachedSetExecutor {
         registerJob(parent.getKey(), parent.getKey().asRunnable(parent.getValue()));
       }
       dependingFrom.clear();
+      numberOfWaitingDependents.set(0);
     }
   }
 
@@ -395,7 +423,9 @@ class ReachedSetExecutor {
     logger.logf(level, "%s :: %s -> %s", this, this, subRse);
     dependsOn.add(pBsme.getState());
     synchronized (subRse.dependingFrom) {
-      subRse.dependingFrom.put(this, pBsme.getState());
+      if (subRse.dependingFrom.put(this, pBsme.getState())) {
+        subRse.numberOfWaitingDependents.incrementAndGet();
+      }
     }
   }
 
@@ -476,27 +506,16 @@ class ReachedSetExecutor {
    */
   private ReachedSetExecutor createAndRegisterNewReachedSet(MissingBlockAbstractionState pBsme) {
     ReachedSet newRs = pBsme.getReachedSet();
-    BAMDataManager data = bamcpa.getData();
-
-    synchronized (data) {
-      if (newRs == null) {
-        // We are only synchronized in the current method. Thus, we need to check
-        // the cache again, maybe another thread already created the needed reached-set.
-        final BAMCacheEntry entry =
-            data.getCache()
-                .get(pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry == null ? null : entry.getReachedSet();
-      }
-
-      // now we can be sure, whether the sub-reached-set exists or not.
-      if (newRs == null) {
-        // we have not even cached a partly computed reached-set,
-        // so we must compute the subgraph specification from scratch
-        BAMCacheEntry entry =
-            data.createAndRegisterNewReachedSet(
-                pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry.getReachedSet();
-      }
+    if (newRs == null) {
+      // The reached-set was missing when the block was reached. Maybe another thread created it
+      // meanwhile, otherwise we create it here. The cache guarantees that only one reached-set
+      // is created for the same block entry, even if several threads reach it concurrently.
+      newRs =
+          bamcpa
+              .getData()
+              .getOrCreateAndRegisterNewReachedSet(
+                  pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock())
+              .getReachedSet();
     }
 
     ReachedSetExecutor newSubRse =
@@ -507,6 +526,7 @@ class ReachedSetExecutor {
             false, // mainReachedSet is never nested in another reached-set
             reachedSetMapping,
             pool,
+            prioritizeBlocksWithDependents,
             algorithmFactory,
             shutdownNotifier,
             stats,
@@ -556,6 +576,37 @@ class ReachedSetExecutor {
     return "digraph DEPENDENCIES {\n  " + Joiner.on(";\n  ").join(dependencies) + ";\n}\n";
   }
 
+  /**
+   * A task for the thread pool of parallel BAM. Tasks with a higher priority are executed first,
+   * tasks with the same priority are executed in the order of their creation.
+   */
+  static final class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+
+    private static final AtomicLong taskCounter = new AtomicLong(0);
+
+    private final Runnable task;
+    private final int priority;
+    private final long id = taskCounter.getAndIncrement();
+
+    PrioritizedTask(Runnable pTask, int pPriority) {
+      task = pTask;
+      priority = pPriority;
+    }
+
+    @Override
+    public void run() {
+      task.run();
+    }
+
+    @Override
+    public int compareTo(PrioritizedTask other) {
+      return ComparisonChain.start()
+          .compare(other.priority, priority) // higher priority first
+          .compare(id, other.id)
+          .result();
+    }
+  }
+
   class ExceptionHandler implements Function<Throwable, Void> {
 
     private final ReachedSetExecutor rse;
@@ -30,12 +30,14 @@ import com.google.common.collect.ImmutableList;
 
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractWrapperState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Targetable;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.Set;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -45,7 +47,12 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * one CPA.
  */
 public abstract class AbstractSingleWrapperState
-    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable, Serializable {
+    implements AbstractWrapperState,
+        Targetable,
+        Partitionable,
+        PseudoPartitionable,
+        CoverageIndexable,
+        Serializable {
 
   private static final long serialVersionUID = -332757795984736107L;
 
@@ -61,14 +68,19 @@ public abstract class AbstractSingleWrapperState
     wrappedState = pWrappedState;
   }
 
+  /**
+   * Return the wrapped state. All other methods of this class access the wrapped state only
+   * through this method, such that sub-classes can store it themselves.
+   */
   public @Nullable AbstractState getWrappedState() {
     return wrappedState;
   }
 
   @Override
   public boolean isTarget() {
-    if (wrappedState instanceof Targetable) {
-      return ((Targetable)wrappedState).isTarget();
+    AbstractState wrapped = getWrappedState();
+    if (wrapped instanceof Targetable) {
+      return ((Targetable)wrapped).isTarget();
     } else {
       return false;
     }
@@ -77,13 +89,14 @@ public abstract class AbstractSingleWrapperState
   @Override
   public Set<Property> getViolatedProperties() throws IllegalStateException {
     checkState(isTarget());
-    return ((Targetable)wrappedState).getViolatedProperties();
+    return ((Targetable) getWrappedState()).getViolatedProperties();
   }
 
   @Override
   public Object getPartitionKey() {
-    if (wrappedState instanceof Partitionable) {
-      return ((Partitionable)wrappedState).getPartitionKey();
+    AbstractState wrapped = getWrappedState();
+    if (wrapped instanceof Partitionable) {
+      return ((Partitionable)wrapped).getPartitionKey();
     } else {
       return null;
     }
@@ -91,8 +104,9 @@ public abstract class AbstractSingleWrapperState
 
   @Override
   public Comparable<?> getPseudoPartitionKey() {
-    if (wrappedState instanceof PseudoPartitionable) {
-      return ((PseudoPartitionable) wrappedState).getPseudoPartitionKey();
+    AbstractState wrapped = getWrappedState();
+    if (wrapped instanceof PseudoPartitionable) {
+      return ((PseudoPartitionable) wrapped).getPseudoPartitionKey();
     } else {
       return null;
     }
@@ -100,8 +114,19 @@ public abstract class AbstractSingleWrapperState
 
   @Override
   public Object getPseudoHashCode() {
-    if (wrappedState instanceof PseudoPartitionable) {
-      return ((PseudoPartitionable) wrappedState).getPseudoHashCode();
+    AbstractState wrapped = getWrappedState();
+    if (wrapped instanceof PseudoPartitionable) {
+      return ((PseudoPartitionable) wrapped).getPseudoHashCode();
+    } else {
+      return null;
+    }
+  }
+
+  @Override
+  public @Nullable Collection<?> getCoverageFeatures() {
+    AbstractState wrapped = getWrappedState();
+    if (wrapped instanceof CoverageIndexable) {
+      return ((CoverageIndexable) wrapped).getCoverageFeatures();
     } else {
       return null;
     }
@@ -109,11 +134,11 @@ public abstract class AbstractSingleWrapperState
 
   @Override
   public String toString() {
-    return wrappedState.toString();
+    return getWrappedState().toString();
   }
 
   @Override
   public ImmutableList<AbstractState> getWrappedStates() {
-    return ImmutableList.of(wrappedState);
+    return ImmutableList.of(getWrappedState());
   }
 }
\ No newline at end of file
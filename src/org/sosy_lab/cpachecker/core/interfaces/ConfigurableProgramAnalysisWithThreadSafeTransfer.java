@@ -0,0 +1,35 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+/**
+ * Marker interface for CPAs whose transfer relation may be called concurrently for different
+ * abstract states, e.g., because it has no mutable fields and creates only new states. For wrapper
+ * CPAs this only covers the wrapper itself, the wrapped CPAs need to be marked separately.
+ *
+ * <p>Successors are computed in parallel by {@link
+ * org.sosy_lab.cpachecker.core.algorithm.CPAAlgorithm} only if all CPAs implement this interface.
+ */
+public interface ConfigurableProgramAnalysisWithThreadSafeTransfer
+    extends ConfigurableProgramAnalysis {}
@@ -0,0 +1,57 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.interfaces;
+
+import java.util.Collection;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * This interface can be used for abstract states that provide features for a coverage index,
+ * which allows to find the candidates for coverage checks without iterating over all states in a
+ * partition of the reached set.
+ *
+ * <p>The features need to be monotone with respect to the partial order of the abstract domain:
+ * if a state <code>s</code> is 'lessOrEqual' to a state <code>t</code>, then every feature of
+ * <code>t</code> needs to be a feature of <code>s</code>, too. For example, a state that assigns
+ * values to variables can use the assignments as features, because a more precise state contains
+ * all assignments of a less precise state.
+ *
+ * <p>The index is only a pre-filter, the actual coverage check is still done by the stop operator.
+ * It is only useful in combination with stop operators that are based on 'lessOrEqual'.
+ *
+ * @see org.sosy_lab.cpachecker.core.reachedset.CoverageIndex
+ */
+public interface CoverageIndexable {
+
+  /**
+   * Return the features of this state, which need to be hashable. The returned collection should
+   * not contain duplicates.
+   *
+   * @return the features of this state, or null if no features are available, which means that
+   *     the state is a candidate for covering every other state and that every other state is a
+   *     candidate for covering this state.
+   */
+  @Nullable
+  Collection<?> getCoverageFeatures();
+}
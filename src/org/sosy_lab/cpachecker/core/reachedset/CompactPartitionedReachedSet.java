@@ -0,0 +1,700 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractIntSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.AbstractSortedWaitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+
+/**
+ * Implementation of a partitioned reached set with the same semantics as {@link
+ * PartitionedReachedSet}, but with a much smaller memory footprint per state.
+ *
+ * <p>Each state gets an integer id that indexes into arrays of states, precisions, and partitions.
+ * Lookup of states is done with an open-addressing hash table that stores only these ids, and each
+ * partition is a plain list of ids. Thus there are no entry objects per state, and adding a state
+ * does not need any allocation except for the occasional growth of the arrays. Ids of removed
+ * states are dropped lazily and all ids are renumbered once too many states have been removed.
+ *
+ * <p>States are iterated in insertion order, both in the whole set and in each partition.
+ */
+public class CompactPartitionedReachedSet implements ReachedSet {
+
+  private static final int INITIAL_CAPACITY = 128;
+
+  /** Marker in {@link #table} for a free slot. */
+  private static final int FREE = 0;
+
+  /** Marker in {@link #table} for a slot whose state was removed. */
+  private static final int REMOVED = -1;
+
+  /** The set of states with the same partition key, as list of ids in insertion order. */
+  private static final class Partition {
+
+    private final Object key;
+    private int[] ids = new int[4];
+
+    /** Number of entries in {@link #ids} that are used (including ids of removed states). */
+    private int length = 0;
+
+    /** Number of states that are currently in this partition. */
+    private int size = 0;
+
+    private Partition(Object pKey) {
+      key = pKey;
+    }
+
+    private void add(int id) {
+      if (length == ids.length) {
+        ids = Arrays.copyOf(ids, 2 * length);
+      }
+      ids[length++] = id;
+      size++;
+    }
+  }
+
+  // Information about states, indexed by state id.
+  // An entry of null in states means that the state with this id was removed.
+  private @Nullable AbstractState[] states = new AbstractState[INITIAL_CAPACITY];
+  private @Nullable Precision[] precisions = new Precision[INITIAL_CAPACITY];
+  private @Nullable Partition[] partitionOfState = new Partition[INITIAL_CAPACITY];
+
+  /** The next unused id. */
+  private int nextId = 0;
+
+  /** The number of states in the reached set. */
+  private int size = 0;
+
+  /**
+   * Hash table with the ids of all states (shifted by one such that 0 can mark free slots), uses
+   * linear probing. The length is always a power of two.
+   */
+  private int[] table = new int[2 * INITIAL_CAPACITY];
+
+  /** Number of slots in {@link #table} that are not {@link #FREE}. */
+  private int usedSlots = 0;
+
+  private final Map<Object, Partition> partitions = new HashMap<>();
+
+  /** Counter for detecting modifications during iterations. */
+  private int modCount = 0;
+
+  private @Nullable AbstractState firstState = null;
+  private @Nullable AbstractState lastState = null;
+  private final Waitlist waitlist;
+
+  private final Set<AbstractState> unmodifiableReached = new StateSetView();
+
+  public CompactPartitionedReachedSet(WaitlistFactory waitlistFactory) {
+    waitlist = waitlistFactory.createWaitlistInstance();
+  }
+
+  protected Object getPartitionKey(AbstractState pState) {
+    checkNotNull(pState);
+    assert pState instanceof Partitionable
+        : "Partitionable states necessary for CompactPartitionedReachedSet";
+    return ((Partitionable) pState).getPartitionKey();
+  }
+
+  private static int hash(Object o) {
+    int h = o.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  /** Return the id of the given state, or -1 if it is not contained. */
+  private int findId(Object pState) {
+    int mask = table.length - 1;
+    for (int i = hash(pState) & mask; ; i = (i + 1) & mask) {
+      int entry = table[i];
+      if (entry == FREE) {
+        return -1;
+      }
+      if (entry != REMOVED && pState.equals(states[entry - 1])) {
+        return entry - 1;
+      }
+    }
+  }
+
+  /** Return the slot in {@link #table} that contains the given id. */
+  private int findSlotOfId(int id) {
+    int mask = table.length - 1;
+    for (int i = hash(states[id]) & mask; ; i = (i + 1) & mask) {
+      if (table[i] == id + 1) {
+        return i;
+      }
+      assert table[i] != FREE : "state is missing in hash table";
+    }
+  }
+
+  private void insertIntoTable(int id) {
+    int mask = table.length - 1;
+    int i = hash(states[id]) & mask;
+    while (table[i] > FREE) {
+      i = (i + 1) & mask;
+    }
+    if (table[i] == FREE) {
+      usedSlots++;
+    }
+    table[i] = id + 1;
+  }
+
+  @Override
+  public void add(AbstractState state, Precision precision) throws IllegalArgumentException {
+    Preconditions.checkNotNull(state);
+    Preconditions.checkNotNull(precision);
+
+    int id = findId(state);
+    if (id >= 0) {
+      // State was already in the reached set.
+      // This happens only if the MergeOperator produces a state that is already there.
+      // As in DefaultReachedSet, we do not add it to the waitlist again,
+      // but we check that the precisions are equal.
+      checkArgument(
+          precision.equals(precisions[id]),
+          "State added to reached set which is already contained, but with a different precision");
+      return;
+    }
+
+    Object key = getPartitionKey(state);
+    Partition partition = partitions.computeIfAbsent(key, Partition::new);
+
+    if (nextId == states.length) {
+      growOrCompact();
+    }
+    if (3 * (usedSlots + 1) > 2 * table.length) {
+      rehash(size + 1);
+    }
+
+    if (size == 0) {
+      firstState = state;
+    }
+
+    id = nextId++;
+    states[id] = state;
+    precisions[id] = precision;
+    partitionOfState[id] = partition;
+    partition.add(id);
+    insertIntoTable(id);
+    size++;
+    modCount++;
+
+    waitlist.add(state);
+    lastState = state;
+  }
+
+  @Override
+  public void addAll(Iterable<Pair<AbstractState, Precision>> toAdd) {
+    for (Pair<AbstractState, Precision> pair : toAdd) {
+      add(pair.getFirst(), pair.getSecond());
+    }
+  }
+
+  @Override
+  public void reAddToWaitlist(AbstractState s) {
+    Preconditions.checkNotNull(s);
+    Preconditions.checkArgument(findId(s) >= 0, "State has to be in the reached set");
+
+    if (!waitlist.contains(s)) {
+      waitlist.add(s);
+    }
+  }
+
+  @Override
+  public void updatePrecision(AbstractState s, Precision newPrecision) {
+    Preconditions.checkNotNull(s);
+    Preconditions.checkNotNull(newPrecision);
+
+    int id = findId(s);
+    Preconditions.checkArgument(
+        id >= 0, "State needs to be in the reached set in order to change the precision.");
+    precisions[id] = newPrecision;
+  }
+
+  @Override
+  public void remove(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    waitlist.remove(state);
+
+    int id = findId(state);
+    if (id < 0) {
+      return;
+    }
+    if (firstState != null && state.equals(firstState)) {
+      firstState = null;
+    }
+    if (lastState != null && state.equals(lastState)) {
+      lastState = null;
+    }
+
+    table[findSlotOfId(id)] = REMOVED;
+    Partition partition = partitionOfState[id];
+    states[id] = null;
+    precisions[id] = null;
+    partitionOfState[id] = null;
+    size--;
+    modCount++;
+
+    partition.size--;
+    if (partition.size == 0) {
+      partitions.remove(partition.key);
+    } else if (partition.length > 2 * partition.size + 8) {
+      compactPartition(partition);
+    }
+  }
+
+  @Override
+  public void removeAll(Iterable<? extends AbstractState> toRemove) {
+    for (AbstractState state : toRemove) {
+      remove(state);
+    }
+  }
+
+  @Override
+  public void removeOnlyFromWaitlist(AbstractState state) {
+    checkNotNull(state);
+    waitlist.remove(state);
+  }
+
+  @Override
+  public void clear() {
+    firstState = null;
+    lastState = null;
+    waitlist.clear();
+    states = new AbstractState[INITIAL_CAPACITY];
+    precisions = new Precision[INITIAL_CAPACITY];
+    partitionOfState = new Partition[INITIAL_CAPACITY];
+    table = new int[2 * INITIAL_CAPACITY];
+    usedSlots = 0;
+    nextId = 0;
+    size = 0;
+    partitions.clear();
+    modCount++;
+  }
+
+  /** Remove the ids of removed states from the list of a partition. */
+  private void compactPartition(Partition partition) {
+    int[] newIds = new int[Math.max(4, partition.size + partition.size / 2)];
+    int j = 0;
+    for (int i = 0; i < partition.length; i++) {
+      int id = partition.ids[i];
+      if (states[id] != null) {
+        newIds[j++] = id;
+      }
+    }
+    assert j == partition.size;
+    partition.ids = newIds;
+    partition.length = j;
+  }
+
+  /**
+   * Make room for a new id: if many states were removed, all ids are renumbered such that they are
+   * consecutive again, otherwise the arrays are enlarged.
+   */
+  private void growOrCompact() {
+    int capacity = states.length;
+    if (size <= capacity / 2) {
+      renumber(capacity);
+    } else {
+      renumber(2 * capacity);
+    }
+  }
+
+  private void renumber(int newCapacity) {
+    AbstractState[] newStates = new AbstractState[newCapacity];
+    Precision[] newPrecisions = new Precision[newCapacity];
+    Partition[] newPartitionOfState = new Partition[newCapacity];
+    int[] newIdOf = new int[nextId];
+
+    int j = 0;
+    for (int id = 0; id < nextId; id++) {
+      if (states[id] != null) {
+        newStates[j] = states[id];
+        newPrecisions[j] = precisions[id];
+        newPartitionOfState[j] = partitionOfState[id];
+        newIdOf[id] = j;
+        j++;
+      }
+    }
+    assert j == size;
+
+    // ids in each partition keep their relative order, so insertion order is preserved
+    for (Partition partition : partitions.values()) {
+      int k = 0;
+      for (int i = 0; i < partition.length; i++) {
+        int id = partition.ids[i];
+        if (states[id] != null) {
+          partition.ids[k++] = newIdOf[id];
+        }
+      }
+      partition.length = k;
+    }
+
+    states = newStates;
+    precisions = newPrecisions;
+    partitionOfState = newPartitionOfState;
+    nextId = size;
+    modCount++;
+    rehash(size);
+  }
+
+  /** Rebuild the hash table such that it is large enough for the given number of states. */
+  private void rehash(int expectedSize) {
+    int capacity = table.length;
+    while (3 * expectedSize > capacity) {
+      capacity *= 2;
+    }
+    table = new int[capacity];
+    usedSlots = 0;
+    for (int id = 0; id < nextId; id++) {
+      if (states[id] != null) {
+        insertIntoTable(id);
+      }
+    }
+  }
+
+  @Override
+  public Set<AbstractState> asCollection() {
+    return unmodifiableReached;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    return unmodifiableReached.iterator();
+  }
+
+  @Override
+  public Collection<Precision> getPrecisions() {
+    return new AbstractCollection<>() {
+
+      @Override
+      public Iterator<Precision> iterator() {
+        return new IdIterator<>() {
+          @Override
+          Precision get(int id) {
+            return precisions[id];
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState state) {
+    return getReachedForKey(getPartitionKey(state));
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(CFANode location) {
+    checkNotNull(location);
+    return asCollection();
+  }
+
+  protected Collection<AbstractState> getReachedForKey(@Nullable Object key) {
+    return new PartitionView(key);
+  }
+
+  public int getNumberOfPartitions() {
+    return partitions.size();
+  }
+
+  public Map.Entry<Object, Collection<AbstractState>> getMaxPartition() {
+    Partition maxPartition = null;
+    for (Partition partition : partitions.values()) {
+      if (maxPartition == null || partition.size > maxPartition.size) {
+        maxPartition = partition;
+      }
+    }
+    return maxPartition == null
+        ? null
+        : Maps.immutableEntry(maxPartition.key, getReachedForKey(maxPartition.key));
+  }
+
+  @Override
+  public @Nullable AbstractState getFirstState() {
+    return firstState;
+  }
+
+  @Override
+  public @Nullable AbstractState getLastState() {
+    return lastState;
+  }
+
+  @Override
+  public boolean hasWaitingState() {
+    return !waitlist.isEmpty();
+  }
+
+  @Override
+  public Collection<AbstractState> getWaitlist() {
+    return new AbstractCollection<>() {
+
+      @Override
+      public Iterator<AbstractState> iterator() {
+        return Iterators.unmodifiableIterator(waitlist.iterator());
+      }
+
+      @Override
+      public boolean contains(Object obj) {
+        if (!(obj instanceof AbstractState)) {
+          return false;
+        }
+        return waitlist.contains((AbstractState) obj);
+      }
+
+      @Override
+      public boolean isEmpty() {
+        return waitlist.isEmpty();
+      }
+
+      @Override
+      public int size() {
+        return waitlist.size();
+      }
+
+      @Override
+      public String toString() {
+        return waitlist.toString();
+      }
+    };
+  }
+
+  @Override
+  public AbstractState popFromWaitlist() {
+    return waitlist.pop();
+  }
+
+  @Override
+  public Precision getPrecision(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    int id = findId(state);
+    Preconditions.checkArgument(id >= 0, "State not in reached set:\n%s", state);
+    return precisions[id];
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super AbstractState, ? super Precision> pAction) {
+    checkNotNull(pAction);
+    int expectedModCount = modCount;
+    for (int id = 0; id < nextId; id++) {
+      if (states[id] != null) {
+        pAction.accept(states[id], precisions[id]);
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+      }
+    }
+  }
+
+  @Override
+  public boolean contains(AbstractState state) {
+    Preconditions.checkNotNull(state);
+    return findId(state) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public String toString() {
+    return unmodifiableReached.toString();
+  }
+
+  @Override
+  public ImmutableMap<String, AbstractStatValue> getStatistics() {
+    if (waitlist instanceof AbstractSortedWaitlist) {
+      return ImmutableMap.copyOf(((AbstractSortedWaitlist<?>) waitlist).getDelegationCounts());
+
+    } else if (waitlist instanceof AbstractIntSortedWaitlist) {
+      return ImmutableMap.copyOf(((AbstractIntSortedWaitlist) waitlist).getDelegationCounts());
+
+    } else {
+      return ImmutableMap.of();
+    }
+  }
+
+  /** Iterator over all ids of states in the reached set, in insertion order. */
+  private abstract class IdIterator<T> implements Iterator<T> {
+
+    private final int expectedModCount = modCount;
+    private int next = advance(0);
+
+    private int advance(int id) {
+      while (id < nextId && states[id] == null) {
+        id++;
+      }
+      return id;
+    }
+
+    abstract T get(int id);
+
+    @Override
+    public boolean hasNext() {
+      return next < nextId;
+    }
+
+    @Override
+    public T next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T result = get(next);
+      next = advance(next + 1);
+      return result;
+    }
+  }
+
+  /** Unmodifiable view on all states of the reached set. */
+  private final class StateSetView extends AbstractSet<AbstractState> {
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return new IdIterator<>() {
+        @Override
+        AbstractState get(int id) {
+          return states[id];
+        }
+      };
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+      return obj != null && findId(obj) >= 0;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+
+  /** Unmodifiable view on all states of one partition. */
+  private final class PartitionView extends AbstractCollection<AbstractState> {
+
+    private final @Nullable Object key;
+
+    private PartitionView(@Nullable Object pKey) {
+      key = pKey;
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      final Partition partition = partitions.get(key);
+      if (partition == null) {
+        return Collections.emptyIterator();
+      }
+      return new Iterator<>() {
+
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        private int advance(int i) {
+          while (i < partition.length && states[partition.ids[i]] == null) {
+            i++;
+          }
+          return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+          return next < partition.length;
+        }
+
+        @Override
+        public AbstractState next() {
+          if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+          if (!hasNext()) {
+            throw new NoSuchElementException();
+          }
+          AbstractState result = states[partition.ids[next]];
+          next = advance(next + 1);
+          return result;
+        }
+      };
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+      if (obj == null) {
+        return false;
+      }
+      int id = findId(obj);
+      return id >= 0 && partitionOfState[id] == partitions.get(key);
+    }
+
+    @Override
+    public int size() {
+      Partition partition = partitions.get(key);
+      return partition == null ? 0 : partition.size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return size() == 0;
+    }
+  }
+}
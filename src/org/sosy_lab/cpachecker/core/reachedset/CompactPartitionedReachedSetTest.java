@@ -0,0 +1,168 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class CompactPartitionedReachedSetTest {
+
+  private static final class TestState implements AbstractState, Partitionable {
+
+    private final int id;
+    private final int partition;
+
+    private TestState(int pId, int pPartition) {
+      id = pId;
+      partition = pPartition;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      return pObj instanceof TestState && ((TestState) pObj).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      // many collisions on purpose
+      return id % 7;
+    }
+
+    @Override
+    public String toString() {
+      return "State " + id;
+    }
+  }
+
+  private final Precision precision = mock(Precision.class);
+
+  private ReachedSet compact;
+  private ReachedSet reference;
+
+  @Before
+  public void init() {
+    compact = new CompactPartitionedReachedSet(TraversalMethod.BFS);
+    reference = new PartitionedReachedSet(TraversalMethod.BFS);
+  }
+
+  private void add(AbstractState state) {
+    compact.add(state, precision);
+    reference.add(state, precision);
+  }
+
+  private void remove(AbstractState state) {
+    compact.remove(state);
+    reference.remove(state);
+  }
+
+  private void assertSameContent(List<TestState> allStates) {
+    assertThat(compact.asCollection()).containsExactlyElementsIn(reference.asCollection()).inOrder();
+    assertThat(compact.size()).isEqualTo(reference.size());
+    assertThat(compact.getWaitlist()).containsExactlyElementsIn(reference.getWaitlist()).inOrder();
+    assertThat(compact.getFirstState()).isEqualTo(reference.getFirstState());
+    assertThat(compact.getLastState()).isEqualTo(reference.getLastState());
+    for (TestState state : allStates) {
+      assertThat(compact.contains(state)).isEqualTo(reference.contains(state));
+      assertThat(compact.getReached(state))
+          .containsExactlyElementsIn(reference.getReached(state))
+          .inOrder();
+    }
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    TestState s1 = new TestState(1, 0);
+    TestState s2 = new TestState(2, 1);
+    TestState s3 = new TestState(3, 0);
+
+    add(s1);
+    add(s2);
+    add(s3);
+    assertThat(compact.getReached(s1)).containsExactly(s1, s3).inOrder();
+    assertThat(compact.getReached(s2)).containsExactly(s2);
+    assertThat(compact.getPrecision(s2)).isSameInstanceAs(precision);
+
+    remove(s1);
+    assertThat(compact.contains(s1)).isFalse();
+    assertThat(compact.getReached(s3)).containsExactly(s3);
+    assertThat(compact.getFirstState()).isNull();
+    assertSameContent(List.of(s1, s2, s3));
+
+    // adding an existing state again does not change anything
+    add(s2);
+    assertSameContent(List.of(s1, s2, s3));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAddWithDifferentPrecision() {
+    TestState s1 = new TestState(1, 0);
+    compact.add(s1, precision);
+    compact.add(s1, mock(Precision.class));
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    List<TestState> allStates = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      allStates.add(new TestState(i, random.nextInt(20)));
+    }
+
+    for (int round = 0; round < 20000; round++) {
+      TestState state = allStates.get(random.nextInt(allStates.size()));
+      switch (random.nextInt(4)) {
+        case 0:
+          remove(state);
+          break;
+        case 1:
+          if (compact.hasWaitingState()) {
+            assertThat(compact.popFromWaitlist()).isEqualTo(reference.popFromWaitlist());
+          }
+          break;
+        default:
+          add(state);
+      }
+    }
+    assertSameContent(allStates);
+
+    compact.clear();
+    reference.clear();
+    assertSameContent(allStates);
+  }
+}
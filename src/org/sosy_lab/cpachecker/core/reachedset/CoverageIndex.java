@@ -0,0 +1,57 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import java.util.Collection;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
+
+/**
+ * A collection of abstract states (usually a partition of a reached set) that can efficiently
+ * compute the candidates for covering a given state, based on the features of {@link
+ * CoverageIndexable} states.
+ *
+ * <p>Stop operators should use {@link #getCoverageCandidates(AbstractState, Collection)} to
+ * iterate over the states that might cover a new state.
+ */
+public interface CoverageIndex {
+
+  /**
+   * Return all states of this collection that might cover the given state. The result contains at
+   * least all states that the given state is 'lessOrEqual' to.
+   */
+  Collection<AbstractState> getCoverageCandidates(AbstractState pState);
+
+  /**
+   * Return all states of the given collection that might cover the given state, which is the
+   * whole collection if it is not a {@link CoverageIndex}.
+   */
+  static Collection<AbstractState> getCoverageCandidates(
+      AbstractState pState, Collection<AbstractState> pReached) {
+    if (pReached instanceof CoverageIndex) {
+      return ((CoverageIndex) pReached).getCoverageCandidates(pState);
+    }
+    return pReached;
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.WaitlistFactory;
+
+/**
+ * Special implementation of the partitioned reached set {@link PartitionedReachedSet}, which
+ * additionally maintains an index over the features of {@link CoverageIndexable} states for each
+ * partition.
+ *
+ * <p>The collections returned by {@link #getReached(AbstractState)} implement {@link
+ * CoverageIndex}, such that stop operators need to check only those states of a partition whose
+ * features are a subset of the features of the new state, instead of all states of the partition.
+ * The candidates are found by counting for each reached state how many of its features occur in
+ * the new state, which is proportional to the number of states sharing features with the new
+ * state. The candidates are returned in the order of the partition, such that the result of the
+ * stop operator is deterministic.
+ */
+public class CoverageIndexedReachedSet extends PartitionedReachedSet {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * The index for each partition. Indices are only removed by {@link #clear()}, such that the
+   * collections returned by {@link #getReached(AbstractState)} stay up-to-date if a partition
+   * becomes empty and is filled again (e.g., by a merge).
+   */
+  @SuppressFBWarnings("SE_BAD_FIELD")
+  private final Map<Object, IndexedPartition> indexedPartitions = new HashMap<>();
+
+  public CoverageIndexedReachedSet(WaitlistFactory waitlistFactory) {
+    super(waitlistFactory);
+  }
+
+  @Override
+  public void add(AbstractState pState, Precision pPrecision) {
+    super.add(pState, pPrecision);
+
+    getPartition(getPartitionKey(pState)).index(pState);
+  }
+
+  @Override
+  public void remove(AbstractState pState) {
+    super.remove(pState);
+
+    IndexedPartition partition = indexedPartitions.get(getPartitionKey(pState));
+    if (partition != null) {
+      partition.unindex(pState);
+    }
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+
+    indexedPartitions.clear();
+  }
+
+  @Override
+  public Collection<AbstractState> getReached(AbstractState pState) {
+    return getPartition(getPartitionKey(pState));
+  }
+
+  private IndexedPartition getPartition(@Nullable Object pKey) {
+    return indexedPartitions.computeIfAbsent(
+        pKey, key -> new IndexedPartition(getReachedForKey(key)));
+  }
+
+  private static @Nullable Set<?> getFeatures(AbstractState pState) {
+    if (pState instanceof CoverageIndexable) {
+      Collection<?> features = ((CoverageIndexable) pState).getCoverageFeatures();
+      if (features != null) {
+        return ImmutableSet.copyOf(features);
+      }
+    }
+    return null;
+  }
+
+  /** An unmodifiable view of a partition, together with the index of its features. */
+  private static final class IndexedPartition extends AbstractCollection<AbstractState>
+      implements CoverageIndex {
+
+    private final Collection<AbstractState> states;
+
+    private final Map<Object, Set<AbstractState>> statesByFeature = new HashMap<>();
+    private final Map<AbstractState, Set<?>> featuresByState = new HashMap<>();
+
+    /** States without features, these are candidates for covering every state. */
+    private final Set<AbstractState> unindexedStates = new LinkedHashSet<>();
+
+    private IndexedPartition(Collection<AbstractState> pStates) {
+      states = pStates;
+    }
+
+    private void index(AbstractState pState) {
+      if (featuresByState.containsKey(pState) || unindexedStates.contains(pState)) {
+        return; // state was already added before
+      }
+      Set<?> features = getFeatures(pState);
+      if (features == null || features.isEmpty()) {
+        unindexedStates.add(pState);
+        return;
+      }
+      featuresByState.put(pState, features);
+      for (Object feature : features) {
+        statesByFeature.computeIfAbsent(feature, k -> new HashSet<>()).add(pState);
+      }
+    }
+
+    private void unindex(AbstractState pState) {
+      if (unindexedStates.remove(pState)) {
+        return;
+      }
+      Set<?> features = featuresByState.remove(pState);
+      if (features == null) {
+        return;
+      }
+      for (Object feature : features) {
+        Set<AbstractState> statesWithFeature = statesByFeature.get(feature);
+        statesWithFeature.remove(pState);
+        if (statesWithFeature.isEmpty()) {
+          statesByFeature.remove(feature);
+        }
+      }
+    }
+
+    @Override
+    public Collection<AbstractState> getCoverageCandidates(AbstractState pState) {
+      Set<?> features = getFeatures(pState);
+      if (features == null) {
+        return this;
+      }
+
+      // count for each state how many of its features are also features of the given state
+      Map<AbstractState, Integer> matchingFeatures = new IdentityHashMap<>();
+      for (Object feature : features) {
+        Set<AbstractState> statesWithFeature = statesByFeature.get(feature);
+        if (statesWithFeature != null) {
+          for (AbstractState state : statesWithFeature) {
+            matchingFeatures.merge(state, 1, Integer::sum);
+          }
+        }
+      }
+
+      if (matchingFeatures.isEmpty()) {
+        return ImmutableList.copyOf(unindexedStates);
+      }
+
+      // Return the candidates in the order of the partition. The stop operator uses the first
+      // covering state, so the order must not depend on the (identity) hash codes of the states.
+      List<AbstractState> candidates = new ArrayList<>();
+      for (AbstractState state : states) {
+        Integer matching = matchingFeatures.get(state);
+        if (matching != null
+            ? matching == featuresByState.get(state).size()
+            : unindexedStates.contains(state)) {
+          candidates.add(state);
+        }
+      }
+      return candidates;
+    }
+
+    @Override
+    public Iterator<AbstractState> iterator() {
+      return Iterators.unmodifiableIterator(states.iterator());
+    }
+
+    @Override
+    public int size() {
+      return states.size();
+    }
+
+    @Override
+    public boolean contains(Object pO) {
+      return states.contains(pO);
+    }
+  }
+}
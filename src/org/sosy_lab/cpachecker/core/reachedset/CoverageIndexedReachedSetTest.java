@@ -0,0 +1,150 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class CoverageIndexedReachedSetTest {
+
+  private static final class TestState implements AbstractState, Partitionable, CoverageIndexable {
+
+    private final int partition;
+    private final @Nullable ImmutableSet<Integer> features;
+
+    private TestState(int pPartition, @Nullable ImmutableSet<Integer> pFeatures) {
+      partition = pPartition;
+      features = pFeatures;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partition;
+    }
+
+    @Override
+    public @Nullable Collection<?> getCoverageFeatures() {
+      return features;
+    }
+
+    @Override
+    public String toString() {
+      return partition + ":" + features;
+    }
+  }
+
+  private final Precision precision = mock(Precision.class);
+
+  private ReachedSet reached;
+
+  @Before
+  public void init() {
+    reached = new CoverageIndexedReachedSet(TraversalMethod.BFS);
+  }
+
+  private static TestState state(int pPartition, Integer... pFeatures) {
+    return new TestState(pPartition, ImmutableSet.copyOf(pFeatures));
+  }
+
+  private Collection<AbstractState> candidates(AbstractState pState) {
+    return CoverageIndex.getCoverageCandidates(pState, reached.getReached(pState));
+  }
+
+  @Test
+  public void testCandidates() {
+    TestState empty = state(0);
+    TestState s1 = state(0, 1);
+    TestState s12 = state(0, 1, 2);
+    TestState s23 = state(0, 2, 3);
+    TestState other = state(1, 1);
+    reached.add(empty, precision);
+    reached.add(s1, precision);
+    reached.add(s12, precision);
+    reached.add(s23, precision);
+    reached.add(other, precision);
+
+    assertThat(reached.getReached(s1)).containsExactly(empty, s1, s12, s23).inOrder();
+    assertThat(candidates(state(0, 1, 2, 4))).containsExactly(empty, s1, s12);
+    assertThat(candidates(state(0, 3))).containsExactly(empty);
+    assertThat(candidates(state(1, 1, 2))).containsExactly(other);
+    assertThat(candidates(state(2, 1))).isEmpty();
+
+    // states without features are candidates for everything
+    TestState unknown = new TestState(0, null);
+    reached.add(unknown, precision);
+    assertThat(candidates(state(0, 3))).containsExactly(empty, unknown);
+    assertThat(candidates(unknown)).containsExactly(empty, s1, s12, s23, unknown);
+  }
+
+  @Test
+  public void testCandidateOrder() {
+    // TestState has identity hash codes like ARGState, so an order based on hashing would vary
+    TestState s12 = state(0, 1, 2);
+    TestState unknown = new TestState(0, null);
+    TestState s2 = state(0, 2);
+    TestState empty = state(0);
+    TestState s1 = state(0, 1);
+    reached.add(s12, precision);
+    reached.add(unknown, precision);
+    reached.add(s2, precision);
+    reached.add(empty, precision);
+    reached.add(s1, precision);
+
+    assertThat(candidates(state(0, 1, 2, 3)))
+        .containsExactly(s12, unknown, s2, empty, s1)
+        .inOrder();
+    assertThat(candidates(state(0, 1))).containsExactly(unknown, empty, s1).inOrder();
+    assertThat(candidates(state(0, 4))).containsExactly(unknown, empty).inOrder();
+  }
+
+  @Test
+  public void testRemove() {
+    TestState s1 = state(0, 1);
+    TestState s12 = state(0, 1, 2);
+    reached.add(s1, precision);
+    reached.add(s12, precision);
+    Collection<AbstractState> partition = reached.getReached(s1);
+
+    reached.remove(s1);
+    assertThat(candidates(state(0, 1, 2))).containsExactly(s12);
+
+    // the partition that was returned before stays up-to-date
+    reached.remove(s12);
+    assertThat(partition).isEmpty();
+    reached.add(s1, precision);
+    assertThat(partition).containsExactly(s1);
+    assertThat(CoverageIndex.getCoverageCandidates(s12, partition)).containsExactly(s1);
+  }
+}
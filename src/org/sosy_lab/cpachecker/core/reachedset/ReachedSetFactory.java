@@ -31,6 +31,7 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.waitlist.AdaptiveWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.AutomatonFailedMatchesWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.AutomatonMatchesWaitlist;
 import org.sosy_lab.cpachecker.core.waitlist.BlockConfiguration;
@@ -56,7 +57,7 @@ import org.sosy_lab.cpachecker.cpa.usage.storage.UsageConfiguration;
 public class ReachedSetFactory {
 
   private enum ReachedSetType {
-    NORMAL, LOCATIONMAPPED, PARTITIONED, PSEUDOPARTITIONED, USAGE
+    NORMAL, LOCATIONMAPPED, PARTITIONED, COMPACTPARTITIONED, PSEUDOPARTITIONED, COVERAGEINDEXED, USAGE
   }
 
   @Option(
@@ -172,6 +173,15 @@ public class ReachedSetFactory {
   )
   private boolean useWeightedBranchOrder = false;
 
+  @Option(
+      secure = true,
+      name = "traversal.adaptive",
+      description =
+          "mix the configured traversal order with other orders"
+              + " and learn at runtime which order discovers new program locations fastest"
+              + " (the mixed orders are configured with 'analysis.traversal.adaptive.orders')")
+  private boolean useAdaptiveOrder = false;
+
   @Option(
     secure = true,
     name = "traversal.useBlocks",
@@ -189,8 +199,12 @@ public class ReachedSetFactory {
             + "\nLOCATIONMAPPED: a different set per location "
             + "(faster, states with different locations cannot be merged)"
             + "\nPARTITIONED: partitioning depending on CPAs (e.g Location, Callstack etc.)"
+            + "\nCOMPACTPARTITIONED: same as PARTITIONED, but with an array-based storage "
+            + "that needs less memory per state"
             + "\nPSEUDOPARTITIONED: based on PARTITIONED, uses additional info about the states' lattice "
             + "(maybe faster for some special analyses which use merge_sep and stop_sep"
+            + "\nCOVERAGEINDEXED: based on PARTITIONED, uses an index over features of the states "
+            + "to find the candidates for coverage checks (for analyses with stop_sep)"
   )
   private ReachedSetType reachedSet = ReachedSetType.PARTITIONED;
 
@@ -203,6 +217,7 @@ public class ReachedSetFactory {
   private @Nullable BlockConfiguration blockConfig;
   private @Nullable UsageConfiguration usageConfig;
   private WeightedRandomWaitlist.@Nullable WaitlistOptions weightedWaitlistOptions;
+  private AdaptiveWaitlist.@Nullable WaitlistOptions adaptiveWaitlistOptions;
   private final LogManager logger;
 
   public ReachedSetFactory(Configuration pConfig, LogManager pLogger)
@@ -225,6 +240,11 @@ public class ReachedSetFactory {
     } else {
       weightedWaitlistOptions = null;
     }
+    if (useAdaptiveOrder) {
+      adaptiveWaitlistOptions = new AdaptiveWaitlist.WaitlistOptions(pConfig);
+    } else {
+      adaptiveWaitlistOptions = null;
+    }
   }
 
   public ReachedSet create() {
@@ -277,6 +297,9 @@ public class ReachedSetFactory {
     if (useNumberOfHeapObjects) {
       waitlistFactory = SMGSortedWaitlist.factory(waitlistFactory);
     }
+    if (useAdaptiveOrder) {
+      waitlistFactory = AdaptiveWaitlist.factory(waitlistFactory, adaptiveWaitlistOptions);
+    }
     if (useBlocks) {
       waitlistFactory = BlockWaitlist.factory(waitlistFactory, blockConfig, logger);
     }
@@ -286,9 +309,15 @@ public class ReachedSetFactory {
     case PARTITIONED:
         reached = new PartitionedReachedSet(waitlistFactory);
         break;
+    case COMPACTPARTITIONED:
+        reached = new CompactPartitionedReachedSet(waitlistFactory);
+        break;
     case PSEUDOPARTITIONED:
         reached = new PseudoPartitionedReachedSet(waitlistFactory);
         break;
+    case COVERAGEINDEXED:
+        reached = new CoverageIndexedReachedSet(waitlistFactory);
+        break;
     case LOCATIONMAPPED:
         reached = new LocationMappedReachedSet(waitlistFactory);
         break;
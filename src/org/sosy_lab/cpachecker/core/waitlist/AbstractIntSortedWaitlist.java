@@ -0,0 +1,254 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+import com.google.errorprone.annotations.ForOverride;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+
+/**
+ * Implementation of a sorted waitlist for sorting keys of type int, which behaves like {@link
+ * AbstractSortedWaitlist} but is cheaper.
+ *
+ * <p>Instead of a tree map with boxed keys, the waitlists for each key are stored in an array
+ * indexed by the key (a bucket queue), and the index of the highest non-empty bucket is tracked.
+ * Buckets that become empty are kept for reuse, such that adding and popping states does not
+ * allocate anything as long as the waitlists of the secondary strategy do not. The array is as
+ * large as the range of occurring keys, thus this class should only be used for keys that lie in a
+ * range bounded by the size of the program, like reverse postorder ids or callstack depths.
+ *
+ * <p>The iterators created by this class are unmodifiable.
+ */
+public abstract class AbstractIntSortedWaitlist implements Waitlist {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final WaitlistFactory wrappedWaitlist;
+
+  /** The waitlist for key k is at index k - offset, or null if it was not created yet. */
+  private Waitlist[] buckets = new Waitlist[0];
+
+  private int offset = 0;
+
+  /** Index of the highest non-empty bucket, or -1 if all buckets are empty. */
+  private int highest = -1;
+
+  private int size = 0;
+
+  private final StatCounter popCount;
+  private final StatCounter delegationCount;
+
+  /**
+   * Constructor that needs a factory for the waitlist implementation that should be used to store
+   * states with the same sorting key.
+   */
+  protected AbstractIntSortedWaitlist(WaitlistFactory pSecondaryStrategy) {
+    wrappedWaitlist = Preconditions.checkNotNull(pSecondaryStrategy);
+    popCount = new StatCounter("Pop requests to waitlist (" + getClass().getSimpleName() + ")");
+    delegationCount =
+        new StatCounter(
+            "Pops delegated to wrapped waitlists ("
+                + wrappedWaitlist.getClass().getSimpleName()
+                + ")");
+  }
+
+  /**
+   * Method that generates the sorting key for any abstract state. States with largest key are
+   * considered first. If this method throws an exception, no guarantees about the state of the
+   * current instance of this class are made.
+   */
+  @ForOverride
+  protected abstract int getSortKey(AbstractState pState);
+
+  @Override
+  public void add(AbstractState pState) {
+    int index = ensureIndex(getSortKey(pState));
+    Waitlist localWaitlist = buckets[index];
+    if (localWaitlist == null) {
+      localWaitlist = wrappedWaitlist.createWaitlistInstance();
+      buckets[index] = localWaitlist;
+    }
+    localWaitlist.add(pState);
+    size++;
+    highest = Math.max(highest, index);
+  }
+
+  /** Return the index of the bucket for the given key, growing the array if necessary. */
+  private int ensureIndex(int pKey) {
+    if (buckets.length == 0) {
+      buckets = new Waitlist[INITIAL_CAPACITY];
+      offset = pKey;
+    }
+
+    long index = (long) pKey - offset;
+    if (index < 0) {
+      int shift = Math.toIntExact(Math.max(buckets.length, -index));
+      Waitlist[] newBuckets = new Waitlist[Math.addExact(buckets.length, shift)];
+      System.arraycopy(buckets, 0, newBuckets, shift, buckets.length);
+      buckets = newBuckets;
+      offset -= shift;
+      if (highest >= 0) {
+        highest += shift;
+      }
+      index += shift;
+
+    } else if (index >= buckets.length) {
+      buckets = Arrays.copyOf(buckets, Math.toIntExact(Math.max(2L * buckets.length, index + 1)));
+    }
+    return (int) index;
+  }
+
+  /** Return the bucket for the given key, or null if there is none. */
+  private Waitlist getBucket(int pKey) {
+    long index = (long) pKey - offset;
+    return (index >= 0 && index < buckets.length) ? buckets[(int) index] : null;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    Waitlist localWaitlist = getBucket(getSortKey(pState));
+    return localWaitlist != null && localWaitlist.contains(pState);
+  }
+
+  @Override
+  public void clear() {
+    for (Waitlist localWaitlist : buckets) {
+      if (localWaitlist != null) {
+        localWaitlist.clear();
+      }
+    }
+    highest = -1;
+    size = 0;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    assert (highest < 0) == (size == 0);
+    return size == 0;
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    if (size == 0) {
+      return Collections.emptyIterator();
+    }
+    return Iterables.concat(Iterables.filter(Arrays.asList(buckets), Objects::nonNull)).iterator();
+  }
+
+  @Override
+  public final AbstractState pop() {
+    popCount.inc();
+
+    Waitlist localWaitlist = buckets[highest];
+    assert !localWaitlist.isEmpty();
+    AbstractState result = localWaitlist.pop();
+    if (localWaitlist.isEmpty()) {
+      lowerHighest();
+    } else {
+      delegationCount.inc();
+    }
+    size--;
+    return result;
+  }
+
+  /** Move the index of the highest non-empty bucket down to the next non-empty bucket. */
+  private void lowerHighest() {
+    while (highest >= 0 && (buckets[highest] == null || buckets[highest].isEmpty())) {
+      highest--;
+    }
+  }
+
+  /**
+   * Returns a map of delegation counts for this waitlist and all waitlists delegated to. The keys
+   * of the returned Map are the names of the waitlists, the values are the existing delegations.
+   */
+  public Map<String, StatInt> getDelegationCounts() {
+    Map<String, StatInt> delegationCounts = new HashMap<>();
+    for (Waitlist localWaitlist : buckets) {
+      Map<String, StatInt> nestedCounts = null;
+      if (localWaitlist instanceof AbstractSortedWaitlist) {
+        nestedCounts = ((AbstractSortedWaitlist<?>) localWaitlist).getDelegationCounts();
+      } else if (localWaitlist instanceof AbstractIntSortedWaitlist) {
+        nestedCounts = ((AbstractIntSortedWaitlist) localWaitlist).getDelegationCounts();
+      }
+      if (nestedCounts != null) {
+        for (Entry<String, StatInt> e : nestedCounts.entrySet()) {
+          delegationCounts
+              .computeIfAbsent(e.getKey(), name -> new StatInt(StatKind.AVG, name))
+              .add(e.getValue());
+        }
+      }
+    }
+
+    String waitlistName = this.getClass().getSimpleName();
+    StatInt directDelegations = new StatInt(StatKind.AVG, waitlistName);
+    assert delegationCount.getValue() <= Integer.MAX_VALUE;
+    directDelegations.setNextValue((int) delegationCount.getValue());
+    delegationCounts.put(waitlistName, directDelegations);
+    return delegationCounts;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    Waitlist localWaitlist = getBucket(getSortKey(pState));
+    if (localWaitlist == null || !localWaitlist.remove(pState)) {
+      return false;
+    }
+    if (localWaitlist.isEmpty()) {
+      lowerHighest();
+    }
+    size--;
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < buckets.length; i++) {
+      if (buckets[i] != null && !buckets[i].isEmpty()) {
+        if (sb.length() > 1) {
+          sb.append(", ");
+        }
+        sb.append(i + offset).append('=').append(buckets[i]);
+      }
+    }
+    return sb.append('}').toString();
+  }
+}
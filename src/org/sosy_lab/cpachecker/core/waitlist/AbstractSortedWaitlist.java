@@ -145,10 +145,14 @@ public abstract class AbstractSortedWaitlist<K extends Comparable<K>> implements
   }
 
   private void addStatistics(Waitlist pWaitlist) {
+    Map<String, StatInt> delegCount = null;
     if (pWaitlist instanceof AbstractSortedWaitlist) {
-      Map<String, StatInt> delegCount =
-          ((AbstractSortedWaitlist<?>) pWaitlist).getDelegationCounts();
+      delegCount = ((AbstractSortedWaitlist<?>) pWaitlist).getDelegationCounts();
+    } else if (pWaitlist instanceof AbstractIntSortedWaitlist) {
+      delegCount = ((AbstractIntSortedWaitlist) pWaitlist).getDelegationCounts();
+    }
 
+    if (delegCount != null) {
       for (Entry<String, StatInt> e : delegCount.entrySet()) {
         String key = e.getKey();
         if (!delegationCounts.containsKey(key)) {
@@ -0,0 +1,349 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+
+/**
+ * Waitlist that mixes several exploration orders and learns at runtime which of them works best
+ * for the current program.
+ *
+ * <p>Each order has its own waitlist containing all states. For each pop, one of the orders is
+ * selected as in a multi-armed bandit problem (discounted UCB1). States that were popped from one
+ * order or removed are deleted lazily from the other orders, i.e., they are skipped when they are
+ * popped from these orders later. Otherwise each pop would need to remove the state from all other
+ * orders, which is linear in the size of the waitlist for most orders. An order is rewarded if the
+ * successors of the state that it selected reach a program location that was not reached before,
+ * or if they contain a target state. Rewards are discounted over time, such that the selection
+ * follows changes of the best order during the analysis. The selection is deterministic.
+ *
+ * <p>States are compared by identity, not by equality.
+ */
+public class AdaptiveWaitlist implements Waitlist {
+
+  @Options(prefix = "analysis.traversal.adaptive")
+  public static class WaitlistOptions {
+
+    @Option(
+        secure = true,
+        description =
+            "exploration orders that are mixed by the adaptive waitlist,"
+                + " in addition to the order configured by the other traversal options")
+    private List<TraversalMethod> orders =
+        ImmutableList.of(TraversalMethod.DFS, TraversalMethod.BFS);
+
+    @Option(
+        secure = true,
+        description =
+            "also mix in the reverse postorder (with DFS as secondary strategy)"
+                + " into the adaptive waitlist")
+    private boolean useReversePostorder = true;
+
+    @Option(
+        secure = true,
+        description =
+            "weight of the exploration term of the adaptive waitlist,"
+                + " higher values try orders with low rewards more often")
+    private double exploration = 0.5;
+
+    @Option(
+        secure = true,
+        description =
+            "factor by which older rewards of the adaptive waitlist are discounted after each"
+                + " state, has to be in the range (0, 1], 1 means no discounting")
+    private double discount = 0.99;
+
+    public WaitlistOptions(Configuration pConfig) throws InvalidConfigurationException {
+      pConfig.inject(this);
+      if (exploration < 0) {
+        throw new InvalidConfigurationException(
+            "analysis.traversal.adaptive.exploration has to be greater or equal to 0");
+      }
+      if (discount <= 0 || discount > 1) {
+        throw new InvalidConfigurationException(
+            "analysis.traversal.adaptive.discount has to be in the range (0, 1]");
+      }
+    }
+  }
+
+  /**
+   * Minimal number of stale entries in an order before the order is rebuilt without them, such
+   * that small waitlists are not rebuilt too often.
+   */
+  private static final int MIN_STALE_ENTRIES_FOR_REBUILD = 64;
+
+  private final ImmutableList<Waitlist> orders;
+  private final double exploration;
+  private final double discount;
+
+  /** Discounted number of selections of each order. */
+  private final double[] selections;
+
+  /** Discounted sum of rewards of each order. */
+  private final double[] rewards;
+
+  /** Number of entries of each state in the waitlist. */
+  private final Map<AbstractState, Integer> liveStates = new IdentityHashMap<>();
+
+  private int size = 0;
+
+  /**
+   * For each order the number of entries of each state that were already popped from another
+   * order or removed, and that need to be skipped when they are popped from this order.
+   */
+  private final ImmutableList<Map<AbstractState, Integer>> staleStates;
+
+  /** Total number of stale entries in each order. */
+  private final int[] staleCounts;
+
+  /** Locations of all states that were added so far. */
+  private final Set<CFANode> reachedLocations = new HashSet<>();
+
+  /** The order that selected the last popped state, or -1. */
+  private int lastOrder = -1;
+
+  /** Whether the states added since the last pop discovered something new. */
+  private boolean progressSinceLastPop = false;
+
+  private AdaptiveWaitlist(ImmutableList<Waitlist> pOrders, WaitlistOptions pOptions) {
+    orders = pOrders;
+    exploration = pOptions.exploration;
+    discount = pOptions.discount;
+    selections = new double[pOrders.size()];
+    rewards = new double[pOrders.size()];
+    ImmutableList.Builder<Map<AbstractState, Integer>> stale = ImmutableList.builder();
+    for (int i = 0; i < pOrders.size(); i++) {
+      stale.add(new IdentityHashMap<>());
+    }
+    staleStates = stale.build();
+    staleCounts = new int[pOrders.size()];
+  }
+
+  @Override
+  public Iterator<AbstractState> iterator() {
+    Map<AbstractState, Integer> skipped = new IdentityHashMap<>(staleStates.get(0));
+    return Iterators.filter(orders.get(0).iterator(), state -> !decrement(skipped, state));
+  }
+
+  @Override
+  public void add(AbstractState pState) {
+    for (Waitlist waitlist : orders) {
+      waitlist.add(pState);
+    }
+    increment(liveStates, pState);
+    size++;
+
+    CFANode location = AbstractStates.extractLocation(pState);
+    if ((location != null && reachedLocations.add(location))
+        || AbstractStates.isTargetState(pState)) {
+      progressSinceLastPop = true;
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (Waitlist waitlist : orders) {
+      waitlist.clear();
+    }
+    liveStates.clear();
+    size = 0;
+    staleStates.forEach(Map::clear);
+    Arrays.fill(staleCounts, 0);
+    // the learned rewards are kept, they are likely still valid for a restarted analysis
+    reachedLocations.clear();
+    lastOrder = -1;
+    progressSinceLastPop = false;
+  }
+
+  @Override
+  public boolean contains(AbstractState pState) {
+    return liveStates.containsKey(pState);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public AbstractState pop() {
+    updateRewards();
+
+    int order = selectOrder();
+    Waitlist waitlist = orders.get(order);
+    AbstractState state = waitlist.pop();
+    while (decrement(staleStates.get(order), state)) {
+      staleCounts[order]--;
+      state = waitlist.pop();
+    }
+    decrement(liveStates, state);
+    size--;
+    markStale(state, order);
+
+    lastOrder = order;
+    progressSinceLastPop = false;
+    return state;
+  }
+
+  /** Reward the order that selected the last popped state for the successors of that state. */
+  private void updateRewards() {
+    if (lastOrder < 0) {
+      return;
+    }
+    for (int i = 0; i < orders.size(); i++) {
+      selections[i] *= discount;
+      rewards[i] *= discount;
+    }
+    selections[lastOrder] += 1;
+    if (progressSinceLastPop) {
+      rewards[lastOrder] += 1;
+    }
+  }
+
+  /** Select the order with the highest upper confidence bound, each order is tried once first. */
+  private int selectOrder() {
+    double totalSelections = 0;
+    for (int i = 0; i < orders.size(); i++) {
+      if (selections[i] == 0) {
+        return i;
+      }
+      totalSelections += selections[i];
+    }
+
+    double logTotal = Math.log(Math.max(totalSelections, 1));
+    int bestOrder = 0;
+    double bestBound = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < orders.size(); i++) {
+      double bound =
+          rewards[i] / selections[i] + exploration * Math.sqrt(2 * logTotal / selections[i]);
+      if (bound > bestBound) {
+        bestBound = bound;
+        bestOrder = i;
+      }
+    }
+    return bestOrder;
+  }
+
+  @Override
+  public boolean remove(AbstractState pState) {
+    if (!decrement(liveStates, pState)) {
+      return false;
+    }
+    size--;
+    markStale(pState, -1);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /** Mark one entry of the given state as stale in all orders except the given one. */
+  private void markStale(AbstractState pState, int pExceptOrder) {
+    for (int i = 0; i < orders.size(); i++) {
+      if (i != pExceptOrder) {
+        increment(staleStates.get(i), pState);
+        staleCounts[i]++;
+        if (staleCounts[i] >= MIN_STALE_ENTRIES_FOR_REBUILD && staleCounts[i] > size) {
+          // Orders that are rarely selected would otherwise grow without bounds.
+          // The costs of the rebuild are amortized by the number of stale entries.
+          rebuild(i);
+        }
+      }
+    }
+  }
+
+  /** Remove all stale entries of the given order, keeping the order of the remaining entries. */
+  private void rebuild(int pOrder) {
+    Waitlist waitlist = orders.get(pOrder);
+    Map<AbstractState, Integer> stale = staleStates.get(pOrder);
+    List<AbstractState> live = new ArrayList<>(size);
+    for (AbstractState state : waitlist) {
+      if (!decrement(stale, state)) {
+        live.add(state);
+      }
+    }
+    assert stale.isEmpty();
+    staleCounts[pOrder] = 0;
+    waitlist.clear();
+    live.forEach(waitlist::add);
+  }
+
+  private static void increment(Map<AbstractState, Integer> pCounts, AbstractState pState) {
+    pCounts.merge(pState, 1, Integer::sum);
+  }
+
+  /** Decrement the count of the given state, and return whether it was positive before. */
+  private static boolean decrement(Map<AbstractState, Integer> pCounts, AbstractState pState) {
+    Integer count = pCounts.get(pState);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      pCounts.remove(pState);
+    } else {
+      pCounts.put(pState, count - 1);
+    }
+    return true;
+  }
+
+  /**
+   * Create a factory for adaptive waitlists that mix the given order with the orders configured in
+   * the given options.
+   */
+  public static WaitlistFactory factory(WaitlistFactory pOrder, WaitlistOptions pOptions) {
+    ImmutableList.Builder<WaitlistFactory> factories = ImmutableList.builder();
+    factories.add(pOrder);
+    factories.addAll(pOptions.orders);
+    if (pOptions.useReversePostorder) {
+      factories.add(ReversePostorderSortedWaitlist.factory(TraversalMethod.DFS));
+    }
+    ImmutableList<WaitlistFactory> orderFactories = factories.build();
+
+    return () -> {
+      ImmutableList.Builder<Waitlist> waitlists = ImmutableList.builder();
+      for (WaitlistFactory factory : orderFactories) {
+        waitlists.add(factory.createWaitlistInstance());
+      }
+      return new AdaptiveWaitlist(waitlists.build(), pOptions);
+    };
+  }
+}
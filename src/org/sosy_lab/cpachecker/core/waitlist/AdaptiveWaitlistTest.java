@@ -0,0 +1,134 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.core.waitlist;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.waitlist.AdaptiveWaitlist.WaitlistOptions;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+public class AdaptiveWaitlistTest {
+
+  private Waitlist waitlist;
+
+  @Before
+  public void init() throws InvalidConfigurationException {
+    // mix DFS and BFS only, the reverse postorder needs states with locations
+    Configuration config =
+        Configuration.builder()
+            .setOption("analysis.traversal.adaptive.orders", "BFS")
+            .setOption("analysis.traversal.adaptive.useReversePostorder", "false")
+            .build();
+    waitlist =
+        AdaptiveWaitlist.factory(TraversalMethod.DFS, new WaitlistOptions(config))
+            .createWaitlistInstance();
+  }
+
+  private List<AbstractState> addStates(int pCount) {
+    List<AbstractState> states = new ArrayList<>(pCount);
+    for (int i = 0; i < pCount; i++) {
+      AbstractState state = mock(AbstractState.class);
+      states.add(state);
+      waitlist.add(state);
+    }
+    return states;
+  }
+
+  private List<AbstractState> popAll() {
+    List<AbstractState> popped = new ArrayList<>();
+    while (!waitlist.isEmpty()) {
+      popped.add(waitlist.pop());
+    }
+    return popped;
+  }
+
+  @Test
+  public void testPopOrder() {
+    List<AbstractState> states = addStates(5);
+
+    // each order is tried once first, DFS is the configured order
+    assertThat(waitlist.pop()).isSameInstanceAs(states.get(4));
+    assertThat(waitlist.pop()).isSameInstanceAs(states.get(0));
+    assertThat(waitlist.size()).isEqualTo(3);
+    assertThat(waitlist).containsExactly(states.get(1), states.get(2), states.get(3)).inOrder();
+
+    // the states popped by one order are skipped by the other one
+    assertThat(popAll()).containsExactly(states.get(1), states.get(2), states.get(3));
+    assertThat(waitlist.size()).isEqualTo(0);
+  }
+
+  @Test
+  public void testRemove() {
+    List<AbstractState> states = addStates(5);
+
+    assertThat(waitlist.remove(states.get(2))).isTrue();
+    assertThat(waitlist.remove(states.get(2))).isFalse();
+    assertThat(waitlist.contains(states.get(2))).isFalse();
+    assertThat(waitlist.contains(states.get(3))).isTrue();
+    assertThat(waitlist.size()).isEqualTo(4);
+
+    assertThat(popAll())
+        .containsExactly(states.get(0), states.get(1), states.get(3), states.get(4));
+  }
+
+  @Test
+  public void testReAdd() {
+    List<AbstractState> states = addStates(3);
+    AbstractState first = waitlist.pop();
+    waitlist.add(first);
+    assertThat(waitlist.size()).isEqualTo(3);
+
+    assertThat(popAll()).containsExactlyElementsIn(states);
+  }
+
+  @Test
+  public void testManyStates() {
+    // enough states such that the stale entries of the orders are removed in between
+    List<AbstractState> states = addStates(1000);
+    List<AbstractState> popped = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      popped.add(waitlist.pop());
+    }
+    List<AbstractState> removed = new ArrayList<>();
+    for (AbstractState state : states.subList(0, 500)) {
+      if (waitlist.remove(state)) {
+        removed.add(state);
+      }
+    }
+    assertThat(waitlist.size()).isEqualTo(states.size() - popped.size() - removed.size());
+
+    popped.addAll(popAll());
+    assertThat(popped).containsNoDuplicates();
+    assertThat(popped).containsNoneIn(removed);
+    assertThat(popped.size() + removed.size()).isEqualTo(states.size());
+  }
+}
@@ -31,8 +31,12 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
+import java.io.IOException;
 import java.util.Collection;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -52,6 +56,7 @@ import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.CPAFactory;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithBAM;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysisWithThreadSafeTransfer;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
 import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
@@ -65,7 +70,9 @@ import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 
 @Options(prefix = "cpa.arg")
 public class ARGCPA extends AbstractSingleWrapperCPA
-    implements ConfigurableProgramAnalysisWithBAM, ProofChecker {
+    implements ConfigurableProgramAnalysisWithBAM,
+        ConfigurableProgramAnalysisWithThreadSafeTransfer,
+        ProofChecker {
 
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ARGCPA.class);
@@ -105,10 +112,31 @@ public class ARGCPA extends AbstractSingleWrapperCPA
     "prevent the stop-operator from aborting the stop-check early when it crosses a target state")
   private boolean coverTargetStates = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Move the wrapped states of covered ARG states that are not kept in the reached set "
+              + "into a temporary file and read them back lazily when they are accessed again, "
+              + "e.g., for counterexample reconstruction or ARG export. "
+              + "This reduces memory usage for analyses with large ARGs. "
+              + "States that are not serializable are kept in memory.")
+  private boolean spillCoveredStates = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Number of covered ARG states whose wrapped states are written to the spill file "
+              + "together (cf. cpa.arg.spillCoveredStates). Objects shared between the states "
+              + "of one batch are written only once.")
+  @IntegerOption(min = 1)
+  private int spillBatchSize = 100;
+
   private final LogManager logger;
 
   private final ARGStatistics stats;
 
+  private final @Nullable ARGStateSpiller spiller;
+
   private ARGCPA(
       ConfigurableProgramAnalysis cpa,
       Configuration config,
@@ -120,6 +148,17 @@ public class ARGCPA extends AbstractSingleWrapperCPA
     config.inject(this);
     this.logger = logger;
     stats = new ARGStatistics(config, logger, this, pSpecification, cfa);
+    spiller = spillCoveredStates ? createSpiller() : null;
+  }
+
+  private @Nullable ARGStateSpiller createSpiller() {
+    try {
+      return new ARGStateSpiller(logger, spillBatchSize);
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not create spill file, keeping all ARG states in memory");
+      return null;
+    }
   }
 
   @Override
@@ -152,7 +191,8 @@ public class ARGCPA extends AbstractSingleWrapperCPA
         logger,
         inCPAEnabledAnalysis,
         keepCoveredStatesInReached,
-        coverTargetStates);
+        coverTargetStates,
+        spiller);
   }
 
   @Override
@@ -194,6 +234,9 @@ public class ARGCPA extends AbstractSingleWrapperCPA
       // and afterwards call super.collectStatistics().
       pStatsCollection.add(stats);
     }
+    if (spiller != null) {
+      pStatsCollection.add(spiller);
+    }
     super.collectStatistics(pStatsCollection);
   }
 
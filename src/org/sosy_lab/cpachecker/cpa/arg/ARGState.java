@@ -81,16 +81,68 @@ public class ARGState extends AbstractSingleWrapperState
   // If this is a target state, we may store additional information here.
   private transient CounterexampleInfo counterexample;
 
+  // The wrapped state is stored here instead of in the super class, because it can be moved out
+  // of main memory. Then it is null and spilledBatch is the handle to get it back.
+  private @Nullable AbstractState wrappedState;
+  private transient ARGStateSpiller.@Nullable Batch spilledBatch = null;
+
   private static final UniqueIdGenerator idGenerator = new UniqueIdGenerator();
 
   public ARGState(@Nullable AbstractState pWrappedState, @Nullable ARGState pParentElement) {
-    super(pWrappedState);
+    super(null);
+    wrappedState = pWrappedState;
     stateId = idGenerator.getFreshId();
     if (pParentElement != null) {
       addParent(pParentElement);
     }
   }
 
+  @Override
+  public @Nullable AbstractState getWrappedState() {
+    restoreWrappedState();
+    return wrappedState;
+  }
+
+  /**
+   * Move the wrapped state of this state out of main memory. It will be read back lazily by
+   * {@link #getWrappedState()} if necessary. The state is written together with other states
+   * later, and it is kept in memory if it cannot be spilled.
+   */
+  void spillWrappedState(ARGStateSpiller pSpiller) {
+    if (spilledBatch == null) {
+      pSpiller.spill(this);
+    }
+  }
+
+  /** Called by the spiller after the wrapped state was written as part of the given batch. */
+  void setSpilled(ARGStateSpiller.Batch pBatch) {
+    assert spilledBatch == null && wrappedState != null;
+    spilledBatch = pBatch;
+    wrappedState = null;
+  }
+
+  /** Called by the spiller when the batch of this state was read back. */
+  void setRestored(AbstractState pWrappedState) {
+    assert spilledBatch != null && wrappedState == null;
+    spilledBatch = null;
+    wrappedState = pWrappedState;
+  }
+
+  /** Bring the wrapped state back into main memory permanently, if it was spilled before. */
+  private void restoreWrappedState() {
+    ARGStateSpiller.Batch batch = spilledBatch;
+    if (batch != null) {
+      // restores the wrapped states of all states of the batch
+      batch.restore();
+    }
+  }
+
+  private Object writeReplace() {
+    // the spilled batch is transient, so the wrapped state needs to be serialized with this state
+    restoreWrappedState();
+    return this;
+  }
+
   // parent & child relations
 
   /**
@@ -241,6 +293,7 @@ public class ARGState extends AbstractSingleWrapperState
 
     mCoveredBy.mCoveredByThis.remove(this);
     mCoveredBy = null;
+    restoreWrappedState();
   }
 
   public boolean isCovered() {
@@ -464,6 +517,8 @@ public class ARGState extends AbstractSingleWrapperState
     if (mCoveredByThis != null) {
       for (ARGState covered : mCoveredByThis) {
         covered.mCoveredBy = null;
+        // covered states are typically re-added to the waitlist
+        covered.restoreWrappedState();
       }
       mCoveredByThis.clear();
       mCoveredByThis = null;
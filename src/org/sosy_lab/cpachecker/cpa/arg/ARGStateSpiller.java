@@ -0,0 +1,247 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Moves wrapped states of ARG states that are not needed for the ongoing analysis (e.g., covered
+ * states that are not part of the reached set) out of main memory into a temporary file. The
+ * states are read back lazily if somebody accesses them again, e.g., for counterexample
+ * reconstruction or ARG export.
+ *
+ * <p>States are collected and written in batches with a single object stream, such that objects
+ * that are shared between the states of a batch are written only once and are shared again after
+ * reading. If one state of a batch is accessed, the whole batch is read back and all its states
+ * stay in main memory again. After a state was written, the spiller does not keep any reference
+ * to its wrapped state.
+ */
+class ARGStateSpiller implements Statistics {
+
+  /** Handle for the wrapped states of a batch of ARG states that were written together. */
+  final class Batch {
+
+    private final long offset;
+    private final int length;
+
+    /** The ARG states of this batch in the order of their wrapped states, null after reading. */
+    private @Nullable ImmutableList<ARGState> states;
+
+    private Batch(long pOffset, int pLength, List<ARGState> pStates) {
+      offset = pOffset;
+      length = pLength;
+      states = ImmutableList.copyOf(pStates);
+    }
+
+    /** Read back the wrapped states of all ARG states of this batch. */
+    void restore() {
+      ARGStateSpiller.this.restore(this);
+    }
+  }
+
+  private final LogManager logger;
+  private final int batchSize;
+  private final Path file;
+  private final FileChannel channel;
+
+  /** States that will be written with the next batch, their wrapped states are still in memory. */
+  private final Set<ARGState> pending = new LinkedHashSet<>();
+
+  private long end = 0;
+  private boolean enabled = true;
+
+  private final StatCounter spilledStates = new StatCounter("Number of spilled states");
+  private final StatCounter writtenBatches = new StatCounter("Number of written batches");
+  private final StatCounter restoredBatches = new StatCounter("Number of restored batches");
+  private final StatCounter notSerializable =
+      new StatCounter("Number of states that could not be spilled");
+
+  ARGStateSpiller(LogManager pLogger, int pBatchSize) throws IOException {
+    checkArgument(pBatchSize > 0);
+    logger = pLogger;
+    batchSize = pBatchSize;
+    file = Files.createTempFile("cpachecker-arg-", ".spill");
+    file.toFile().deleteOnExit();
+    channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+  }
+
+  /**
+   * Schedule the wrapped state of the given ARG state for being written to the spill file. The
+   * states are written once there are enough states for a batch.
+   */
+  synchronized void spill(ARGState pState) {
+    if (!enabled) {
+      return;
+    }
+    pending.add(pState);
+    if (pending.size() >= batchSize) {
+      writeBatch();
+    }
+  }
+
+  private void writeBatch() {
+    List<ARGState> states = new ArrayList<>(pending.size());
+    for (ARGState state : pending) {
+      // states can be uncovered or removed while they wait for the batch to be full
+      if (!state.isDestroyed() && state.isCovered()) {
+        states.add(state);
+      }
+    }
+    pending.clear();
+
+    byte[] bytes = serialize(states);
+    if (bytes == null) {
+      // find the states that cannot be serialized and keep them in memory
+      List<ARGState> serializableStates = new ArrayList<>(states.size());
+      for (ARGState state : states) {
+        if (serialize(ImmutableList.of(state)) != null) {
+          serializableStates.add(state);
+        } else {
+          notSerializable.inc();
+        }
+      }
+      states = serializableStates;
+      bytes = serialize(states);
+      if (bytes == null) {
+        // the states are serializable on their own, but not together
+        return;
+      }
+    }
+    if (states.isEmpty()) {
+      return;
+    }
+
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    long offset = end;
+    try {
+      while (buffer.hasRemaining()) {
+        end += channel.write(buffer, end);
+      }
+    } catch (IOException e) {
+      logger.logUserException(
+          Level.WARNING, e, "Could not write to spill file, keeping all ARG states in memory");
+      enabled = false;
+      return;
+    }
+
+    Batch batch = new Batch(offset, bytes.length, states);
+    for (ARGState state : states) {
+      state.setSpilled(batch);
+      spilledStates.inc();
+    }
+    writtenBatches.inc();
+  }
+
+  /** Serialize the wrapped states of the given ARG states, or return null if this fails. */
+  private byte @Nullable [] serialize(List<ARGState> pStates) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeInt(pStates.size());
+      for (ARGState state : pStates) {
+        out.writeObject(state.getWrappedState());
+      }
+    } catch (IOException e) {
+      // typically a NotSerializableException, we cannot spill this kind of state
+      logger.logDebugException(e, "Could not serialize abstract states for spilling");
+      return null;
+    }
+    return bytes.toByteArray();
+  }
+
+  private synchronized void restore(Batch pBatch) {
+    ImmutableList<ARGState> states = pBatch.states;
+    if (states == null) {
+      // already restored
+      return;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(pBatch.length);
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, pBatch.offset + buffer.position()) < 0) {
+          throw new IOException("Unexpected end of spill file " + file);
+        }
+      }
+      try (ObjectInputStream in =
+          new ObjectInputStream(new ByteArrayInputStream(buffer.array()))) {
+        int size = in.readInt();
+        assert size == states.size();
+        for (ARGState state : states) {
+          state.setRestored((AbstractState) in.readObject());
+        }
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      // the file is private to this instance, so this cannot happen unless the disk fails
+      throw new IllegalStateException("Could not read back spilled ARG states", e);
+    }
+    pBatch.states = null;
+    restoredBatches.inc();
+  }
+
+  @Override
+  public synchronized void printStatistics(
+      PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut)
+        .put(spilledStates)
+        .put(writtenBatches)
+        .put("Size of spill file (bytes)", end)
+        .put(restoredBatches)
+        .putIfUpdatedAtLeastOnce(notSerializable);
+  }
+
+  @Override
+  public String getName() {
+    return "ARG state spilling";
+  }
+}
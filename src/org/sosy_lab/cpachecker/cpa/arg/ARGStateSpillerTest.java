@@ -0,0 +1,193 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Objects;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+
+public class ARGStateSpillerTest {
+
+  private static final class TestState implements AbstractState, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int id;
+    private final List<Integer> shared;
+
+    private TestState(int pId, List<Integer> pShared) {
+      id = pId;
+      shared = pShared;
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (!(pObj instanceof TestState)) {
+        return false;
+      }
+      TestState other = (TestState) pObj;
+      return id == other.id && shared.equals(other.shared);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, shared);
+    }
+  }
+
+  private static final class NotSerializableState implements AbstractState {}
+
+  private static final List<Integer> SHARED = ImmutableList.of(1, 2, 3);
+
+  private ARGStateSpiller spiller;
+  private ARGState coveringState;
+
+  @Before
+  public void setUp() throws IOException {
+    spiller = new ARGStateSpiller(LogManager.createTestLogManager(), 2);
+    coveringState = new ARGState(new TestState(0, SHARED), null);
+  }
+
+  private ARGState createCoveredState(AbstractState pWrappedState) {
+    ARGState state = new ARGState(pWrappedState, null);
+    state.setCovered(coveringState);
+    return state;
+  }
+
+  @Test
+  public void testRoundTrip() {
+    TestState wrapped1 = new TestState(1, SHARED);
+    TestState wrapped2 = new TestState(2, SHARED);
+    ARGState state1 = createCoveredState(wrapped1);
+    ARGState state2 = createCoveredState(wrapped2);
+
+    state1.spillWrappedState(spiller);
+    state2.spillWrappedState(spiller);
+
+    TestState restored1 = (TestState) state1.getWrappedState();
+    TestState restored2 = (TestState) state2.getWrappedState();
+    assertThat(restored1).isEqualTo(wrapped1);
+    assertThat(restored2).isEqualTo(wrapped2);
+    assertThat(restored1).isNotSameInstanceAs(wrapped1);
+    assertThat(restored2).isNotSameInstanceAs(wrapped2);
+
+    // the states of a batch share their structure after reading them back
+    assertThat(restored1.shared).isSameInstanceAs(restored2.shared);
+
+    // the restored states stay in memory
+    assertThat(state1.getWrappedState()).isSameInstanceAs(restored1);
+  }
+
+  @Test
+  public void testNoReferenceIsKeptAfterSpilling() {
+    TestState wrapped = new TestState(1, ImmutableList.of(4, 5));
+    WeakReference<TestState> reference = new WeakReference<>(wrapped);
+    ARGState state1 = createCoveredState(wrapped);
+    ARGState state2 = createCoveredState(new TestState(2, SHARED));
+    state1.spillWrappedState(spiller);
+    state2.spillWrappedState(spiller);
+    wrapped = null;
+
+    for (int i = 0; i < 10 && reference.get() != null; i++) {
+      System.gc();
+    }
+    assertThat(reference.get()).isNull();
+    assertThat(state1.getWrappedState()).isEqualTo(new TestState(1, ImmutableList.of(4, 5)));
+  }
+
+  @Test
+  public void testStateIsKeptUntilBatchIsFull() {
+    TestState wrapped = new TestState(1, SHARED);
+    ARGState state = createCoveredState(wrapped);
+
+    state.spillWrappedState(spiller);
+
+    assertThat(state.getWrappedState()).isSameInstanceAs(wrapped);
+  }
+
+  @Test
+  public void testUncoveredStateIsNotSpilled() {
+    TestState wrapped1 = new TestState(1, SHARED);
+    TestState wrapped2 = new TestState(2, SHARED);
+    ARGState state1 = createCoveredState(wrapped1);
+    ARGState state2 = createCoveredState(wrapped2);
+
+    state1.spillWrappedState(spiller);
+    state1.uncover();
+    state2.spillWrappedState(spiller);
+
+    assertThat(state1.getWrappedState()).isSameInstanceAs(wrapped1);
+    assertThat(state2.getWrappedState()).isEqualTo(wrapped2);
+    assertThat(state2.getWrappedState()).isNotSameInstanceAs(wrapped2);
+  }
+
+  @Test
+  public void testNotSerializableStateIsKeptInMemory() {
+    NotSerializableState wrapped1 = new NotSerializableState();
+    TestState wrapped2 = new TestState(2, SHARED);
+    ARGState state1 = createCoveredState(wrapped1);
+    ARGState state2 = createCoveredState(wrapped2);
+
+    state1.spillWrappedState(spiller);
+    state2.spillWrappedState(spiller);
+
+    assertThat(state1.getWrappedState()).isSameInstanceAs(wrapped1);
+    assertThat(state2.getWrappedState()).isEqualTo(wrapped2);
+    assertThat(state2.getWrappedState()).isNotSameInstanceAs(wrapped2);
+  }
+
+  @Test
+  public void testSerializationOfSpilledState() throws IOException, ClassNotFoundException {
+    TestState wrapped = new TestState(1, SHARED);
+    ARGState state1 = createCoveredState(wrapped);
+    ARGState state2 = createCoveredState(new TestState(2, SHARED));
+    state1.spillWrappedState(spiller);
+    state2.spillWrappedState(spiller);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(state1);
+    }
+    ARGState copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = (ARGState) in.readObject();
+    }
+
+    assertThat(copy.getWrappedState()).isEqualTo(wrapped);
+  }
+}
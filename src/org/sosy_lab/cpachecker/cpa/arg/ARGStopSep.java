@@ -28,11 +28,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.reachedset.CoverageIndex;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
@@ -42,6 +44,7 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
   private final boolean coverTargetStates;
   private final StopOperator wrappedStop;
   private final LogManager logger;
+  private final @Nullable ARGStateSpiller spiller;
 
   public ARGStopSep(
       StopOperator pWrappedStop,
@@ -49,11 +52,28 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
       boolean pInCPAEnabledAnalysis,
       boolean pKeepCoveredStatesInReached,
       boolean pCoverTargetStates) {
+    this(
+        pWrappedStop,
+        pLogger,
+        pInCPAEnabledAnalysis,
+        pKeepCoveredStatesInReached,
+        pCoverTargetStates,
+        null);
+  }
+
+  ARGStopSep(
+      StopOperator pWrappedStop,
+      LogManager pLogger,
+      boolean pInCPAEnabledAnalysis,
+      boolean pKeepCoveredStatesInReached,
+      boolean pCoverTargetStates,
+      @Nullable ARGStateSpiller pSpiller) {
     wrappedStop = pWrappedStop;
     logger = pLogger;
     keepCoveredStatesInReached = pKeepCoveredStatesInReached;
     inCPAEnabledAnalysis = pInCPAEnabledAnalysis;
     coverTargetStates = pCoverTargetStates;
+    spiller = pSpiller;
   }
 
   @Override
@@ -112,7 +132,7 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
       parent = Iterables.get(argElement.getParents(), 0);
     }
 
-    for (AbstractState reachedState : pReached) {
+    for (AbstractState reachedState : CoverageIndex.getCoverageCandidates(argElement, pReached)) {
       ARGState argReachedState = (ARGState)reachedState;
       if (stop(argElement, argReachedState, pPrecision)) {
         if (parent != null && argReachedState.getParents().contains(parent)) {
@@ -121,9 +141,15 @@ public class ARGStopSep implements StopOperator, ForcedCoveringStopOperator {
           // it should always be safe to remove the covered state:
           argElement.removeFromARG();
           return true;
+        } else if (keepCoveredStatesInReached) {
+          // we always return false here on purpose
+          return false;
         } else {
-          // if this option is true, we always return false here on purpose
-          return !keepCoveredStatesInReached;
+          // the covered state stays in the ARG, but is not needed for the analysis anymore
+          if (spiller != null) {
+            argElement.spillWrappedState(spiller);
+          }
+          return true;
         }
       }
     }
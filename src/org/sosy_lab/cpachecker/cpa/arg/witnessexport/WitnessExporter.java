@@ -36,11 +36,14 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiPredicate;
+import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.AExpressionStatement;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
@@ -196,6 +199,7 @@ public class WitnessExporter {
   protected final WitnessOptions options;
 
   protected final CFA cfa;
+  private final LogManager logger;
   private final FormulaManagerView fmgr;
 
   private final AssumptionToEdgeAllocator assumptionToEdgeAllocator;
@@ -215,6 +219,7 @@ public class WitnessExporter {
     options = new WitnessOptions();
     pConfig.inject(options);
     this.cfa = pCFA;
+    this.logger = pLogger;
     this.fmgr = Solver.create(pConfig, pLogger, ShutdownNotifier.createDummy()).getFormulaManager();
     this.assumptionToEdgeAllocator =
         AssumptionToEdgeAllocator.create(pConfig, pLogger, pCFA.getMachineModel());
@@ -249,7 +254,7 @@ public class WitnessExporter {
             Optional.empty(),
             Optional.ofNullable(pCounterExample),
             GraphBuilder.ARG_PATH);
-    WitnessToOutputFormatsUtils.writeToGraphMl(generatedWitness, pTarget);
+    writeToGraphMl(generatedWitness, pTarget);
   }
 
   public void writeTerminationErrorWitness(
@@ -349,7 +354,21 @@ public class WitnessExporter {
 
     Witness generatedWitness =
         generateProofWitness(pRootState, pIsRelevantState, pIsRelevantEdge, pInvariantProvider);
-    WitnessToOutputFormatsUtils.writeToGraphMl(generatedWitness, pTarget);
+    writeToGraphMl(generatedWitness, pTarget);
+  }
+
+  private void writeToGraphMl(Witness pWitness, Appendable pTarget) throws IOException {
+    Timer exportTime = new Timer();
+    exportTime.start();
+    int elements = WitnessToOutputFormatsUtils.writeToGraphMl(pWitness, pTarget);
+    exportTime.stop();
+    long millis = exportTime.getLengthOfLastInterval().asMillis();
+    logger.logf(
+        Level.FINE,
+        "Wrote %d nodes and edges of the witness in %s (%d elements per second)",
+        elements,
+        exportTime.getLengthOfLastInterval().formatAs(TimeUnit.SECONDS),
+        millis == 0 ? elements : elements * 1000L / millis);
   }
 
   protected String getInitialFileName(ARGState pRootState) {
@@ -22,16 +22,19 @@ package org.sosy_lab.cpachecker.cpa.arg.witnessexport;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Maps;
+import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Queues;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import javax.xml.parsers.ParserConfigurationException;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
 import org.sosy_lab.cpachecker.core.counterexample.ReportGenerator;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
@@ -39,37 +42,77 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.slab.SLARGToDotWriter;
 import org.sosy_lab.cpachecker.util.NumericIdProvider;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
-import org.w3c.dom.Element;
 
 public class WitnessToOutputFormatsUtils {
 
   /**
-   * Appends the witness as GraphML to the supplied {@link Appendable}
+   * Appends the witness as GraphML to the supplied {@link Appendable}. The nodes and edges are
+   * written while the witness is traversed, without building a copy of the whole document in
+   * memory.
    *
    * @param witness contains the information necessary to generate the GraphML representation
    * @param pTarget where to append the GraphML
+   * @return the number of written nodes and edges
    */
-  public static void writeToGraphMl(Witness witness, Appendable pTarget) throws IOException {
-    // Write elements
-    final GraphMlBuilder doc;
-    try {
-      doc =
-          new GraphMlBuilder(
-              witness.getWitnessType(),
-              witness.getOriginFile(),
-              witness.getCfa(),
-              witness.getMetaData());
-    } catch (ParserConfigurationException e) {
-      throw new IOException(e);
-    }
-    WitnessToOutputFormatsUtils.writeElementsOfGraphToDoc(doc, witness);
-    doc.appendTo(pTarget);
+  public static int writeToGraphMl(Witness witness, Appendable pTarget) throws IOException {
+    // The key definitions and the complete data of each node are needed before the first node
+    // is written, and edges may add data to their target nodes, so we collect these first.
+    Set<KeyDef> usedKeys = EnumSet.noneOf(KeyDef.class);
+    ListMultimap<String, Map.Entry<KeyDef, String>> nodeDataFromEdges =
+        MultimapBuilder.hashKeys().arrayListValues().build();
+    visitGraph(
+        witness,
+        new GraphVisitor() {
+          @Override
+          public void visitNode(String pNodeId, List<Map.Entry<KeyDef, String>> pData) {
+            pData.forEach(data -> usedKeys.add(data.getKey()));
+          }
+
+          @Override
+          public void visitEdge(
+              Edge pEdge,
+              List<Map.Entry<KeyDef, String>> pData,
+              List<Map.Entry<KeyDef, String>> pTargetNodeData) {
+            pData.forEach(data -> usedKeys.add(data.getKey()));
+            pTargetNodeData.forEach(data -> usedKeys.add(data.getKey()));
+            nodeDataFromEdges.putAll(pEdge.getTarget(), pTargetNodeData);
+          }
+        });
+
+    final GraphMlWriter writer =
+        new GraphMlWriter(
+            pTarget,
+            usedKeys,
+            witness.getWitnessType(),
+            witness.getOriginFile(),
+            witness.getCfa(),
+            witness.getMetaData());
+    visitGraph(
+        witness,
+        new GraphVisitor() {
+          @Override
+          public void visitNode(String pNodeId, List<Map.Entry<KeyDef, String>> pData)
+              throws IOException {
+            pData.addAll(nodeDataFromEdges.removeAll(pNodeId));
+            writer.writeNode(pNodeId, pData);
+          }
+
+          @Override
+          public void visitEdge(
+              Edge pEdge,
+              List<Map.Entry<KeyDef, String>> pData,
+              List<Map.Entry<KeyDef, String>> pTargetNodeData)
+              throws IOException {
+            writer.writeEdge(pEdge.getSource(), pEdge.getTarget(), pData);
+          }
+        });
+    writer.finish();
+    return writer.getWrittenNodes() + writer.getWrittenEdges();
   }
 
   /**
@@ -171,82 +214,97 @@ public class WitnessToOutputFormatsUtils {
     return "";
   }
 
-  private static void writeElementsOfGraphToDoc(GraphMlBuilder doc, Witness witness) {
+  /** Callback for the traversal of the nodes and edges of a witness by {@link #visitGraph}. */
+  private interface GraphVisitor {
+
+    /** Visit a node with its own data, which may be modified by the visitor. */
+    void visitNode(String pNodeId, List<Map.Entry<KeyDef, String>> pData) throws IOException;
+
+    /** Visit an edge with its own data and the data it contributes to its target node. */
+    void visitEdge(
+        Edge pEdge,
+        List<Map.Entry<KeyDef, String>> pData,
+        List<Map.Entry<KeyDef, String>> pTargetNodeData)
+        throws IOException;
+  }
+
+  /**
+   * Traverse the witness from its entry node in depth-first order. Each node is visited right
+   * before the first edge leading to it, thus the order of visits is the order of the elements in
+   * the GraphML document. The traversal does not continue after nodes with invariant false.
+   */
+  private static void visitGraph(Witness witness, GraphVisitor pVisitor) throws IOException {
     String entryStateNodeId = witness.getEntryStateNodeId();
-    Map<String, Element> nodes = Maps.newHashMap();
+    Set<String> nodes = Sets.newHashSet();
     Deque<String> waitlist = Queues.newArrayDeque();
     waitlist.push(entryStateNodeId);
-    Element entryNode = createNewNode(doc, entryStateNodeId, witness);
-    addInvariantsData(doc, entryNode, entryStateNodeId, witness);
-    nodes.put(entryStateNodeId, entryNode);
+    List<Map.Entry<KeyDef, String>> entryNodeData = getNodeData(entryStateNodeId, witness);
+    addInvariantsData(entryNodeData, entryStateNodeId, witness);
+    pVisitor.visitNode(entryStateNodeId, entryNodeData);
+    nodes.add(entryStateNodeId);
     while (!waitlist.isEmpty()) {
       String source = waitlist.pop();
       for (Edge edge : witness.getLeavingEdges().get(source)) {
-        Element targetNode = nodes.get(edge.getTarget());
-        if (targetNode == null) {
-          targetNode = createNewNode(doc, edge.getTarget(), witness);
+        if (nodes.add(edge.getTarget())) {
+          List<Map.Entry<KeyDef, String>> targetNodeData = getNodeData(edge.getTarget(), witness);
           if (!ExpressionTrees.getFalse()
-              .equals(addInvariantsData(doc, targetNode, edge.getTarget(), witness))) {
+              .equals(addInvariantsData(targetNodeData, edge.getTarget(), witness))) {
             waitlist.push(edge.getTarget());
           }
-          nodes.put(edge.getTarget(), targetNode);
+          pVisitor.visitNode(edge.getTarget(), targetNodeData);
+        }
+        List<Map.Entry<KeyDef, String>> edgeData = new ArrayList<>();
+        List<Map.Entry<KeyDef, String>> targetNodeData = new ArrayList<>();
+        for (Map.Entry<KeyDef, String> entry : edge.getLabel().getMapping().entrySet()) {
+          KeyDef keyDef = entry.getKey();
+          if (keyDef.keyFor.equals(ElementType.EDGE)) {
+            edgeData.add(entry);
+          } else if (keyDef.keyFor.equals(ElementType.NODE)) {
+            targetNodeData.add(entry);
+          }
         }
-        createNewEdge(doc, edge, targetNode);
+        pVisitor.visitEdge(edge, edgeData, targetNodeData);
       }
     }
   }
 
-  private static Element createNewNode(
-      GraphMlBuilder pDoc, String pEntryStateNodeId, Witness witness) {
-    Element result = pDoc.createNodeElement(pEntryStateNodeId, NodeType.ONPATH);
+  private static List<Map.Entry<KeyDef, String>> getNodeData(
+      String pEntryStateNodeId, Witness witness) {
+    List<Map.Entry<KeyDef, String>> result = new ArrayList<>();
 
     if (witness.getWitnessOptions().exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      pDoc.addDataElementChild(result, KeyDef.LABEL, pEntryStateNodeId);
+      result.add(Maps.immutableEntry(KeyDef.LABEL, pEntryStateNodeId));
     }
 
     for (NodeFlag f : witness.getNodeFlags().get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, f.key, "true");
+      result.add(Maps.immutableEntry(f.key, "true"));
     }
     for (Property violation : witness.getViolatedProperties().get(pEntryStateNodeId)) {
-      pDoc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      result.add(Maps.immutableEntry(KeyDef.VIOLATEDPROPERTY, violation.toString()));
     }
 
     if (witness.hasQuasiInvariant(pEntryStateNodeId)) {
       ExpressionTree<Object> tree = witness.getQuasiInvariant(pEntryStateNodeId);
-      pDoc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      result.add(Maps.immutableEntry(KeyDef.INVARIANT, tree.toString()));
     }
 
     return result;
   }
 
   private static ExpressionTree<Object> addInvariantsData(
-      GraphMlBuilder pDoc, Element pNode, String pStateId, Witness witness) {
+      List<Map.Entry<KeyDef, String>> pNodeData, String pStateId, Witness witness) {
     if (!witness.getInvariantExportStates().contains(pStateId)) {
       return ExpressionTrees.getTrue();
     }
     ExpressionTree<Object> tree = witness.getStateInvariant(pStateId);
     if (!tree.equals(ExpressionTrees.getTrue())) {
-      pDoc.addDataElementChild(pNode, KeyDef.INVARIANT, tree.toString());
+      pNodeData.add(Maps.immutableEntry(KeyDef.INVARIANT, tree.toString()));
       String scope = witness.getStateScopes().get(pStateId);
       if (!isNullOrEmpty(scope) && !tree.equals(ExpressionTrees.getFalse())) {
-        pDoc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, scope);
+        pNodeData.add(Maps.immutableEntry(KeyDef.INVARIANTSCOPE, scope));
       }
     }
     return tree;
   }
-
-  private static Element createNewEdge(GraphMlBuilder pDoc, Edge pEdge, Element pTargetNode) {
-    Element edge = pDoc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
-    for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
-      KeyDef keyDef = entry.getKey();
-      String value = entry.getValue();
-      if (keyDef.keyFor.equals(ElementType.EDGE)) {
-        pDoc.addDataElementChild(edge, keyDef, value);
-      } else if (keyDef.keyFor.equals(ElementType.NODE)) {
-        pDoc.addDataElementChild(pTargetNode, keyDef, value);
-      }
-    }
-    return edge;
-  }
 }
@@ -403,6 +403,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.functionName = pFunctionName;
     }
 
+    String getFunctionName() {
+      return functionName;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -510,6 +514,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.functionName = pFunctionName;
     }
 
+    String getFunctionName() {
+      return functionName;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -834,6 +842,10 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       matchPositiveCase = pMatchPositiveCase;
     }
 
+    boolean isMatchPositiveCase() {
+      return matchPositiveCase;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       CFAEdge edge = pArgs.getCfaEdge();
@@ -1037,6 +1049,14 @@ interface AutomatonBoolExpr extends AutomatonExpression<Boolean> {
       this.matchDescriptor = pDescriptor;
     }
 
+    FunctionEntryNode getMainEntry() {
+      return mainEntry;
+    }
+
+    java.util.function.Predicate<FileLocation> getDescriptor() {
+      return matchDescriptor;
+    }
+
     @Override
     public ResultValue<Boolean> eval(AutomatonExpressionArguments pArgs) {
       return eval(pArgs.getCfaEdge()) ? CONST_TRUE : CONST_FALSE;
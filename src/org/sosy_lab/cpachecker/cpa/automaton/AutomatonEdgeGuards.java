@@ -0,0 +1,196 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.base.Equivalence;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchAssumeCase;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchAssumeEdge;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchCFAEdgeExact;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchCFAEdgeNodes;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchCFAEdgeRegEx;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionCall;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionCallStatement;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionExit;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchJavaAssert;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchProgramEntry;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchProgramExit;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonExpression.ResultValue;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
+
+/**
+ * Conditions on CFA edges that are shared between several automata, e.g., all specification
+ * automata of a multi-property analysis.
+ *
+ * <p>Many automata use the same conditions in their triggers that depend only on the CFA edge,
+ * e.g., matching a call to a certain function. This class collects these edge guards from all
+ * transitions of all given automata, and evaluates each distinct guard only once per CFA edge.
+ * If an edge guard is false for an edge, all transitions that have the guard as conjunct of their
+ * trigger cannot match the edge, and the automata do not need to evaluate them. The results are
+ * cached, such that every edge is analyzed only once for all automata, regardless of how often
+ * the edge is visited by the analysis.
+ */
+public final class AutomatonEdgeGuards {
+
+  private static final LogManager NULL_LOGGER = LogManager.createNullLogManager();
+
+  /** All distinct edge guards. */
+  private final ImmutableList<AutomatonBoolExpr> guards;
+
+  /** For each transition of the given automata, the indices of the guards of its trigger. */
+  private final Map<AutomatonTransition, int[]> transitionGuards;
+
+  /**
+   * For each already analyzed edge, the indices of the guards that are false for it. The edges are
+   * compared by identity, because {@link CFAEdge#equals(Object)} only compares the nodes of the
+   * edges, and different edges between the same nodes can have different guard results.
+   */
+  private final ConcurrentMap<Equivalence.Wrapper<CFAEdge>, BitSet> falseGuards =
+      new ConcurrentHashMap<>();
+
+  public AutomatonEdgeGuards(Iterable<Automaton> pAutomata) {
+    Map<AutomatonBoolExpr, Integer> guardIndices = new HashMap<>();
+    Map<AutomatonTransition, int[]> guardsOfTransitions = new IdentityHashMap<>();
+
+    for (Automaton automaton : pAutomata) {
+      for (AutomatonInternalState state : automaton.getStates()) {
+        for (AutomatonTransition transition : state.getTransitions()) {
+          List<AutomatonBoolExpr> guardsOfTransition = new ArrayList<>();
+          collectGuards(transition.getTrigger(), guardsOfTransition);
+          if (!guardsOfTransition.isEmpty()) {
+            int[] indices = new int[guardsOfTransition.size()];
+            for (int i = 0; i < indices.length; i++) {
+              indices[i] =
+                  guardIndices.computeIfAbsent(guardsOfTransition.get(i), k -> guardIndices.size());
+            }
+            guardsOfTransitions.put(transition, indices);
+          }
+        }
+      }
+    }
+
+    AutomatonBoolExpr[] guardArray = new AutomatonBoolExpr[guardIndices.size()];
+    guardIndices.forEach((guard, index) -> guardArray[index] = guard);
+    guards = ImmutableList.copyOf(guardArray);
+    transitionGuards = Collections.unmodifiableMap(guardsOfTransitions);
+  }
+
+  /**
+   * Collect all conjuncts of the given expression that depend only on the CFA edge, i.e., that
+   * neither depend on the automaton state or other CPAs, nor bind transition variables.
+   */
+  private static void collectGuards(AutomatonBoolExpr pExpr, List<AutomatonBoolExpr> pResult) {
+    if (pExpr instanceof And) {
+      collectGuards(((And) pExpr).a, pResult);
+      collectGuards(((And) pExpr).b, pResult);
+    } else if (isEdgeGuard(pExpr)) {
+      pResult.add(pExpr);
+    }
+  }
+
+  private static boolean isEdgeGuard(AutomatonBoolExpr pExpr) {
+    // all of these implement equals and hashCode, such that equal guards are shared
+    return pExpr instanceof MatchFunctionCall
+        || pExpr instanceof MatchFunctionCallStatement
+        || pExpr instanceof MatchFunctionExit
+        || pExpr instanceof MatchCFAEdgeRegEx
+        || pExpr instanceof MatchCFAEdgeExact
+        || pExpr instanceof MatchCFAEdgeNodes
+        || pExpr instanceof MatchAssumeCase
+        || pExpr instanceof MatchAssumeEdge
+        || pExpr instanceof MatchJavaAssert
+        || pExpr instanceof MatchProgramEntry
+        || pExpr instanceof MatchProgramExit;
+  }
+
+  /**
+   * Remove all transitions from the given list that cannot match the given edge because one of
+   * their edge guards is false. The order of the remaining transitions is not changed.
+   */
+  ImmutableList<AutomatonTransition> filter(
+      ImmutableList<AutomatonTransition> pTransitions, CFAEdge pEdge)
+      throws CPATransferException {
+    if (pTransitions.isEmpty() || guards.isEmpty()) {
+      return pTransitions;
+    }
+    Equivalence.Wrapper<CFAEdge> edgeKey = Equivalence.identity().wrap(pEdge);
+    BitSet falseGuardsOfEdge = falseGuards.get(edgeKey);
+    if (falseGuardsOfEdge == null) {
+      // computing this twice in concurrent analyses does not harm
+      falseGuardsOfEdge = evaluateGuards(pEdge);
+      falseGuards.putIfAbsent(edgeKey, falseGuardsOfEdge);
+    }
+    if (falseGuardsOfEdge.isEmpty()) {
+      return pTransitions;
+    }
+
+    ImmutableList.Builder<AutomatonTransition> result = ImmutableList.builder();
+    boolean changed = false;
+    for (AutomatonTransition transition : pTransitions) {
+      if (isExcluded(transition, falseGuardsOfEdge)) {
+        changed = true;
+      } else {
+        result.add(transition);
+      }
+    }
+    return changed ? result.build() : pTransitions;
+  }
+
+  private boolean isExcluded(AutomatonTransition pTransition, BitSet pFalseGuards) {
+    int[] guardsOfTransition = transitionGuards.get(pTransition);
+    if (guardsOfTransition != null) {
+      for (int guard : guardsOfTransition) {
+        if (pFalseGuards.get(guard)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private BitSet evaluateGuards(CFAEdge pEdge) throws CPATransferException {
+    AutomatonExpressionArguments args =
+        new AutomatonExpressionArguments(null, null, null, pEdge, NULL_LOGGER);
+    BitSet result = new BitSet(guards.size());
+    for (int i = 0; i < guards.size(); i++) {
+      ResultValue<Boolean> value = guards.get(i).eval(args);
+      if (!value.canNotEvaluate() && !value.getValue()) {
+        result.set(i);
+      }
+    }
+    return result;
+  }
+}
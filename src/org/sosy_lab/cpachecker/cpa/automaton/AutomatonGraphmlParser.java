@@ -29,6 +29,7 @@ import com.google.common.base.Predicates;
 import com.google.common.base.Strings;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
@@ -50,7 +51,6 @@ import java.util.Collections;
 import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -65,11 +65,13 @@ import java.util.logging.Level;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -115,11 +117,6 @@ import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
 import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
 import org.sosy_lab.cpachecker.util.expressions.ToCExpressionVisitor;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -1037,17 +1034,17 @@ public class AutomatonGraphmlParser {
       InputStream pInputStream, Set<Property> pProperties)
       throws IOException, WitnessParseException {
 
-    GraphMLDocumentData docDat = parseXML(pInputStream);
+    GraphMLDocumentData docDat = GraphMLDocumentData.parse(pInputStream, false);
 
     checkFields(docDat.getGraph());
 
     WitnessType graphType = getWitnessType(docDat.getGraph());
 
     // Extract the information on the automaton ----
-    Node nameAttribute = docDat.getGraph().getAttributes().getNamedItem("name");
+    String nameAttribute = docDat.getGraph().getAttribute("name");
     String automatonName = WITNESS_AUTOMATON_NAME;
     if (nameAttribute != null) {
-      automatonName += "_" + nameAttribute.getTextContent();
+      automatonName += "_" + nameAttribute;
     }
 
     Map<String, GraphMLState> states = new LinkedHashMap<>();
@@ -1055,7 +1052,7 @@ public class AutomatonGraphmlParser {
     Multimap<GraphMLState, GraphMLTransition> leavingTransitions = LinkedHashMultimap.create();
     NumericIdProvider numericIdProvider = NumericIdProvider.create();
     Set<GraphMLState> entryStates = new LinkedHashSet<>();
-    for (Node transition : docDat.getTransitions()) {
+    for (GraphMLElement transition : docDat.getTransitions()) {
       collectEdgeData(
           docDat,
           states,
@@ -1109,24 +1106,7 @@ public class AutomatonGraphmlParser {
     return state;
   }
 
-  private GraphMLDocumentData parseXML(InputStream pInputStream)
-      throws WitnessParseException, IOException {
-
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
-    return new GraphMLDocumentData(doc);
-  }
-
-  private void checkFields(Node graphNode) throws IOException, WitnessParseException {
+  private void checkFields(GraphMLElement graphNode) throws IOException, WitnessParseException {
 
     checkHashSum(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.PROGRAMHASH));
     checkArchitecture(GraphMLDocumentData.getDataOnNode(graphNode, KeyDef.ARCHITECTURE));
@@ -1164,7 +1144,7 @@ public class AutomatonGraphmlParser {
     return functionExitMatcher;
   }
 
-  private static boolean entersLoopHead(Node pTransition) throws WitnessParseException {
+  private static boolean entersLoopHead(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> loopHeadFlags =
         GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ENTERLOOPHEAD);
     if (!loopHeadFlags.isEmpty()) {
@@ -1211,7 +1191,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which line numbers to assume.
    * @return a predicate to match file locations based on the line numbers specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(Node pTransition)
+  private static Optional<Predicate<FileLocation>> getOriginLineMatcherPredicate(GraphMLElement pTransition)
       throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
@@ -1265,7 +1245,7 @@ public class AutomatonGraphmlParser {
    * @param pTransition the transition specifying which character offset to assume.
    * @return a predicate to match file locations based on the offsets specified by the transition.
    */
-  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(Node pTransition) throws WitnessParseException {
+  private static Optional<Predicate<FileLocation>> getOffsetMatcherPredicate(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> originFileTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.ORIGINFILE);
     checkParsable(
         originFileTags.size() < 2,
@@ -1319,7 +1299,7 @@ public class AutomatonGraphmlParser {
    * @return an automaton-transition condition for specific branches of an assumption corresponding
    *     to the control case specified by the given transition.
    */
-  private static AutomatonBoolExpr getAssumeCaseMatcher(Node pTransition) throws WitnessParseException {
+  private static AutomatonBoolExpr getAssumeCaseMatcher(GraphMLElement pTransition) throws WitnessParseException {
     Set<String> assumeCaseTags = GraphMLDocumentData.getDataOnNode(pTransition, KeyDef.CONTROLCASE);
 
     if (!assumeCaseTags.isEmpty()) {
@@ -1350,7 +1330,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> getThread(
-      Node pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider) throws WitnessParseException {
     return parseThreadId(pTransition, pNumericIdProvider, KeyDef.THREADID, "At most one threadId tag must be provided for each transition.");
   }
 
@@ -1366,7 +1346,7 @@ public class AutomatonGraphmlParser {
    * @throws WitnessParseException if more than one thread id was specified.
    */
   private static Optional<GraphMLTransition.GraphMLThread> parseThreadId(
-      Node pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
+      GraphMLElement pTransition, NumericIdProvider pNumericIdProvider, KeyDef pKey, String pErrorMessage)
       throws WitnessParseException {
     Set<String> threadIdTags = GraphMLDocumentData.getDataOnNode(pTransition, pKey);
 
@@ -1412,7 +1392,7 @@ public class AutomatonGraphmlParser {
       Multimap<GraphMLState, GraphMLTransition> pLeavingEdges,
       Multimap<GraphMLState, GraphMLTransition> pEnteringEdges,
       NumericIdProvider pNumericThreadIdProvider,
-      Node pTransition)
+      GraphMLElement pTransition)
       throws WitnessParseException {
     String sourceStateId =
         GraphMLDocumentData.getAttributeValue(
@@ -1460,14 +1440,14 @@ public class AutomatonGraphmlParser {
     pLeavingEdges.put(source, transition);
     pEnteringEdges.put(target, transition);
 
-    Element sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
+    GraphMLElement sourceStateNode = pDocDat.getNodeWithId(sourceStateId);
     if (sourceStateNode == null) {
       throw new WitnessParseException(
           String.format(
               "Source %s of transition %s does not exist.",
               sourceStateId, transitionToString(pTransition)));
     }
-    Element targetStateNode = pDocDat.getNodeWithId(targetStateId);
+    GraphMLElement targetStateNode = pDocDat.getNodeWithId(targetStateId);
     if (targetStateNode == null) {
       throw new WitnessParseException(
           String.format(
@@ -1503,14 +1483,14 @@ public class AutomatonGraphmlParser {
       GraphMLDocumentData pDocDat,
       Map<String, GraphMLState> pStates,
       String pStateId,
-      Optional<Node> pReference)
+      Optional<GraphMLElement> pReference)
       throws WitnessParseException {
     GraphMLState result = pStates.get(pStateId);
     if (result != null) {
       return result;
     }
 
-    Element stateNode = pDocDat.getNodeWithId(pStateId);
+    GraphMLElement stateNode = pDocDat.getNodeWithId(pStateId);
     if (stateNode == null) {
       final String message;
       if (pReference.isPresent()) {
@@ -1539,7 +1519,7 @@ public class AutomatonGraphmlParser {
     return result;
   }
 
-  private static Optional<String> parseSingleDataValue(Node pEdge,
+  private static Optional<String> parseSingleDataValue(GraphMLElement pEdge,
       KeyDef pKey,
       String pErrorMessage) throws WitnessParseException {
     Set<String> values =
@@ -1555,7 +1535,7 @@ public class AutomatonGraphmlParser {
    * @param pAutomaton the GraphML graph node representing the witness automaton.
    * @return the witness-automaton type of an automaton represented as a GraphML graph.
    */
-  private WitnessType getWitnessType(Node pAutomaton) throws WitnessParseException {
+  private WitnessType getWitnessType(GraphMLElement pAutomaton) throws WitnessParseException {
     Set<String> witnessTypeText =
         GraphMLDocumentData.getDataOnNode(pAutomaton, KeyDef.WITNESS_TYPE);
     final WitnessType witnessType;
@@ -1579,26 +1559,23 @@ public class AutomatonGraphmlParser {
     return witnessType;
   }
 
-  private static String transitionToString(Node pTransition) {
+  private static String transitionToString(GraphMLElement pTransition) {
     if (pTransition == null) {
       return "null";
     }
-    NamedNodeMap attributes = pTransition.getAttributes();
-    if (attributes != null) {
-      Node id = attributes.getNamedItem("id");
-      if (id != null) {
-        return id.getNodeValue();
-      }
+    String id = pTransition.getAttribute("id");
+    if (id != null) {
+      return id;
     }
     return pTransition.toString();
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey)
       throws WitnessParseException {
     checkRequiredField(pGraphNode, pKey, false);
   }
 
-  private static void checkRequiredField(Node pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
+  private static void checkRequiredField(GraphMLElement pGraphNode, KeyDef pKey, boolean pAcceptEmpty)
       throws WitnessParseException {
     Iterable<String> data = GraphMLDocumentData.getDataOnNode(pGraphNode, pKey);
     if (Iterables.isEmpty(data)) {
@@ -1951,115 +1928,188 @@ public class AutomatonGraphmlParser {
 
   }
 
+  /**
+   * A GraphML element (graph, node, or edge) with its attributes and the values of its data
+   * children. This is all the parser needs, and it is much smaller than the DOM of the element.
+   */
+  private static final class GraphMLElement {
+
+    private final String tag;
+
+    private final ImmutableMap<String, String> attributes;
+
+    private final ImmutableListMultimap<String, String> data;
+
+    private GraphMLElement(
+        String pTag,
+        ImmutableMap<String, String> pAttributes,
+        ImmutableListMultimap<String, String> pData) {
+      tag = pTag;
+      attributes = pAttributes;
+      data = pData;
+    }
+
+    private @Nullable String getAttribute(String pName) {
+      return attributes.get(pName);
+    }
+
+    @Override
+    public String toString() {
+      return tag + attributes;
+    }
+  }
+
+  /**
+   * The relevant content of a GraphML document. It is read with a streaming XML parser that keeps
+   * only the graph, nodes, and edges as {@link GraphMLElement}s, such that large witnesses can be
+   * read without materializing their DOM.
+   */
   private static class GraphMLDocumentData {
 
-    private final Node graph;
+    private final GraphMLElement graph;
+
+    private final ImmutableMap<String, GraphMLElement> idToNodeMap;
+
+    private final ImmutableList<GraphMLElement> transitions;
 
-    private final ImmutableMap<String, Element> idToNodeMap;
+    private GraphMLDocumentData(
+        GraphMLElement pGraph,
+        ImmutableMap<String, GraphMLElement> pIdToNodeMap,
+        ImmutableList<GraphMLElement> pTransitions) {
+      graph = pGraph;
+      idToNodeMap = pIdToNodeMap;
+      transitions = pTransitions;
+    }
 
-    private final Iterable<Node> transitions;
+    /**
+     * Read a GraphML document from the given stream.
+     *
+     * @param pInputStream the stream to read the document from.
+     * @param pGraphOnly whether only the data of the graph itself is needed, such that nodes and
+     *     edges can be skipped.
+     */
+    private static GraphMLDocumentData parse(InputStream pInputStream, boolean pGraphOnly)
+        throws WitnessParseException {
+      XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
 
-    public GraphMLDocumentData(Document pDocument) throws WitnessParseException {
+      GraphMLElement graph = null;
+      int graphCount = 0;
+      ImmutableMap.Builder<String, GraphMLElement> idToNodeMapBuilder = ImmutableMap.builder();
+      ImmutableList.Builder<GraphMLElement> transitionsBuilder = ImmutableList.builder();
 
-      NodeList graphs = pDocument.getElementsByTagName(GraphMLTag.GRAPH.toString());
-      checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-      graph = Objects.requireNonNull(graphs.item(0));
+      // the currently open graph, node, and edge elements with their attributes and data
+      Deque<String> openTags = new ArrayDeque<>();
+      Deque<ImmutableMap<String, String>> openAttributes = new ArrayDeque<>();
+      Deque<ImmutableListMultimap.Builder<String, String>> openData = new ArrayDeque<>();
 
-      ImmutableMap.Builder<String, Element> idToNodeMapBuilder = ImmutableMap.builder();
-      NodeList nodes = pDocument.getElementsByTagName(GraphMLTag.NODE.toString());
-      for (Node stateNode : asIterable(nodes)) {
-        String stateId = getAttributeValue(stateNode, "id", "Every state needs an ID!");
-        idToNodeMapBuilder.put(stateId, (Element) stateNode);
+      try {
+        XMLStreamReader reader = factory.createXMLStreamReader(pInputStream);
+        try {
+          while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+              String tag = reader.getLocalName();
+              if (isContainer(tag)) {
+                ImmutableMap.Builder<String, String> attributes = ImmutableMap.builder();
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                  attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                }
+                openTags.push(tag);
+                openAttributes.push(attributes.build());
+                openData.push(ImmutableListMultimap.builder());
+
+              } else if (tag.equals(GraphMLTag.DATA.toString()) && !openTags.isEmpty()) {
+                String key = reader.getAttributeValue(null, "key");
+                Preconditions.checkNotNull(key, "Every data element must have a key attribute!");
+                String value = reader.getElementText();
+                if (!pGraphOnly || openTags.size() == 1) {
+                  openData.peek().put(key, value);
+                }
+              }
+
+            } else if (event == XMLStreamConstants.END_ELEMENT
+                && isContainer(reader.getLocalName())) {
+              GraphMLElement element =
+                  new GraphMLElement(openTags.pop(), openAttributes.pop(), openData.pop().build());
+              if (element.tag.equals(GraphMLTag.GRAPH.toString())) {
+                graph = element;
+                graphCount++;
+              } else if (pGraphOnly) {
+                // nodes and edges are not needed
+              } else if (element.tag.equals(GraphMLTag.NODE.toString())) {
+                String stateId = getAttributeValue(element, "id", "Every state needs an ID!");
+                idToNodeMapBuilder.put(stateId, element);
+              } else {
+                transitionsBuilder.add(element);
+              }
+            }
+          }
+        } finally {
+          reader.close();
+        }
+      } catch (XMLStreamException e) {
+        throw new WitnessParseException(e);
       }
-      idToNodeMap = idToNodeMapBuilder.build();
 
-      transitions = asIterable(pDocument.getElementsByTagName(GraphMLTag.EDGE.toString()));
+      checkParsable(graphCount == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      return new GraphMLDocumentData(
+          graph, idToNodeMapBuilder.build(), transitionsBuilder.build());
+    }
+
+    private static boolean isContainer(String pTag) {
+      return pTag.equals(GraphMLTag.GRAPH.toString())
+          || pTag.equals(GraphMLTag.NODE.toString())
+          || pTag.equals(GraphMLTag.EDGE.toString());
     }
 
-    public Node getGraph() {
+    public GraphMLElement getGraph() {
       return graph;
     }
 
-    public Iterable<Node> getTransitions() {
+    public Iterable<GraphMLElement> getTransitions() {
       return transitions;
     }
 
-    public EnumSet<NodeFlag> getNodeFlags(Element pStateNode) {
+    public EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
       EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
-
-      NodeList dataChilds = pStateNode.getElementsByTagName(GraphMLTag.DATA.toString());
-
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String key = attribute.getTextContent();
+      for (String key : pStateNode.data.keySet()) {
         NodeFlag flag = NodeFlag.getNodeFlagByKey(key);
         if (flag != null) {
           result.add(flag);
         }
       }
-
       return result;
     }
 
-    private static String getAttributeValue(Node of, String attributeName, String exceptionMessage)
+    private static String getAttributeValue(
+        GraphMLElement of, String attributeName, String exceptionMessage)
         throws WitnessParseException {
-      Node attribute = of.getAttributes().getNamedItem(attributeName);
+      String attribute = of.getAttribute(attributeName);
       if (attribute == null) {
         throw new WitnessParseException(exceptionMessage);
       }
-      return attribute.getTextContent();
+      return attribute;
     }
 
-    private @Nullable Element getNodeWithId(String nodeId) {
-      Element result = idToNodeMap.get(nodeId);
-      if (result == null
-          || !result.getTagName().equals(GraphMLTag.NODE.toString())) {
-        return null;
-      }
-      return result;
+    private @Nullable GraphMLElement getNodeWithId(String nodeId) {
+      return idToNodeMap.get(nodeId);
     }
 
-    private static Set<String> getDataOnNode(Node node, final KeyDef dataKey) {
+    private static Set<String> getDataOnNode(GraphMLElement node, final KeyDef dataKey) {
       Preconditions.checkNotNull(node);
-      Preconditions.checkArgument(node.getNodeType() == Node.ELEMENT_NODE);
-
-      Set<Node> dataNodes = findKeyedDataNode((Element) node, dataKey);
 
-      Set<String> result = new LinkedHashSet<>();
-      for (Node n: dataNodes) {
-        result.add(n.getTextContent());
-      }
-      return result;
-    }
-
-    private static Set<Node> findKeyedDataNode(Element of, final KeyDef dataKey) {
-      Set<Node> result = new LinkedHashSet<>();
-      Set<Node> alternative = null;
-      NodeList dataChilds = of.getElementsByTagName(GraphMLTag.DATA.toString());
-      for (Node dataChild : asIterable(dataChilds)) {
-        Node attribute = dataChild.getAttributes().getNamedItem("key");
-        Preconditions.checkNotNull(attribute, "Every data element must have a key attribute!");
-        String nodeKey = attribute.getTextContent();
-        if (nodeKey.equals(dataKey.id)) {
-          result.add(dataChild);
-          alternative = null;
-        }
-        // Backwards-compatibility: type/graph-type
-        if (alternative == null
-            && result.isEmpty()
-            && dataKey.equals(KeyDef.WITNESS_TYPE)
-            && nodeKey.equals("type")) {
-          alternative = new LinkedHashSet<>();
-          alternative.add(dataChild);
+      List<String> values = node.data.get(dataKey.id);
+      // Backwards-compatibility: type/graph-type
+      if (values.isEmpty() && dataKey.equals(KeyDef.WITNESS_TYPE)) {
+        values = node.data.get("type");
+        if (!values.isEmpty()) {
+          values = values.subList(0, 1);
         }
       }
-      if (result.isEmpty() && alternative != null) {
-        return alternative;
-      }
-      return result;
+      return new LinkedHashSet<>(values);
     }
-
   }
 
   public static boolean isGraphmlAutomatonFromConfiguration(Path pPath)
@@ -2111,20 +2161,8 @@ public class AutomatonGraphmlParser {
 
   private static AutomatonGraphmlCommon.WitnessType getWitnessType(InputStream pInputStream)
       throws InvalidConfigurationException, IOException {
-    // Parse the XML document ----
-    DocumentBuilderFactory docFactory = DocumentBuilderFactory.newInstance();
-    Document doc;
-    try {
-      DocumentBuilder docBuilder = docFactory.newDocumentBuilder();
-      doc = docBuilder.parse(pInputStream);
-    } catch (ParserConfigurationException | SAXException e) {
-      throw new WitnessParseException(e);
-    }
-
     // (The one) root node of the graph ----
-    NodeList graphs = doc.getElementsByTagName(GraphMLTag.GRAPH.toString());
-    checkParsable(graphs.getLength() == 1, TOO_MANY_GRAPHS_ERROR_MESSAGE);
-    Node graphNode = graphs.item(0);
+    GraphMLElement graphNode = GraphMLDocumentData.parse(pInputStream, true).getGraph();
 
     checkRequiredField(graphNode, KeyDef.WITNESS_TYPE);
 
@@ -2236,34 +2274,4 @@ public class AutomatonGraphmlParser {
       throw pExceptionHandler.apply(e);
     }
   }
-
-
-  /** return a nice {@link Iterable} wrapping the interface {@link NodeList}. */
-  private static Iterable<Node> asIterable(final NodeList pNodeList) {
-    return new Iterable<>() {
-
-      private Integer length = null;
-
-      @Override
-      public Iterator<Node> iterator() {
-        return new Iterator<>() {
-
-          private int index = 0;
-
-          @Override
-          public boolean hasNext() {
-            if (length == null) {
-              length = pNodeList.getLength();
-            }
-            return index < length;
-          }
-
-          @Override
-          public Node next() {
-            return pNodeList.item(index++);
-          }
-        };
-      }
-    };
-  }
 }
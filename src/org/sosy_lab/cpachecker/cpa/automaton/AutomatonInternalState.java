@@ -27,6 +27,7 @@ import com.google.common.collect.ImmutableList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
@@ -90,6 +91,12 @@ public class AutomatonInternalState {
 
   private final boolean isCycleStart;
 
+  /** States with fewer transitions are matched without an index. */
+  private static final int MIN_TRANSITIONS_FOR_INDEX = 8;
+
+  /** Index of the transitions, created on first use. */
+  private volatile @Nullable AutomatonTransitionIndex transitionIndex = null;
+
   public AutomatonInternalState(
       String pName,
       List<AutomatonTransition> pTransitions,
@@ -164,6 +171,23 @@ public class AutomatonInternalState {
     return transitions;
   }
 
+  /**
+   * Return the outgoing transitions that might match the given edge, in their original order. All
+   * other outgoing transitions are guaranteed to not match the edge.
+   */
+  ImmutableList<AutomatonTransition> getTransitionsForEdge(CFAEdge pEdge) {
+    if (transitions.size() < MIN_TRANSITIONS_FOR_INDEX) {
+      return transitions;
+    }
+    AutomatonTransitionIndex index = transitionIndex;
+    if (index == null) {
+      // creating the index twice in concurrent analyses does not harm
+      index = new AutomatonTransitionIndex(transitions);
+      transitionIndex = index;
+    }
+    return index.getCandidates(pEdge);
+  }
+
   @Override
   public String toString() {
     return this.name;
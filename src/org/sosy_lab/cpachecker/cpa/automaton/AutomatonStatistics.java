@@ -28,6 +28,7 @@ import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
@@ -42,6 +43,7 @@ class AutomatonStatistics implements Statistics {
   ThreadSafeTimerContainer actionTime          = new ThreadSafeTimerContainer("Time for transition actions");
   ThreadSafeTimerContainer totalStrengthenTime = new ThreadSafeTimerContainer("Total time for strengthen operator");
   StatIntHist automatonSuccessors = new StatIntHist(StatKind.AVG, "Automaton transfer successors");
+  StatInt skippedTransitions = new StatInt(StatKind.SUM, "Transitions skipped by index");
 
   public AutomatonStatistics(Automaton pAutomaton) {
     automaton = pAutomaton;
@@ -75,6 +77,9 @@ class AutomatonStatistics implements Statistics {
             - automatonSuccessors.getTimesWithValue(1);
     put(out, 0, "Automaton transfers with branching", stateBranchings);
     put(out, 0, automatonSuccessors);
+    if (skippedTransitions.getUpdateCount() > 0) {
+      put(out, 0, skippedTransitions);
+    }
 
     int statesWithAssumptionTransitions = 0;
     for (AutomatonInternalState state : automaton.getStates()) {
@@ -25,6 +25,8 @@ package org.sosy_lab.cpachecker.cpa.automaton;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -348,4 +350,42 @@ public class AutomatonTest {
     TestResults results = CPATestRunner.run(prop, "test/programs/coverage/test2.c");
     results.assertIs(Result.TRUE);
   }
+
+  @Test
+  public void shareEdgeGuardsTest() throws Exception {
+    for (String program :
+        ImmutableList.of(
+            "test/programs/simple/locking_correct.c", "test/programs/simple/locking_incorrect.c")) {
+      TestResults shared = runWithEdgeGuards(program, true);
+      TestResults notShared = runWithEdgeGuards(program, false);
+
+      assertThat(shared.getCheckerResult().getResult())
+          .isEqualTo(notShared.getCheckerResult().getResult());
+      assertThat(shared.getCheckerResult().getReached().size())
+          .isEqualTo(notShared.getCheckerResult().getReached().size());
+      assertThat(getPrintedLastStatements(shared))
+          .containsExactlyElementsIn(getPrintedLastStatements(notShared));
+    }
+  }
+
+  private static TestResults runWithEdgeGuards(String pProgram, boolean pShareEdgeGuards)
+      throws Exception {
+    Map<String, String> prop =
+        ImmutableMap.of(
+            "CompositeCPA.cpas", "cpa.location.LocationCPA",
+            "specification",
+                "test/config/automata/LockingAutomatonAll.txt,"
+                    + " test/config/automata/PrintLastStatementAutomaton.spc",
+            "specification.shareEdgeGuards", Boolean.toString(pShareEdgeGuards),
+            "analysis.stopAfterError", "FALSE");
+    return CPATestRunner.run(prop, pProgram);
+  }
+
+  private static ImmutableList<String> getPrintedLastStatements(TestResults pResults) {
+    return Splitter.on('\n')
+        .splitToList(pResults.getLog())
+        .stream()
+        .filter(line -> line.contains("Last statement is"))
+        .collect(ImmutableList.toImmutableList());
+  }
 }
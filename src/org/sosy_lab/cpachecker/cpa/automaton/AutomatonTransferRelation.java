@@ -43,6 +43,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.ast.AAstNode;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
@@ -60,6 +61,7 @@ import org.sosy_lab.cpachecker.cpa.threading.ThreadingState;
 import org.sosy_lab.cpachecker.cpa.threading.ThreadingTransferRelation;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatIntHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
@@ -72,6 +74,7 @@ public class AutomatonTransferRelation implements TransferRelation {
   private final ControlAutomatonCPA cpa;
   private final LogManager logger;
   private final MachineModel machineModel;
+  private final @Nullable AutomatonEdgeGuards edgeGuards;
 
   private final TimerWrapper totalPostTime;
   private final TimerWrapper matchTime;
@@ -79,15 +82,18 @@ public class AutomatonTransferRelation implements TransferRelation {
   private final TimerWrapper actionTime;
   private final TimerWrapper totalStrengthenTime;
   private final StatIntHist automatonSuccessors;
+  private final StatInt skippedTransitions;
 
   public AutomatonTransferRelation(
       ControlAutomatonCPA pCpa,
       LogManager pLogger,
       MachineModel pMachineModel,
+      @Nullable AutomatonEdgeGuards pEdgeGuards,
       AutomatonStatistics pStats) {
     this.cpa = pCpa;
     this.logger = pLogger;
     this.machineModel = pMachineModel;
+    this.edgeGuards = pEdgeGuards;
 
     totalPostTime = pStats.totalPostTime.getNewTimer();
     matchTime = pStats.matchTime.getNewTimer();
@@ -95,6 +101,7 @@ public class AutomatonTransferRelation implements TransferRelation {
     actionTime = pStats.actionTime.getNewTimer();
     totalStrengthenTime = pStats.totalStrengthenTime.getNewTimer();
     automatonSuccessors = pStats.automatonSuccessors;
+    skippedTransitions = pStats.skippedTransitions;
   }
 
   @Override
@@ -181,9 +188,20 @@ public class AutomatonTransferRelation implements TransferRelation {
     ImmutableSet.Builder<AutomatonState> lSuccessors = ImmutableSet.builderWithExpectedSize(2);
     AutomatonExpressionArguments exprArgs = new AutomatonExpressionArguments(state, state.getVars(), otherElements, edge, logger);
     boolean edgeMatched = false;
-    int failedMatches = 0;
     boolean nonDetState = state.getInternalState().isNonDetState();
 
+    // transitions that are not candidates for this edge are known to not match
+    ImmutableList<AutomatonTransition> candidateTransitions =
+        state.getInternalState().getTransitionsForEdge(edge);
+    if (edgeGuards != null) {
+      candidateTransitions = edgeGuards.filter(candidateTransitions, edge);
+    }
+    int failedMatches =
+        state.getInternalState().getTransitions().size() - candidateTransitions.size();
+    if (failedMatches > 0) {
+      skippedTransitions.setNextValue(failedMatches);
+    }
+
     // these transitions cannot be evaluated until last, because they might have sideeffects on
     // other CPAs (dont want to execute them twice)
     // the transitionVariables have to be cached (produced during the match operation)
@@ -191,7 +209,7 @@ public class AutomatonTransferRelation implements TransferRelation {
     List<Pair<AutomatonTransition, Map<Integer, AAstNode>>> transitionsToBeTaken =
         new ArrayList<>(2);
 
-    for (AutomatonTransition t : state.getInternalState().getTransitions()) {
+    for (AutomatonTransition t : candidateTransitions) {
       exprArgs.clearTransitionVariables();
 
       matchTime.start();
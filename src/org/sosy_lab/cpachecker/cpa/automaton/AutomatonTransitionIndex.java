@@ -0,0 +1,275 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdgeType;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.And;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchAssumeCase;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionCall;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionCallStatement;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchFunctionExit;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonBoolExpr.MatchLocationDescriptor;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.LineMatcher;
+import org.sosy_lab.cpachecker.cpa.automaton.SourceLocationMatcher.OffsetMatcher;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon;
+
+/**
+ * An index over the outgoing transitions of an {@link AutomatonInternalState}, which returns for
+ * a CFA edge only those transitions whose trigger might match the edge.
+ *
+ * <p>A transition is indexed by one conjunct of its trigger that can be checked cheaply for an
+ * edge: a line or offset range (as used by witness automata), the name of a function, or the
+ * type of the edge. If such a conjunct does not hold for an edge, the conjunct evaluates to false,
+ * and thus also the whole trigger evaluates to false (cf. {@link And}), so skipping the
+ * transition does not change the result. Transitions without such a conjunct are always returned.
+ */
+final class AutomatonTransitionIndex {
+
+  private final ImmutableList<AutomatonTransition> transitions;
+
+  /** Transitions that are not indexed, they might match every edge. */
+  private final BitSet unindexed = new BitSet();
+
+  /** Index for location-based triggers, per entry node of the main function. */
+  private final Map<FunctionEntryNode, LocationIndex> locations = new LinkedHashMap<>();
+
+  private final ImmutableListMultimap<String, Integer> functions;
+  private final ImmutableListMultimap<CFAEdgeType, Integer> edgeTypes;
+
+  AutomatonTransitionIndex(List<AutomatonTransition> pTransitions) {
+    transitions = ImmutableList.copyOf(pTransitions);
+    ImmutableListMultimap.Builder<String, Integer> functionsBuilder =
+        ImmutableListMultimap.builder();
+    ImmutableListMultimap.Builder<CFAEdgeType, Integer> edgeTypesBuilder =
+        ImmutableListMultimap.builder();
+
+    for (int i = 0; i < transitions.size(); i++) {
+      List<AutomatonBoolExpr> conjuncts = new ArrayList<>();
+      collectConjuncts(transitions.get(i).getTrigger(), conjuncts);
+
+      if (addToLocationIndex(i, conjuncts)) {
+        continue;
+      }
+      String function = getFunctionName(conjuncts);
+      if (function != null) {
+        functionsBuilder.put(function, i);
+        continue;
+      }
+      Set<CFAEdgeType> types = getEdgeTypes(conjuncts);
+      if (types != null) {
+        for (CFAEdgeType type : types) {
+          edgeTypesBuilder.put(type, i);
+        }
+        continue;
+      }
+      unindexed.set(i);
+    }
+
+    functions = functionsBuilder.build();
+    edgeTypes = edgeTypesBuilder.build();
+    locations.values().forEach(LocationIndex::sort);
+  }
+
+  /**
+   * Return all transitions that might match the given edge, in their original order. All other
+   * transitions evaluate to false for this edge.
+   */
+  ImmutableList<AutomatonTransition> getCandidates(CFAEdge pEdge) {
+    if (unindexed.cardinality() == transitions.size()) {
+      return transitions; // the index cannot exclude anything
+    }
+    BitSet candidates = (BitSet) unindexed.clone();
+
+    for (Map.Entry<FunctionEntryNode, LocationIndex> entry : locations.entrySet()) {
+      for (FileLocation location :
+          AutomatonGraphmlCommon.getFileLocationsFromCfaEdge(pEdge, entry.getKey())) {
+        entry.getValue().addCandidates(location, candidates);
+      }
+    }
+    String predecessorFunction = pEdge.getPredecessor().getFunctionName();
+    String successorFunction = pEdge.getSuccessor().getFunctionName();
+    functions.get(predecessorFunction).forEach(candidates::set);
+    if (!successorFunction.equals(predecessorFunction)) {
+      functions.get(successorFunction).forEach(candidates::set);
+    }
+    edgeTypes.get(pEdge.getEdgeType()).forEach(candidates::set);
+
+    ImmutableList.Builder<AutomatonTransition> result =
+        ImmutableList.builderWithExpectedSize(candidates.cardinality());
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+      result.add(transitions.get(i));
+    }
+    return result.build();
+  }
+
+  /** Collect all expressions that need to be true for the given expression to be true. */
+  private static void collectConjuncts(AutomatonBoolExpr pExpr, List<AutomatonBoolExpr> pResult) {
+    if (pExpr instanceof And) {
+      collectConjuncts(((And) pExpr).a, pResult);
+      collectConjuncts(((And) pExpr).b, pResult);
+    } else {
+      pResult.add(pExpr);
+    }
+  }
+
+  private boolean addToLocationIndex(int pTransition, List<AutomatonBoolExpr> pConjuncts) {
+    for (MatchLocationDescriptor matcher :
+        Iterables.filter(pConjuncts, MatchLocationDescriptor.class)) {
+      Predicate<FileLocation> descriptor = matcher.getDescriptor();
+      if (descriptor instanceof LineMatcher) {
+        LineMatcher lineMatcher = (LineMatcher) descriptor;
+        LocationIndex index =
+            locations.computeIfAbsent(matcher.getMainEntry(), k -> new LocationIndex());
+        (lineMatcher.isOrigin() ? index.originLines : index.lines)
+            .add(lineMatcher.getStartLineNumber(), lineMatcher.getEndLineNumber(), pTransition);
+        return true;
+      } else if (descriptor instanceof OffsetMatcher) {
+        OffsetMatcher offsetMatcher = (OffsetMatcher) descriptor;
+        locations
+            .computeIfAbsent(matcher.getMainEntry(), k -> new LocationIndex())
+            .offsets
+            .add(offsetMatcher.getStartOffset(), offsetMatcher.getEndOffset(), pTransition);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Return a function name such that the given conjuncts can only match edges that start or end
+   * in this function.
+   */
+  private static @Nullable String getFunctionName(List<AutomatonBoolExpr> pConjuncts) {
+    for (AutomatonBoolExpr conjunct : pConjuncts) {
+      if (conjunct instanceof MatchFunctionCall) {
+        // matches only edges whose successor is in the function
+        return ((MatchFunctionCall) conjunct).getFunctionName();
+      } else if (conjunct instanceof MatchFunctionExit) {
+        // matches only return edges leaving the function or edges inside the function
+        return ((MatchFunctionExit) conjunct).getFunctionName();
+      }
+    }
+    return null;
+  }
+
+  /** Return the types of edges that the given conjuncts can match. */
+  private static @Nullable Set<CFAEdgeType> getEdgeTypes(List<AutomatonBoolExpr> pConjuncts) {
+    for (AutomatonBoolExpr conjunct : pConjuncts) {
+      if (conjunct instanceof MatchFunctionCallStatement) {
+        return EnumSet.of(CFAEdgeType.StatementEdge);
+      } else if (conjunct instanceof MatchAssumeCase) {
+        // the positive case also matches blank edges of "while (1)" loops
+        return ((MatchAssumeCase) conjunct).isMatchPositiveCase()
+            ? EnumSet.of(CFAEdgeType.AssumeEdge, CFAEdgeType.BlankEdge)
+            : EnumSet.of(CFAEdgeType.AssumeEdge);
+      }
+    }
+    return null;
+  }
+
+  /** The indexes for the different kinds of {@link SourceLocationMatcher}. */
+  private static final class LocationIndex {
+
+    private final IntervalIndex originLines = new IntervalIndex();
+    private final IntervalIndex lines = new IntervalIndex();
+    private final IntervalIndex offsets = new IntervalIndex();
+
+    private void sort() {
+      originLines.sort();
+      lines.sort();
+      offsets.sort();
+    }
+
+    /** Add all transitions whose location matcher overlaps with the given location. */
+    private void addCandidates(FileLocation pLocation, BitSet pCandidates) {
+      originLines.addOverlapping(
+          pLocation.getStartingLineInOrigin(), pLocation.getEndingLineInOrigin(), pCandidates);
+      lines.addOverlapping(
+          pLocation.getStartingLineNumber(), pLocation.getEndingLineNumber(), pCandidates);
+      offsets.addOverlapping(
+          pLocation.getNodeOffset(),
+          pLocation.getNodeOffset() + pLocation.getNodeLength() - 1,
+          pCandidates);
+    }
+  }
+
+  /**
+   * Maps closed integer intervals to transitions. The intervals are sorted by their start, and an
+   * overlap query only needs to look at intervals that start at most the maximal interval length
+   * before the queried interval. This is efficient because the ranges in witnesses are short.
+   */
+  private static final class IntervalIndex {
+
+    private final List<int[]> entries = new ArrayList<>();
+    private int[] starts = new int[0];
+    private int maxLength = 0;
+
+    private void add(int pStart, int pEnd, int pTransition) {
+      entries.add(new int[] {pStart, pEnd, pTransition});
+      maxLength = Math.max(maxLength, pEnd - pStart);
+    }
+
+    private void sort() {
+      entries.sort(Comparator.comparingInt(entry -> entry[0]));
+      starts = entries.stream().mapToInt(entry -> entry[0]).toArray();
+    }
+
+    private void addOverlapping(int pStart, int pEnd, BitSet pCandidates) {
+      if (entries.isEmpty()) {
+        return;
+      }
+      int i = Arrays.binarySearch(starts, pStart - maxLength);
+      if (i < 0) {
+        i = -(i + 1);
+      } else {
+        while (i > 0 && starts[i - 1] == starts[i]) {
+          i--;
+        }
+      }
+      for (; i < starts.length && starts[i] <= pEnd; i++) {
+        int[] entry = entries.get(i);
+        if (entry[1] >= pStart) {
+          pCandidates.set(entry[2]);
+        }
+      }
+    }
+  }
+}
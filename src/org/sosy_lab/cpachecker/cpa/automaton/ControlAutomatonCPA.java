@@ -34,6 +34,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -158,9 +159,11 @@ public class ControlAutomatonCPA
   private final CFA cfa;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
+  private final @Nullable AutomatonEdgeGuards edgeGuards;
 
   protected ControlAutomatonCPA(
       @OptionalAnnotation Automaton pAutomaton,
+      @OptionalAnnotation AutomatonEdgeGuards pEdgeGuards,
       Configuration pConfig,
       LogManager pLogger,
       CFA pCFA,
@@ -172,6 +175,7 @@ public class ControlAutomatonCPA
     cfa = pCFA;
     logger = pLogger;
     shutdownNotifier = pShutdownNotifier;
+    edgeGuards = pEdgeGuards;
     if (pAutomaton != null) {
       this.automaton = pAutomaton;
 
@@ -318,7 +322,7 @@ public class ControlAutomatonCPA
 
   @Override
   public AutomatonTransferRelation getTransferRelation() {
-    return new AutomatonTransferRelation(this, logger, cfa.getMachineModel(), stats);
+    return new AutomatonTransferRelation(this, logger, cfa.getMachineModel(), edgeGuards, stats);
   }
 
   public AutomatonState getBottomState() {
@@ -41,7 +41,7 @@ public class ObserverAutomatonCPA extends ControlAutomatonCPA {
       CFA cfa,
       ShutdownNotifier pShutdownNotifier)
       throws InvalidConfigurationException {
-    super(pAutomaton, pConfig, pLogger, cfa, pShutdownNotifier);
+    super(pAutomaton, null, pConfig, pLogger, cfa, pShutdownNotifier);
     super.getAutomaton().assertObserverAutomaton();
   }
 
@@ -47,7 +47,6 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheAggressiveImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheImpl;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
@@ -101,11 +100,16 @@ public class BAMCPA extends AbstractBAMCPA implements StatisticsProvider, ProofC
       this.wrappedProofChecker = null;
     }
 
-    final BAMCache cache;
+    final BAMCacheImpl cache;
     if (aggressiveCaching) {
-      cache = new BAMCacheAggressiveImpl(config, getReducer(), logger);
+      cache = new BAMCacheAggressiveImpl(config, getReducer(), logger, pCfa, pSpecification);
     } else {
-      cache = new BAMCacheImpl(config, getReducer(), logger);
+      cache = new BAMCacheImpl(config, getReducer(), logger, pCfa, pSpecification);
+    }
+    if (cache.usesSummaries() && useCopyOnWriteRefinement()) {
+      // copy-on-write refinement relies on complete blocks, but loaded summaries have no paths
+      throw new InvalidConfigurationException(
+          "Option cpa.bam.summaryDirectory cannot be used with cpa.bam.useCopyOnWriteRefinement.");
     }
     data = new BAMDataManagerImpl(cache, pReachedSetFactory, pLogger);
 
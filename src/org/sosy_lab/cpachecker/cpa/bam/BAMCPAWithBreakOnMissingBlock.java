@@ -38,7 +38,7 @@ import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache;
-import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheSynchronized;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCacheConcurrent;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManager;
 import org.sosy_lab.cpachecker.cpa.bam.cache.BAMDataManagerSynchronized;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
@@ -56,6 +56,14 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
   )
   private boolean breakForMissingBlock = true;
 
+  @Option(
+    secure = true,
+    description =
+        "If enabled, the reached set cache is analysed for each cache miss to find the cause of"
+            + " the miss."
+  )
+  private boolean gatherCacheMissStatistics = false;
+
   private final BAMCache cache;
   private final BAMDataManager data;
 
@@ -71,7 +79,7 @@ public class BAMCPAWithBreakOnMissingBlock extends AbstractBAMCPA {
     super(pCpa, pConfig, pLogger, pShutdownNotifier, pSpecification, pCfa);
     pConfig.inject(this);
 
-    cache = new BAMCacheSynchronized(pConfig, getReducer(), pLogger);
+    cache = new BAMCacheConcurrent(getReducer(), pLogger, gatherCacheMissStatistics);
     data = new BAMDataManagerSynchronized(cache, reachedsetFactory, pLogger);
   }
 
@@ -259,6 +259,20 @@ public class BAMSubgraphComputer {
               "reduced state '%s' is not part of reachedset with root '%s' from expanded root '%s'",
               reducedTarget, reachedSet.getFirstState(), expandedRoot);
 
+      if (data.getCache().isLoadedSummary(reachedSet)) {
+        // The summary from a previous analysis run has no paths through the block.
+        // We replace it with a new reached-set, such that the block is analyzed again.
+        logger.log(
+            Level.FINE,
+            "Target state refers to a block summary from a previous run. Analyzing it again.");
+        final ARGState reducedRoot = (ARGState) reachedSet.getFirstState();
+        data.createAndRegisterNewReachedSet(
+            new ARGState(reducedRoot.getWrappedState(), null),
+            reachedSet.getPrecision(reducedRoot),
+            partitioning.getBlockForCallNode(extractLocation(expandedRoot)));
+        throw new MissingBlockException(expandedRoot, newExpandedTarget.getWrappedState());
+      }
+
       // we found the reached-set, corresponding to the root and precision.
       // now try to find a path from the target towards the root of the reached-set.
       BackwardARGState newBackwardTarget = new BackwardARGState(reducedTarget);
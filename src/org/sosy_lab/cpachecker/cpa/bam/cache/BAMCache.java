@@ -28,6 +28,7 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -60,6 +61,34 @@ public interface BAMCache extends Statistics {
    */
   BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context);
 
+  /**
+   * Return the entry for the given key. If there is a cache miss, a new entry for the reached-set
+   * from the given supplier is inserted and returned. Thread-safe implementations guarantee that
+   * concurrent calls with the same key return the same entry, such that a block is never analyzed
+   * twice for the same input.
+   */
+  default BAMCacheEntry getOrPut(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> newItem) {
+    BAMCacheEntry entry = get(stateKey, precisionKey, context);
+    if (entry == null) {
+      entry = put(stateKey, precisionKey, context, newItem.get());
+    }
+    return entry;
+  }
+
+  /**
+   * Return whether the given reached-set was loaded from a summary of a previous analysis run.
+   * Such a reached-set only contains the initial state and the exit states, but no paths between
+   * them, and must be analyzed again if a path through the block is needed.
+   */
+  @SuppressWarnings("unused") /* parameter used in implementations */
+  default boolean isLoadedSummary(ReachedSet rs) {
+    return false;
+  }
+
   /** Return the root-state of the last analyzed block, based on the last cache-access. */
   @Deprecated // reason: last block is not deterministic in parallel context
   ARGState getLastAnalyzedBlock();
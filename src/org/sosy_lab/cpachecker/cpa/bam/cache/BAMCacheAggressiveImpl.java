@@ -30,7 +30,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.Specification;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Reducer;
@@ -45,9 +47,14 @@ public class BAMCacheAggressiveImpl extends BAMCacheImpl {
 
   private final Map<AbstractStateHash, BAMCacheEntry> impreciseReachedCache = new LinkedHashMap<>();
 
-  public BAMCacheAggressiveImpl(Configuration config, Reducer reducer, LogManager logger)
+  public BAMCacheAggressiveImpl(
+      Configuration config,
+      Reducer reducer,
+      LogManager logger,
+      CFA cfa,
+      Specification specification)
       throws InvalidConfigurationException {
-    super(config, reducer, logger);
+    super(config, reducer, logger, cfa, specification);
   }
 
   @Override
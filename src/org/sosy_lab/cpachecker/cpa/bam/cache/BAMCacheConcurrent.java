@@ -0,0 +1,301 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import com.google.common.collect.Collections2;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * A thread-safe cache for parallel BAM. In contrast to a fully synchronized cache, concurrent
+ * accesses for different keys do not block each other. New entries are created atomically via
+ * {@link #getOrPut}, such that several threads reaching the same block entry get the same
+ * reached-set and the block is only analyzed once.
+ *
+ * <p>The iteration order of the cache is not deterministic, which does not matter for parallel
+ * BAM, because the analysis itself is not deterministic. For the same reason, the analysis of the
+ * cause of a cache miss only sees the entries that were completed before the miss.
+ */
+public class BAMCacheConcurrent implements BAMCache {
+
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder partialCacheHits = new LongAdder();
+  private final LongAdder fullCacheHits = new LongAdder();
+  private final LongAdder createdEntries = new LongAdder();
+
+  private final LongAdder abstractionCausedMisses = new LongAdder();
+  private final LongAdder precisionCausedMisses = new LongAdder();
+  private final LongAdder noSimilarCausedMisses = new LongAdder();
+
+  private final ThreadSafeTimerContainer accessTimer =
+      new ThreadSafeTimerContainer("Time for cache-access");
+  private final ThreadLocal<TimerWrapper> threadAccessTimer =
+      ThreadLocal.withInitial(accessTimer::getNewTimer);
+
+  private final ConcurrentMap<Key, BAMCacheEntry> preciseReachedCache = new ConcurrentHashMap<>();
+
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+  private final Reducer reducer;
+  private final LogManager logger;
+  private final boolean gatherCacheMissStatistics;
+
+  public BAMCacheConcurrent(
+      Reducer pReducer, LogManager pLogger, boolean pGatherCacheMissStatistics) {
+    reducer = checkNotNull(pReducer);
+    logger = checkNotNull(pLogger);
+    gatherCacheMissStatistics = pGatherCacheMissStatistics;
+  }
+
+  private Key getHashCode(AbstractState stateKey, Precision precisionKey, Block context) {
+    return new Key(
+        reducer.getHashCodeForState(stateKey, precisionKey), context, stateKey, precisionKey);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState stateKey, Precision precisionKey, Block context, ReachedSet rs) {
+    TimerWrapper timer = threadAccessTimer.get();
+    timer.start();
+    try {
+      BAMCacheEntry entry = new BAMCacheEntry(rs);
+      preciseReachedCache.put(getHashCode(stateKey, precisionKey, context), entry);
+      createdEntries.increment();
+      return entry;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public BAMCacheEntry getOrPut(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> newItem) {
+    TimerWrapper timer = threadAccessTimer.get();
+    timer.start();
+    try {
+      Key hash = getHashCode(stateKey, precisionKey, context);
+      BAMCacheEntry entry = preciseReachedCache.get(hash);
+      if (entry == null) {
+        // Creating a new reached-set is cheap, thus we do it without any lock.
+        // If another thread was faster, we drop our reached-set and use the other one.
+        BAMCacheEntry newEntry = new BAMCacheEntry(newItem.get());
+        entry = preciseReachedCache.putIfAbsent(hash, newEntry);
+        if (entry == null) {
+          createdEntries.increment();
+          updateStatistics(null, hash);
+          return newEntry;
+        }
+      }
+      updateStatistics(entry, hash);
+      return entry;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context) {
+    TimerWrapper timer = threadAccessTimer.get();
+    timer.start();
+    try {
+      Key hash = getHashCode(stateKey, precisionKey, context);
+      BAMCacheEntry entry = preciseReachedCache.get(hash);
+      logger.log(
+          Level.FINEST,
+          entry == null ? "CACHE_ACCESS: entry not available" : "CACHE_ACCESS: precise entry");
+      updateStatistics(entry, hash);
+      return entry;
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private void updateStatistics(@Nullable BAMCacheEntry entry, Key hash) {
+    lastAnalyzedEntry = entry;
+    if (entry == null) {
+      cacheMisses.increment();
+      if (gatherCacheMissStatistics) {
+        findCacheMissCause(hash);
+      }
+    } else if (entry.getExitStates() == null) {
+      // we have cached a partly computed reached-set
+      partialCacheHits.increment();
+    } else {
+      // we have a full cache hit
+      fullCacheHits.increment();
+    }
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    return lastAnalyzedEntry.getRootOfBlock();
+  }
+
+  /**
+   * Check whether a cache miss would have been a hit with another precision or another abstract
+   * state. Iterating over the concurrent map is thread-safe, but may miss entries that are added
+   * concurrently.
+   */
+  private void findCacheMissCause(Key searchKey) {
+    for (Key cacheKey : preciseReachedCache.keySet()) {
+      if (cacheKey.equals(searchKey)) {
+        continue; // added concurrently by another thread
+      }
+
+      // searchKey != cacheKey, check whether it is the same if we ignore the precision
+      Key ignorePrecisionSearchKey =
+          getHashCode(searchKey.stateKey, cacheKey.precisionKey, searchKey.context);
+      if (ignorePrecisionSearchKey.equals(cacheKey)) {
+        precisionCausedMisses.increment();
+        return;
+      }
+
+      // Precision was not the cause. Check abstraction.
+      Key ignoreAbsSearchKey =
+          getHashCode(cacheKey.stateKey, searchKey.precisionKey, searchKey.context);
+      if (ignoreAbsSearchKey.equals(cacheKey)) {
+        abstractionCausedMisses.increment();
+        return;
+      }
+    }
+    noSimilarCausedMisses.increment();
+  }
+
+  @Override
+  public boolean containsPreciseKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    TimerWrapper timer = threadAccessTimer.get();
+    timer.start();
+    try {
+      return preciseReachedCache.containsKey(getHashCode(stateKey, precisionKey, context));
+    } finally {
+      timer.stop();
+    }
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet);
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry = null;
+  }
+
+  private static final class Key {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final int hashCode;
+
+    // not part of equality, only needed to find the cause of cache misses
+    private final AbstractState stateKey;
+    private final Precision precisionKey;
+
+    private Key(
+        Object pWrappedHash, Block pContext, AbstractState pStateKey, Precision pPrecisionKey) {
+      wrappedHash = checkNotNull(pWrappedHash);
+      context = checkNotNull(pContext);
+      stateKey = pStateKey;
+      precisionKey = pPrecisionKey;
+      // the key is used several times in the concurrent map, so we compute the hash only once
+      hashCode = wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) pObj;
+      return hashCode == other.hashCode
+          && context.equals(other.context)
+          && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return "Key [hash=" + hashCode + ", wrappedHash=" + wrappedHash + ", context=" + context + "]";
+    }
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    BAMCacheStatistics.printCacheStatistics(
+        out,
+        getAllCachedReachedStates(),
+        cacheMisses.sum(),
+        partialCacheHits.sum(),
+        fullCacheHits.sum());
+    out.println("Number of created cache entries:                     " + createdEntries.sum());
+    if (gatherCacheMissStatistics) {
+      long misses = cacheMisses.sum();
+      long abstractionMisses = abstractionCausedMisses.sum();
+      long precisionMisses = precisionCausedMisses.sum();
+      long noSimilarMisses = noSimilarCausedMisses.sum();
+      out.println("Cause for cache misses:                              ");
+      out.println("  Number of abstraction caused misses:               " + abstractionMisses + " (" + toPercent(abstractionMisses, misses) + " of all misses)");
+      out.println("  Number of precision caused misses:                 " + precisionMisses + " (" + toPercent(precisionMisses, misses) + " of all misses)");
+      out.println("  Number of misses with no similar elements:         " + noSimilarMisses + " (" + toPercent(noSimilarMisses, misses) + " of all misses)");
+    }
+    out.println(accessTimer.getTitle() + ":                              " + accessTimer + " (count=" + accessTimer.getUpdateCount() + ")");
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+}
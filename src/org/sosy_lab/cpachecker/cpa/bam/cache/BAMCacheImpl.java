@@ -27,26 +27,39 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
 import com.google.common.collect.Collections2;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.Specification;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Reducer;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
-import org.sosy_lab.cpachecker.util.statistics.StatHist;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 @Options(prefix = "cpa.bam")
 public class BAMCacheImpl implements BAMCache {
@@ -55,6 +68,19 @@ public class BAMCacheImpl implements BAMCache {
       + "for each cache miss to find the cause of the miss.")
   private boolean gatherCacheMissStatistics = false;
 
+  @Option(
+      description =
+          "Directory for storing summaries of completely analyzed blocks at the end of the "
+              + "analysis and for loading them in later runs, such that unchanged blocks are "
+              + "not analyzed again. A summary is reused if the code of its block and the type "
+              + "definitions of the program are unchanged and the specification and "
+              + "configuration are the same. Paths through loaded summaries are "
+              + "recomputed on demand, e.g., for refinement. "
+              + "Only analyses with serializable abstract states are supported. "
+              + "Cannot be used with cpa.bam.useCopyOnWriteRefinement.")
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path summaryDirectory = null;
+
   private final Timer hashingTimer = new Timer();
   private final Timer equalsTimer = new Timer();
 
@@ -73,13 +99,29 @@ public class BAMCacheImpl implements BAMCache {
   protected final Reducer reducer;
   protected final LogManager logger;
 
+  private final @Nullable BAMSummaryStore summaryStore;
+  private final @Nullable ReachedSetFactory summaryReachedSetFactory;
+
+  /** reached-sets that were created from a {@link BAMSummaryStore}, compared by identity. */
+  private final Set<ReachedSet> loadedSummaries = Sets.newIdentityHashSet();
+
   public BAMCacheImpl(
       Configuration config,
       Reducer reducer,
-      LogManager logger) throws InvalidConfigurationException {
+      LogManager logger,
+      CFA cfa,
+      Specification specification)
+      throws InvalidConfigurationException {
     config.inject(this, BAMCacheImpl.class);
     this.reducer = reducer;
     this.logger = logger;
+    if (summaryDirectory != null) {
+      summaryStore = new BAMSummaryStore(summaryDirectory, config, cfa, specification, logger);
+      summaryReachedSetFactory = new ReachedSetFactory(config, logger);
+    } else {
+      summaryStore = null;
+      summaryReachedSetFactory = null;
+    }
   }
 
   protected AbstractStateHash getHashCode(AbstractState stateKey, Precision precisionKey, Block context) {
@@ -145,11 +187,79 @@ public class BAMCacheImpl implements BAMCache {
       final Precision precisionKey,
       final Block context,
       AbstractStateHash hash) {
+    if (summaryStore != null && stateKey instanceof ARGState) {
+      BAMCacheEntry entry = loadSummary((ARGState) stateKey, precisionKey, context, hash);
+      if (entry != null) {
+        lastAnalyzedEntry = entry;
+        logger.log(Level.FINEST, "CACHE_ACCESS: entry loaded from summary of previous run");
+        return entry;
+      }
+    }
     lastAnalyzedEntry = null;
     logger.log(Level.FINEST, "CACHE_ACCESS: entry not available");
     return null;
   }
 
+  /**
+   * Build a cache entry from a stored summary. The reached-set contains the initial state and the
+   * exit states as its direct children, but no paths between them.
+   */
+  private @Nullable BAMCacheEntry loadSummary(
+      ARGState stateKey, Precision precisionKey, Block context, AbstractStateHash hash) {
+    List<Pair<AbstractState, Precision>> exitStates =
+        summaryStore.load(context, stateKey, precisionKey);
+    if (exitStates == null) {
+      return null;
+    }
+    ReachedSet reached = summaryReachedSetFactory.create();
+    reached.add(stateKey, precisionKey);
+    reached.removeOnlyFromWaitlist(stateKey);
+    Set<AbstractState> exits = Sets.newLinkedHashSetWithExpectedSize(exitStates.size());
+    for (Pair<AbstractState, Precision> exit : exitStates) {
+      ARGState exitState = new ARGState(exit.getFirst(), stateKey);
+      reached.add(exitState, exit.getSecond());
+      reached.removeOnlyFromWaitlist(exitState);
+      exits.add(exitState);
+    }
+    BAMCacheEntry entry = new BAMCacheEntry(reached);
+    entry.setExitStates(exits);
+    preciseReachedCache.put(hash, entry);
+    loadedSummaries.add(reached);
+    return entry;
+  }
+
+  @Override
+  public boolean isLoadedSummary(ReachedSet rs) {
+    return loadedSummaries.contains(rs);
+  }
+
+  /** Store all summaries of completely analyzed blocks for later runs. */
+  @Override
+  public void writeOutputFiles(Result pResult, UnmodifiableReachedSet pReached) {
+    if (summaryStore == null) {
+      return;
+    }
+    for (Entry<AbstractStateHash, BAMCacheEntry> cacheEntry : preciseReachedCache.entrySet()) {
+      AbstractStateHash key = cacheEntry.getKey();
+      BAMCacheEntry entry = cacheEntry.getValue();
+      ReachedSet reached = entry.getReachedSet();
+      if (entry.getExitStates() != null
+          && key.stateKey instanceof ARGState
+          && !reached.hasWaitingState()
+          && !loadedSummaries.contains(reached)
+          && !Iterables.any(reached, AbstractStates::isTargetState)) {
+        summaryStore.store(
+            key.context, (ARGState) key.stateKey, key.precisionKey, reached, entry.getExitStates());
+      }
+    }
+    summaryStore.flush();
+  }
+
+  /** Whether summaries of previous analysis runs are used. */
+  public boolean usesSummaries() {
+    return summaryStore != null;
+  }
+
   @Override
   @Deprecated
   public ARGState getLastAnalyzedBlock() {
@@ -193,7 +303,7 @@ public class BAMCacheImpl implements BAMCache {
   class AbstractStateHash {
 
     private final Object wrappedHash;
-    private final Block context;
+    final Block context;
     final AbstractState stateKey;
     final Precision precisionKey;
 
@@ -241,26 +351,8 @@ public class BAMCacheImpl implements BAMCache {
 
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
-
-    int sumCalls = cacheMisses + partialCacheHits + fullCacheHits;
-
-    StatHist argStats = new StatHist("") {
-          @Override
-          public String toString() {
-            // overriding, because printing all sizes is not that interesting
-            return String.format("%.0f (#=%d, avg=%.2f, dev=%.2f, min=%d, max=%d)",
-                getSum(), getUpdateCount(), getAvg(), getStdDeviation(), getMin(), getMax());
-          }
-        };
-    for (UnmodifiableReachedSet subreached : getAllCachedReachedStates()) {
-      argStats.insertValue(subreached.size());
-    }
-
-    out.println("Total size of all ARGs:                              " + argStats);
-    out.println("Total number of recursive CPA calls:                 " + sumCalls);
-    out.println("  Number of cache misses:                            " + cacheMisses + " (" + toPercent(cacheMisses, sumCalls) + " of all calls)");
-    out.println("  Number of partial cache hits:                      " + partialCacheHits + " (" + toPercent(partialCacheHits, sumCalls) + " of all calls)");
-    out.println("  Number of full cache hits:                         " + fullCacheHits + " (" + toPercent(fullCacheHits, sumCalls) + " of all calls)");
+    BAMCacheStatistics.printCacheStatistics(
+        out, getAllCachedReachedStates(), cacheMisses, partialCacheHits, fullCacheHits);
     if (gatherCacheMissStatistics) {
       out.println("Cause for cache misses:                              ");
       out.println("  Number of abstraction caused misses:               " + abstractionCausedMisses + " (" + toPercent(abstractionCausedMisses, cacheMisses) + " of all misses)");
@@ -269,6 +361,12 @@ public class BAMCacheImpl implements BAMCache {
     }
     out.println("Time for checking equality of abstract states:       " + equalsTimer + " (Calls: " + equalsTimer.getNumberOfIntervals() + ")");
     out.println("Time for computing the hashCode of abstract states:  " + hashingTimer + " (Calls: " + hashingTimer.getNumberOfIntervals() + ")");
+    if (summaryStore != null) {
+      StatisticsWriter.writingStatisticsTo(out)
+          .put(summaryStore.loadedSummaries)
+          .put(summaryStore.storedSummaries)
+          .putIfUpdatedAtLeastOnce(summaryStore.unserializableSummaries);
+    }
   }
 
   @Override
@@ -279,6 +377,7 @@ public class BAMCacheImpl implements BAMCache {
   @Override
   public void clear() {
     preciseReachedCache.clear();
+    loadedSummaries.clear();
     lastAnalyzedEntry = null;
   }
 }
@@ -0,0 +1,64 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
+import java.io.PrintStream;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.util.statistics.StatHist;
+
+/** Statistics that are common for all implementations of {@link BAMCache}. */
+final class BAMCacheStatistics {
+
+  private BAMCacheStatistics() {}
+
+  /** Print the sizes of the cached reached-sets and the number of cache hits and misses. */
+  static void printCacheStatistics(
+      PrintStream out,
+      Iterable<? extends UnmodifiableReachedSet> pCachedReachedSets,
+      long pCacheMisses,
+      long pPartialCacheHits,
+      long pFullCacheHits) {
+    long sumCalls = pCacheMisses + pPartialCacheHits + pFullCacheHits;
+
+    StatHist argStats = new StatHist("") {
+          @Override
+          public String toString() {
+            // overriding, because printing all sizes is not that interesting
+            return String.format("%.0f (#=%d, avg=%.2f, dev=%.2f, min=%d, max=%d)",
+                getSum(), getUpdateCount(), getAvg(), getStdDeviation(), getMin(), getMax());
+          }
+        };
+    for (UnmodifiableReachedSet subreached : pCachedReachedSets) {
+      argStats.insertValue(subreached.size());
+    }
+
+    out.println("Total size of all ARGs:                              " + argStats);
+    out.println("Total number of recursive CPA calls:                 " + sumCalls);
+    out.println("  Number of cache misses:                            " + pCacheMisses + " (" + toPercent(pCacheMisses, sumCalls) + " of all calls)");
+    out.println("  Number of partial cache hits:                      " + pPartialCacheHits + " (" + toPercent(pPartialCacheHits, sumCalls) + " of all calls)");
+    out.println("  Number of full cache hits:                         " + pFullCacheHits + " (" + toPercent(pFullCacheHits, sumCalls) + " of all calls)");
+  }
+}
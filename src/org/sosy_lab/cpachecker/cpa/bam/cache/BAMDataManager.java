@@ -50,6 +50,14 @@ public interface BAMDataManager {
   BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context);
 
+  /**
+   * Return the cache entry for the given block entry. If there is none, create a new reached-set
+   * with the given state as root and register it in the cache. Concurrent calls with the same key
+   * return the same entry.
+   */
+  BAMCacheEntry getOrCreateAndRegisterNewReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context);
+
   ReachedSetFactory getReachedSetFactory();
 
   /**
@@ -137,9 +137,24 @@ public class BAMDataManagerImpl implements BAMDataManager {
   @Override
   public BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context) {
+    return bamCache.put(
+        initialState, initialPrecision, context, createReachedSet(initialState, initialPrecision));
+  }
+
+  @Override
+  public BAMCacheEntry getOrCreateAndRegisterNewReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    return bamCache.getOrPut(
+        initialState,
+        initialPrecision,
+        context,
+        () -> createReachedSet(initialState, initialPrecision));
+  }
+
+  private ReachedSet createReachedSet(AbstractState initialState, Precision initialPrecision) {
     final ReachedSet reached = reachedSetFactory.create();
     reached.add(initialState, initialPrecision);
-    return bamCache.put(initialState, initialPrecision, context, reached);
+    return reached;
   }
 
   @Override
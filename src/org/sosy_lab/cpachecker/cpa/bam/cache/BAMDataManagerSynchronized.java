@@ -60,11 +60,18 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
     }
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateAndRegisterNewReachedSet(
+      AbstractState pInitialState, Precision pInitialPrecision, Block pContext) {
+    // no lock needed, the cache itself is thread-safe
+    return manager.getOrCreateAndRegisterNewReachedSet(
+        pInitialState, pInitialPrecision, pContext);
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
-    synchronized (this) {
-      return manager.getReachedSetFactory();
-    }
+    // no lock needed, the factory never changes
+    return manager.getReachedSetFactory();
   }
 
   @Override
@@ -151,9 +158,8 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
 
   @Override
   public BAMCache getCache() {
-    synchronized (this) {
-      return manager.getCache();
-    }
+    // no lock needed, the cache never changes and is thread-safe
+    return manager.getCache();
   }
 
   @Override
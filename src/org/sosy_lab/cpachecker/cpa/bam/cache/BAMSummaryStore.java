@@ -0,0 +1,386 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.Specification;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.automaton.Automaton;
+import org.sosy_lab.cpachecker.util.CFAUtils;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+
+/**
+ * A store for block summaries on disk, which allows to reuse the summaries of blocks in later
+ * analysis runs, even if the program was modified outside of the block.
+ *
+ * <p>All summaries depend on a global hash over the CPAchecker version, the specification
+ * automata, and all configuration options. Each summary is additionally keyed by a hash over the
+ * content of its block, i.e., the code of all CFA edges of the block (including the functions
+ * called from the block) and the type definitions of the program, and by its reduced initial state
+ * and precision. The content hash of a block does not depend on node numbers or line numbers,
+ * such that modifications of other functions do not invalidate the summaries of a block. All
+ * summaries with the same key are stored in one file. A summary consists of the reduced initial
+ * state, its precision, and the exit states together with their precisions. Only the states
+ * wrapped by {@link ARGState} are stored, the ARG itself is not stored.
+ *
+ * <p>The key for the initial state and precision is computed from their string representation,
+ * which is not guaranteed to be deterministic. Thus a stored summary is only used for a block
+ * entry if its initial state and precision are also equal to the ones of the block entry, and a
+ * differing string representation only causes a cache miss. Summaries with non-serializable states
+ * are silently ignored.
+ */
+class BAMSummaryStore {
+
+  private static final String SUFFIX = ".summaries";
+
+  private final Path directory;
+  private final LogManager logger;
+
+  /** Hash over the CPAchecker version, the specification, and the configuration. */
+  private final HashCode globalHash;
+
+  /** Hash over all type definitions of the program, which the code of each block depends on. */
+  private final HashCode typesHash;
+
+  /** Content hashes of all blocks that were accessed. */
+  private final Map<Block, HashCode> blockHashes = new HashMap<>();
+
+  /** Summaries of all keys that were accessed, loaded lazily from disk. */
+  private final Map<HashCode, List<Summary>> summaries = new HashMap<>();
+
+  /** Keys with new summaries that need to be written. */
+  private final Set<HashCode> modifiedKeys = new LinkedHashSet<>();
+
+  final StatCounter loadedSummaries = new StatCounter("Number of loaded block summaries");
+  final StatCounter storedSummaries = new StatCounter("Number of stored block summaries");
+  final StatCounter unserializableSummaries =
+      new StatCounter("Number of block summaries that could not be stored");
+
+  BAMSummaryStore(
+      Path pDirectory,
+      Configuration pConfig,
+      CFA pCfa,
+      Specification pSpecification,
+      LogManager pLogger) {
+    directory = pDirectory;
+    logger = pLogger;
+    globalHash = hashAnalysis(pConfig, pSpecification);
+    typesHash = hashTypes(pCfa);
+  }
+
+  private static HashCode hashAnalysis(Configuration pConfig, Specification pSpecification) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(CPAchecker.getPlainVersion(), UTF_8).putChar('\n');
+
+    // the effective configuration, independent of the order in which options were set
+    List<String> options = new ArrayList<>();
+    Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString()).forEach(options::add);
+    options.sort(null);
+    for (String option : options) {
+      hasher.putString(option, UTF_8).putChar('\n');
+    }
+
+    // the specification automata as they were parsed, independent of their files
+    for (Automaton automaton : pSpecification.getPathToSpecificationAutomata().values()) {
+      hasher.putString(automaton.toString(), UTF_8).putChar('\n');
+    }
+    return hasher.hash();
+  }
+
+  private static HashCode hashTypes(CFA pCfa) {
+    // the edges of a block refer to types only by name, so their definitions need to be hashed
+    List<String> types = new ArrayList<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CFAEdge edge : CFAUtils.leavingEdges(node)) {
+        if (edge instanceof CDeclarationEdge
+            && ((CDeclarationEdge) edge).getDeclaration() instanceof CTypeDeclaration) {
+          types.add(((CDeclarationEdge) edge).getDeclaration().toASTString());
+        }
+      }
+    }
+    types.sort(null);
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    for (String type : types) {
+      hasher.putString(type, UTF_8).putChar('\n');
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Hash the content of a block. The nodes are numbered in the order in which they are reached
+   * from the call nodes of the block, and the edges are visited in the order of their indices,
+   * such that the hash does not depend on the global node numbering of the CFA.
+   */
+  private HashCode hashBlock(Block pBlock) {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBytes(typesHash.asBytes());
+
+    Set<CFANode> blockNodes = pBlock.getNodes();
+    Map<CFANode, Integer> localNumbers = new HashMap<>();
+    Deque<CFANode> waitlist = new ArrayDeque<>();
+    for (CFANode callNode : pBlock.getCallNodes()) {
+      if (localNumbers.putIfAbsent(callNode, localNumbers.size()) == null) {
+        waitlist.add(callNode);
+      }
+    }
+
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.poll();
+      hasher.putInt(localNumbers.get(node)).putBoolean(pBlock.isReturnNode(node));
+      for (CFAEdge edge : CFAUtils.allLeavingEdges(node)) {
+        hasher.putString(edge.getEdgeType().name(), UTF_8).putChar('\n');
+        hasher.putString(edge.getCode(), UTF_8).putChar('\n');
+
+        CFANode successor = edge.getSuccessor();
+        if (!blockNodes.contains(successor)) {
+          hasher.putInt(-1);
+          continue;
+        }
+        if (localNumbers.putIfAbsent(successor, localNumbers.size()) == null) {
+          waitlist.add(successor);
+        }
+        hasher.putInt(localNumbers.get(successor));
+      }
+    }
+    return hasher.hash();
+  }
+
+  private HashCode getKey(Block pBlock, AbstractState pState, Precision pPrecision) {
+    HashCode blockHash = blockHashes.computeIfAbsent(pBlock, this::hashBlock);
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putBytes(globalHash.asBytes());
+    hasher.putBytes(blockHash.asBytes());
+    hasher.putString(pState.toString(), UTF_8).putChar('\n');
+    hasher.putString(pPrecision.toString(), UTF_8);
+    return hasher.hash();
+  }
+
+  /**
+   * Load the exit states of the summary for the given block entry.
+   *
+   * @return the wrapped exit states and their precisions, or null if there is no usable summary.
+   */
+  @Nullable List<Pair<AbstractState, Precision>> load(
+      Block pBlock, ARGState pReducedState, Precision pReducedPrecision) {
+    AbstractState state = pReducedState.getWrappedState();
+    HashCode key = getKey(pBlock, state, pReducedPrecision);
+    Summary summary = findSummary(getSummaries(key), state, pReducedPrecision);
+    if (summary == null) {
+      return null;
+    }
+    loadedSummaries.inc();
+    return summary.exitStates;
+  }
+
+  /**
+   * Remember the exit states of the given reached-set as summary for the given block entry. The
+   * summaries are written to disk by {@link #flush()}.
+   */
+  void store(
+      Block pBlock,
+      ARGState pReducedState,
+      Precision pReducedPrecision,
+      ReachedSet pReached,
+      Collection<AbstractState> pExitStates) {
+    AbstractState state = pReducedState.getWrappedState();
+    HashCode key = getKey(pBlock, state, pReducedPrecision);
+    List<Summary> keySummaries = getSummaries(key);
+    if (findSummary(keySummaries, state, pReducedPrecision) != null) {
+      return;
+    }
+
+    List<Pair<AbstractState, Precision>> exitStates = new ArrayList<>(pExitStates.size());
+    for (AbstractState exitState : pExitStates) {
+      exitStates.add(
+          Pair.of(((ARGState) exitState).getWrappedState(), pReached.getPrecision(exitState)));
+    }
+    Summary summary = new Summary(state, pReducedPrecision, exitStates);
+
+    // check early, otherwise a single summary would prevent writing all summaries of the key
+    try (ObjectOutputStream out = new ObjectOutputStream(ByteStreams.nullOutputStream())) {
+      summary.writeTo(out);
+    } catch (IOException e) {
+      // typically a NotSerializableException
+      logger.logDebugException(e, "Could not serialize block summary");
+      unserializableSummaries.inc();
+      return;
+    }
+
+    keySummaries.add(summary);
+    modifiedKeys.add(key);
+    storedSummaries.inc();
+  }
+
+  /** Write all new summaries to disk. */
+  void flush() {
+    for (HashCode key : modifiedKeys) {
+      Path file = getFile(key);
+      try {
+        Files.createDirectories(directory);
+        // write into a temporary file first, such that concurrent runs never see partial files
+        Path tmpFile = Files.createTempFile(directory, "tmp", SUFFIX);
+        try {
+          try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmpFile));
+              ObjectOutputStream out = new ObjectOutputStream(os)) {
+            List<Summary> keySummaries = summaries.get(key);
+            out.writeInt(keySummaries.size());
+            for (Summary summary : keySummaries) {
+              summary.writeTo(out);
+            }
+          }
+          try {
+            Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+          } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+          }
+        } finally {
+          Files.deleteIfExists(tmpFile);
+        }
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write block summaries");
+      }
+    }
+    modifiedKeys.clear();
+  }
+
+  private static @Nullable Summary findSummary(
+      List<Summary> pSummaries, AbstractState pState, Precision pPrecision) {
+    for (Summary summary : pSummaries) {
+      if (summary.state.equals(pState) && summary.precision.equals(pPrecision)) {
+        return summary;
+      }
+    }
+    return null;
+  }
+
+  private List<Summary> getSummaries(HashCode pKey) {
+    return summaries.computeIfAbsent(pKey, this::readSummaries);
+  }
+
+  private List<Summary> readSummaries(HashCode pKey) {
+    List<Summary> result = new ArrayList<>();
+    Path file = getFile(pKey);
+    if (!Files.isRegularFile(file)) {
+      return result;
+    }
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+        ObjectInputStream objectIn = new ObjectInputStream(in)) {
+      int size = objectIn.readInt();
+      for (int i = 0; i < size; i++) {
+        result.add(Summary.readFrom(objectIn));
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.logDebugException(e, "Could not load block summaries from " + file);
+      result.clear();
+    }
+    return result;
+  }
+
+  private Path getFile(HashCode pKey) {
+    return directory.resolve(pKey + SUFFIX);
+  }
+
+  private static final class Summary {
+
+    private final AbstractState state;
+    private final Precision precision;
+    private final ImmutableList<Pair<AbstractState, Precision>> exitStates;
+
+    private Summary(
+        AbstractState pState,
+        Precision pPrecision,
+        List<Pair<AbstractState, Precision>> pExitStates) {
+      state = pState;
+      precision = pPrecision;
+      exitStates = ImmutableList.copyOf(pExitStates);
+    }
+
+    private void writeTo(ObjectOutputStream out) throws IOException {
+      out.writeObject(state);
+      out.writeObject(precision);
+      out.writeInt(exitStates.size());
+      for (Pair<AbstractState, Precision> exitState : exitStates) {
+        out.writeObject(exitState.getFirst());
+        out.writeObject(exitState.getSecond());
+      }
+    }
+
+    private static Summary readFrom(ObjectInputStream in)
+        throws IOException, ClassNotFoundException {
+      AbstractState state = (AbstractState) in.readObject();
+      Precision precision = (Precision) in.readObject();
+      int size = in.readInt();
+      List<Pair<AbstractState, Precision>> exitStates = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        AbstractState exitState = (AbstractState) in.readObject();
+        Precision exitPrecision = (Precision) in.readObject();
+        exitStates.add(Pair.of(exitState, exitPrecision));
+      }
+      return new Summary(state, precision, exitStates);
+    }
+  }
+}
@@ -37,18 +37,21 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractWrapperState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
 import org.sosy_lab.cpachecker.core.interfaces.Targetable;
 import org.sosy_lab.cpachecker.cpa.arg.Splitable;
+import org.sosy_lab.cpachecker.util.Pair;
 
 public class CompositeState
-    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable, Serializable,
-        Graphable, Splitable {
+    implements AbstractWrapperState, Targetable, Partitionable, PseudoPartitionable,
+        CoverageIndexable, Serializable, Graphable, Splitable {
   private static final long serialVersionUID = -5143296331663510680L;
   private final ImmutableList<AbstractState> states;
   private transient Object partitionKey; // lazily initialized
@@ -200,6 +203,28 @@ public class CompositeState
     return pseudoHashCode;
   }
 
+  @Override
+  public @Nullable Collection<?> getCoverageFeatures() {
+    List<Object> features = null;
+    int i = 0;
+    for (AbstractState element : states) {
+      if (element instanceof CoverageIndexable) {
+        Collection<?> elementFeatures = ((CoverageIndexable) element).getCoverageFeatures();
+        if (elementFeatures != null) {
+          if (features == null) {
+            features = new ArrayList<>();
+          }
+          // tag the features with the index of the component to keep them apart
+          for (Object feature : elementFeatures) {
+            features.add(Pair.of(i, feature));
+          }
+        }
+      }
+      i++;
+    }
+    return features;
+  }
+
   private static final class CompositePartitionKey implements Serializable {
 
     private static final long serialVersionUID = 1L;
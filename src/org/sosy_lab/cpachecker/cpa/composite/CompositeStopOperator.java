@@ -35,6 +35,7 @@ import org.sosy_lab.cpachecker.core.interfaces.ForcedCoveringStopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker;
+import org.sosy_lab.cpachecker.core.reachedset.CoverageIndex;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 
 class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator {
@@ -50,7 +51,7 @@ class CompositeStopOperator implements StopOperator, ForcedCoveringStopOperator
     CompositeState compositeState = (CompositeState) element;
     CompositePrecision compositePrecision = (CompositePrecision) precision;
 
-    for (AbstractState e : reached) {
+    for (AbstractState e : CoverageIndex.getCoverageCandidates(element, reached)) {
       if (stop(compositeState, (CompositeState)e, compositePrecision)) {
         return true;
       }
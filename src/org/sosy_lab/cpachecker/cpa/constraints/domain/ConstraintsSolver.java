@@ -26,18 +26,19 @@ package org.sosy_lab.cpachecker.cpa.constraints.domain;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -113,6 +114,9 @@ public class ConstraintsSolver {
   /** Table of id constraints set, id identifier assignment, formula * */
   private Map<Constraint, BooleanFormula> constraintFormulas = new HashMap<>();
 
+  /** Symbolic identifiers occurring in each constraint, used for computing independent sets. */
+  private Map<Constraint, Set<SymbolicIdentifier>> constraintIdentifiers = new HashMap<>();
+
   private BooleanFormula literalForModel;
   private BooleanFormula literalForSingleAssignment;
 
@@ -290,22 +294,29 @@ public class ConstraintsSolver {
         // not be automatically included in the iteration over dependent sets below.
         relevantConstraints.add(lastConstraint);
 
-        Set<Constraint> leftOverConstraints = new HashSet<>(pConstraints);
-        Set<SymbolicIdentifier> newRelevantIdentifiers = lastConstraint.accept(locator);
-        Set<SymbolicIdentifier> relevantIdentifiers;
-        do {
-          relevantIdentifiers = newRelevantIdentifiers;
-          Iterator<Constraint> it = leftOverConstraints.iterator();
-          while (it.hasNext()) {
-            Constraint currentC = it.next();
-            Set<SymbolicIdentifier> containedIdentifiers = currentC.accept(locator);
-            if (!Sets.intersection(containedIdentifiers, relevantIdentifiers).isEmpty()) {
-              newRelevantIdentifiers = Sets.union(newRelevantIdentifiers, containedIdentifiers);
-              relevantConstraints.add(currentC);
-              it.remove();
+        Multimap<SymbolicIdentifier, Constraint> constraintsOfIdentifier =
+            ArrayListMultimap.create();
+        for (Constraint c : pConstraints) {
+          for (SymbolicIdentifier id : getIdentifiers(c)) {
+            constraintsOfIdentifier.put(id, c);
+          }
+        }
+
+        // Collect the constraints that are transitively connected to the last added constraint
+        // via shared identifiers. Each identifier is visited only once.
+        Set<SymbolicIdentifier> relevantIdentifiers = new HashSet<>(getIdentifiers(lastConstraint));
+        Deque<SymbolicIdentifier> waitlist = new ArrayDeque<>(relevantIdentifiers);
+        while (!waitlist.isEmpty()) {
+          for (Constraint currentC : constraintsOfIdentifier.get(waitlist.pop())) {
+            if (relevantConstraints.add(currentC)) {
+              for (SymbolicIdentifier id : getIdentifiers(currentC)) {
+                if (relevantIdentifiers.add(id)) {
+                  waitlist.push(id);
+                }
+              }
             }
           }
-        } while (!newRelevantIdentifiers.equals(relevantIdentifiers));
+        }
 
       } finally {
         stats.timeForIndependentComputation.stop();
@@ -318,6 +329,10 @@ public class ConstraintsSolver {
     return relevantConstraints;
   }
 
+  private Set<SymbolicIdentifier> getIdentifiers(Constraint pConstraint) {
+    return constraintIdentifiers.computeIfAbsent(pConstraint, c -> c.accept(locator));
+  }
+
   private void closeProver() {
     if (prover != null) {
       prover.close();
@@ -418,38 +433,41 @@ public class ConstraintsSolver {
 
   private class MatchingConstraintsCache implements ConstraintsCache {
 
-    private Map<Collection<BooleanFormula>, CacheResult> cacheMap = new HashMap<>();
+    /** Results by set of constraints, such that the order of the constraints does not matter. */
+    private Map<Set<BooleanFormula>, CacheResult> cacheMap = new HashMap<>();
 
     @Override
     public CacheResult getCachedResult(Collection<BooleanFormula> pConstraints) {
       stats.cacheLookups.inc();
       stats.directCacheLookupTime.start();
       try {
-        if (cacheMap.containsKey(pConstraints)) {
+        CacheResult res = get(ImmutableSet.copyOf(pConstraints));
+        if (res.isSat() || res.isUnsat()) {
           stats.directCacheHits.inc();
-          return cacheMap.get(pConstraints);
-
-        } else {
-          return CacheResult.getUnknown();
         }
+        return res;
       } finally {
         stats.directCacheLookupTime.stop();
       }
     }
 
+    private CacheResult get(Set<BooleanFormula> pConstraints) {
+      return cacheMap.getOrDefault(pConstraints, CacheResult.getUnknown());
+    }
+
     @Override
     public void addSat(
         Collection<BooleanFormula> pConstraints,
         ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints, CacheResult.getSat(pModelAssignment));
+      add(ImmutableSet.copyOf(pConstraints), CacheResult.getSat(pModelAssignment));
     }
 
     @Override
     public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints, CacheResult.getUnsat());
+      add(ImmutableSet.copyOf(pConstraints), CacheResult.getUnsat());
     }
 
-    private void add(Collection<BooleanFormula> pConstraints, CacheResult pResult) {
+    private void add(Set<BooleanFormula> pConstraints, CacheResult pResult) {
       cacheMap.put(pConstraints, pResult);
     }
   }
@@ -458,10 +476,14 @@ public class ConstraintsSolver {
 
     private MatchingConstraintsCache delegate;
 
+    /** Multimap that maps each constraint to all satisfiable sets of constraints it occurred in */
+    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedInSat =
+        HashMultimap.create();
+
     /**
-     * Multimap that maps each constraint to all sets of constraints that it occurred in
+     * Multimap that maps each constraint to all unsatisfiable sets of constraints it occurred in
      */
-    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedIn =
+    private Multimap<BooleanFormula, Set<BooleanFormula>> constraintContainedInUnsat =
         HashMultimap.create();
 
     public SubsetConstraintsCache() {
@@ -471,67 +493,73 @@ public class ConstraintsSolver {
     @Override
     public CacheResult getCachedResult(Collection<BooleanFormula> pConstraints) {
       CacheResult res = delegate.getCachedResult(pConstraints);
-        if (!res.isSat() && !res.isUnsat()) {
+      if (!res.isSat() && !res.isUnsat()) {
         try {
           stats.subsetLookupTime.start();
-          res = getCachedResultOfSubset(pConstraints);
+          res = getCachedResultOfSubset(ImmutableSet.copyOf(pConstraints));
           if (res.isSat() || res.isUnsat()) {
             stats.subsetCacheHits.inc();
           }
         } finally {
           stats.subsetLookupTime.stop();
-          }
         }
+      }
       return res;
     }
 
     @Override
     public void addSat(
         Collection<BooleanFormula> pConstraints, ImmutableList<ValueAssignment> pModelAssignment) {
-      add(pConstraints);
+      add(constraintContainedInSat, pConstraints);
       delegate.addSat(pConstraints, pModelAssignment);
     }
 
     @Override
     public void addUnsat(Collection<BooleanFormula> pConstraints) {
-      add(pConstraints);
+      add(constraintContainedInUnsat, pConstraints);
       delegate.addUnsat(pConstraints);
     }
 
-    private void add(Collection<BooleanFormula> pConstraints) {
-      for (BooleanFormula c : pConstraints) {
-        constraintContainedIn.put(c, ImmutableSet.copyOf(pConstraints));
+    private void add(
+        Multimap<BooleanFormula, Set<BooleanFormula>> pIndex,
+        Collection<BooleanFormula> pConstraints) {
+      Set<BooleanFormula> constraints = ImmutableSet.copyOf(pConstraints);
+      for (BooleanFormula c : constraints) {
+        pIndex.put(c, constraints);
       }
     }
 
-    CacheResult getCachedResultOfSubset(Collection<BooleanFormula> pConstraints) {
+    CacheResult getCachedResultOfSubset(Set<BooleanFormula> pConstraints) {
       checkState(!pConstraints.isEmpty());
 
-      Set<Set<BooleanFormula>> containAllConstraints = null;
+      // A satisfiable superset of the query contains each queried constraint,
+      // so it suffices to look at the sets of the rarest constraint.
+      // Its model is also a model of the query.
+      Collection<Set<BooleanFormula>> candidates = null;
       for (BooleanFormula c : pConstraints) {
-        Set<Set<BooleanFormula>> containC = ImmutableSet.copyOf(constraintContainedIn.get(c));
-        if (containAllConstraints == null) {
-          containAllConstraints = containC;
-        } else {
-          containAllConstraints = Sets.intersection(containAllConstraints, containC);
-        }
-
-        if (containAllConstraints.isEmpty()) {
-          return CacheResult.getUnknown();
+        Collection<Set<BooleanFormula>> containC = constraintContainedInSat.get(c);
+        if (candidates == null || containC.size() < candidates.size()) {
+          candidates = containC;
         }
       }
-
-      checkNotNull(containAllConstraints);
+      checkNotNull(candidates);
       int sizeOfQuery = pConstraints.size();
-      for (Set<BooleanFormula> col : containAllConstraints) {
-        CacheResult cachedResult = delegate.getCachedResult(col);
-        if (sizeOfQuery <= col.size() && cachedResult.isSat()) {
-          // currently considered collection is a superset of the queried collection
+      for (Set<BooleanFormula> col : candidates) {
+        if (sizeOfQuery <= col.size() && col.containsAll(pConstraints)) {
+          CacheResult cachedResult = delegate.get(col);
+          checkState(cachedResult.isSat());
           return cachedResult;
+        }
+      }
 
-        } else if (sizeOfQuery >= col.size() && cachedResult.isUnsat()) {
-          // currently considered collection is a subset of the queried collection
-          return cachedResult;
+      // An unsatisfiable subset of the query makes the query unsatisfiable.
+      // A cached set is a subset if all of its constraints are hit while iterating over the query.
+      Map<Set<BooleanFormula>, Integer> hitConstraints = new HashMap<>();
+      for (BooleanFormula c : pConstraints) {
+        for (Set<BooleanFormula> col : constraintContainedInUnsat.get(c)) {
+          if (hitConstraints.merge(col, 1, Integer::sum) == col.size()) {
+            return CacheResult.getUnsat();
+          }
         }
       }
       return CacheResult.getUnknown();
@@ -121,7 +121,7 @@ import org.sosy_lab.java_smt.api.SolverException;
 import org.sosy_lab.java_smt.basicimpl.AbstractFormulaManager;
 
 @Options(prefix = "cpa.dca.refiner")
-public class DCARefiner implements Refiner, StatisticsProvider {
+public class DCARefiner implements Refiner, StatisticsProvider, AutoCloseable {
 
   private static final Solvers SMTINTERPOL = Solvers.SMTINTERPOL;
 
@@ -312,6 +312,12 @@ public class DCARefiner implements Refiner, StatisticsProvider {
     return predicateAbstractionManager;
   }
 
+  @Override
+  public void close() {
+    predicateAbstractionManager.close();
+    solver.close();
+  }
+
   private boolean performRefinement0(final ReachedSet pReached)
       throws InterruptedException, CPAException {
     reached = pReached;
@@ -0,0 +1,190 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Computes the truth values of predicates for Cartesian abstraction concurrently.
+ *
+ * <p>Solver contexts are not thread-safe, so each worker has its own solver instance. The
+ * formulas are translated into the worker solvers sequentially before the checks are started,
+ * and the predicates are distributed round-robin among the workers. The results are returned in
+ * the order of the given predicates, such that the resulting abstraction does not depend on the
+ * scheduling of the workers.
+ */
+class ParallelCartesianAbstraction implements AutoCloseable {
+
+  /** Value of a predicate that is implied by the formula. */
+  static final byte TRUE = 1;
+
+  /** Value of a predicate whose negation is implied by the formula. */
+  static final byte FALSE = -1;
+
+  /** Value of a predicate whose truth value is not determined by the formula. */
+  static final byte UNKNOWN = 0;
+
+  private final FormulaManagerView fmgr;
+  private final ShutdownNotifier shutdownNotifier;
+  private final ImmutableList<Solver> workerSolvers;
+  private final ExecutorService executor;
+
+  ParallelCartesianAbstraction(
+      int pThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    fmgr = pFmgr;
+    shutdownNotifier = pShutdownNotifier;
+
+    ImmutableList.Builder<Solver> solvers = ImmutableList.builder();
+    try {
+      for (int i = 0; i < pThreads; i++) {
+        solvers.add(Solver.create(pConfig, pLogger, pShutdownNotifier));
+      }
+    } catch (InvalidConfigurationException | RuntimeException e) {
+      solvers.build().forEach(Solver::close);
+      throw e;
+    }
+    workerSolvers = solvers.build();
+
+    executor =
+        Executors.newFixedThreadPool(
+            pThreads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true) // do not block termination of CPAchecker
+                .setNameFormat("PredicateAbstraction-cartesian-%d")
+                .build());
+  }
+
+  /**
+   * Compute the truth values of the given predicates under the given formula, which needs to be
+   * satisfiable.
+   *
+   * @param f The formula to abstract, belonging to the main solver.
+   * @param predicates The instantiated predicates, belonging to the main solver.
+   * @return For each predicate at the same index one of {@link #TRUE}, {@link #FALSE}, or {@link
+   *     #UNKNOWN}.
+   */
+  byte[] computePredicateValues(BooleanFormula f, List<BooleanFormula> predicates)
+      throws SolverException, InterruptedException {
+    final int workers = Math.min(workerSolvers.size(), predicates.size());
+
+    List<Future<byte[]>> futures = new ArrayList<>(workers);
+    for (int w = 0; w < workers; w++) {
+      // translation reads from the main solver, thus it must not happen concurrently
+      Solver solver = workerSolvers.get(w);
+      FormulaManagerView workerFmgr = solver.getFormulaManager();
+      BooleanFormula workerFormula = workerFmgr.translateFrom(f, fmgr);
+      List<BooleanFormula> workerPredicates = new ArrayList<>();
+      for (int i = w; i < predicates.size(); i += workers) {
+        workerPredicates.add(workerFmgr.translateFrom(predicates.get(i), fmgr));
+      }
+      futures.add(
+          executor.submit(() -> checkPredicates(solver, workerFormula, workerPredicates)));
+    }
+
+    // Always wait for all tasks, even if one of them fails or we get interrupted,
+    // such that no worker is using its solver anymore when we return.
+    byte[] result = new byte[predicates.size()];
+    Throwable failure = null;
+    for (int w = 0; w < workers; w++) {
+      try {
+        byte[] workerResult = Uninterruptibles.getUninterruptibly(futures.get(w));
+        for (int j = 0; j < workerResult.length; j++) {
+          result[w + j * workers] = workerResult[j];
+        }
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("cartesian abstraction", failure);
+    }
+    shutdownNotifier.shutdownIfNecessary();
+    return result;
+  }
+
+  private static byte[] checkPredicates(
+      Solver solver, BooleanFormula f, List<BooleanFormula> predicates)
+      throws SolverException, InterruptedException {
+    BooleanFormulaManagerView bfmgr = solver.getFormulaManager().getBooleanFormulaManager();
+    byte[] result = new byte[predicates.size()];
+
+    try (ProverEnvironment thmProver = solver.newProverEnvironment()) {
+      thmProver.push(f);
+
+      for (int i = 0; i < predicates.size(); i++) {
+        BooleanFormula predTrue = predicates.get(i);
+
+        thmProver.push(bfmgr.not(predTrue));
+        boolean isTrue = thmProver.isUnsat();
+        thmProver.pop();
+
+        if (isTrue) {
+          result[i] = TRUE;
+        } else {
+          thmProver.push(predTrue);
+          boolean isFalse = thmProver.isUnsat();
+          thmProver.pop();
+
+          result[i] = isFalse ? FALSE : UNKNOWN;
+        }
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    workerSolvers.forEach(Solver::close);
+  }
+}
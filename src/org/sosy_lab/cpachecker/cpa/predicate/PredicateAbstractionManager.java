@@ -29,9 +29,12 @@ import static com.google.common.base.Predicates.equalTo;
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import java.io.IOException;
 import java.io.Writer;
@@ -57,6 +60,7 @@ import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -114,6 +118,7 @@ public class PredicateAbstractionManager {
     public int numInductivePredicates = 0;
     public int numCartesianAbsPredicates = 0;
     public int numCartesianAbsPredicatesCached = 0;
+    public int numCartesianAbsPredicatesParallel = 0;
     public int numBooleanAbsPredicates = 0;
     public final Timer abstractionReuseTime = new Timer();
     public final StatTimer abstractionReuseImplicationTime = new StatTimer("Time for checking reusability of abstractions");
@@ -162,6 +167,15 @@ public class PredicateAbstractionManager {
       description = "whether to use Boolean or Cartesian abstraction or both")
   private AbstractionType abstractionType = AbstractionType.BOOLEAN;
 
+  @Option(
+      secure = true,
+      name = "abstraction.cartesianThreads",
+      description =
+          "number of threads (each with its own solver instance) that check the predicates"
+              + " of Cartesian abstraction concurrently (1 for sequential checks)")
+  @IntegerOption(min = 1)
+  private int cartesianThreads = 1;
+
   @Option(secure=true, name = "abstraction.dumpHardQueries",
       description = "dump the abstraction formulas if they took to long")
   private boolean dumpHardAbstractions = false;
@@ -204,6 +218,8 @@ public class PredicateAbstractionManager {
   // 1: predicate is true
   private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
+  private final @Nullable ParallelCartesianAbstraction parallelCartesianAbstraction;
+
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
       PathFormulaManager pPfmgr,
@@ -253,9 +269,26 @@ public class PredicateAbstractionManager {
       cartesianAbstractionCache = null;
     }
 
+    if (cartesianThreads > 1
+        && (abstractionType == AbstractionType.CARTESIAN
+            || abstractionType == AbstractionType.COMBINED)) {
+      parallelCartesianAbstraction =
+          new ParallelCartesianAbstraction(
+              cartesianThreads, fmgr, pConfig, pLogger, pShutdownNotifier);
+    } else {
+      parallelCartesianAbstraction = null;
+    }
+
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
+  /** Release the additional solver instances that are used for parallel abstraction. */
+  public void close() {
+    if (parallelCartesianAbstraction != null) {
+      parallelCartesianAbstraction.close();
+    }
+  }
+
   /**
    * Compute an abstraction of a single boolean formula.
    * @param f The formula to be abstracted. Needs to be instantiated
@@ -433,7 +466,13 @@ public class PredicateAbstractionManager {
       abs = rmgr.makeAnd(abs, buildCartesianAbstractionUsingWeakening(f, ssa, remainingPredicates));
 
     } else {
-      abs = rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator));
+      // The abstraction formula is often shared by several successive abstraction computations,
+      // so we assert it separately such that a reused prover can keep it.
+      List<BooleanFormula> assertedFormulas =
+          bfmgr.isTrue(absFormula) ? ImmutableList.of(f) : ImmutableList.of(absFormula, f);
+      abs =
+          rmgr.makeAnd(
+              abs, computeAbstraction(f, assertedFormulas, remainingPredicates, instantiator));
     }
 
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
@@ -494,7 +533,7 @@ public class PredicateAbstractionManager {
     final Collection<AbstractionPredicate> predicates =
         getRelevantPredicates(pPredicates, pF, dummyInstantiator);
 
-    Region abs = computeAbstraction(pF, predicates, dummyInstantiator);
+    Region abs = computeAbstraction(pF, ImmutableList.of(pF), predicates, dummyInstantiator);
 
     BooleanFormula symbolicAbs = amgr.convertRegionToFormula(abs);
 
@@ -748,6 +787,8 @@ public class PredicateAbstractionManager {
    * Actually compute an abstraction of a formula, without fancy caching etc.
    *
    * @param f The formula to be abstracted.
+   * @param assertedFormulas Formulas whose conjunction is equivalent to f, they are asserted on
+   *     separate levels of the solver stack such that common prefixes can be reused.
    * @param remainingPredicates The set of predicates.
    *     Each predicate that is handled will be removed from the set.
    * @param instantiator A function that will be applied to instantiate each abstraction predicate,
@@ -756,14 +797,14 @@ public class PredicateAbstractionManager {
    */
   private Region computeAbstraction(
       final BooleanFormula f,
+      final List<BooleanFormula> assertedFormulas,
       final Collection<AbstractionPredicate> remainingPredicates,
       final Function<BooleanFormula, BooleanFormula> instantiator)
       throws SolverException, InterruptedException {
     Region abs = rmgr.makeTrue();
 
     try (ProverEnvironment thmProver =
-        solver.newProverEnvironment(ProverOptions.GENERATE_ALL_SAT)) {
-      thmProver.push(f);
+        solver.newProverEnvironmentWithPrefix(assertedFormulas, ProverOptions.GENERATE_ALL_SAT)) {
 
       if (remainingPredicates.isEmpty()) {
         stats.numSatCheckAbstractions++;
@@ -852,6 +893,11 @@ public class PredicateAbstractionManager {
     try {
       Region absbdd = rmgr.makeTrue();
 
+      Map<AbstractionPredicate, Byte> precomputedValues = ImmutableMap.of();
+      if (parallelCartesianAbstraction != null) {
+        precomputedValues = computePredicateValuesInParallel(f, pPredicates, instantiator);
+      }
+
       // check whether each of the predicate is implied in the next state...
 
       final Iterator<AbstractionPredicate> predicateIt = pPredicates.iterator();
@@ -888,9 +934,15 @@ public class PredicateAbstractionManager {
           // state
           byte predVal = 0; // pred is neither true nor false
 
-          thmProver.push(predFalse);
-          boolean isTrue = thmProver.isUnsat();
-          thmProver.pop();
+          Byte precomputedVal = precomputedValues.get(p);
+          boolean isTrue;
+          if (precomputedVal != null) {
+            isTrue = precomputedVal == ParallelCartesianAbstraction.TRUE;
+          } else {
+            thmProver.push(predFalse);
+            isTrue = thmProver.isUnsat();
+            thmProver.pop();
+          }
 
           if (isTrue) {
             stats.numCartesianAbsPredicates++;
@@ -903,9 +955,14 @@ public class PredicateAbstractionManager {
             predVal = 1;
           } else {
             // check whether it's false...
-            thmProver.push(predTrue);
-            boolean isFalse = thmProver.isUnsat();
-            thmProver.pop();
+            boolean isFalse;
+            if (precomputedVal != null) {
+              isFalse = precomputedVal == ParallelCartesianAbstraction.FALSE;
+            } else {
+              thmProver.push(predTrue);
+              isFalse = thmProver.isUnsat();
+              thmProver.pop();
+            }
 
             if (isFalse) {
               stats.numCartesianAbsPredicates++;
@@ -984,6 +1041,42 @@ public class PredicateAbstractionManager {
     return out;
   }
 
+  /**
+   * Compute the truth values of all predicates that are not cached
+   * with the worker solvers of {@link #parallelCartesianAbstraction}.
+   *
+   * @return A map from predicates to {@link ParallelCartesianAbstraction#TRUE},
+   *     {@link ParallelCartesianAbstraction#FALSE},
+   *     or {@link ParallelCartesianAbstraction#UNKNOWN}.
+   */
+  private Map<AbstractionPredicate, Byte> computePredicateValuesInParallel(
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> pPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator)
+      throws SolverException, InterruptedException {
+    List<AbstractionPredicate> uncachedPredicates = new ArrayList<>(pPredicates.size());
+    for (AbstractionPredicate p : pPredicates) {
+      if (!useCache || !cartesianAbstractionCache.containsKey(Pair.of(f, p))) {
+        uncachedPredicates.add(p);
+      }
+    }
+    if (uncachedPredicates.size() < 2) {
+      return ImmutableMap.of(); // not worth the overhead
+    }
+
+    List<BooleanFormula> instantiatedPredicates =
+        Lists.transform(uncachedPredicates, p -> instantiator.apply(p.getSymbolicAtom()));
+    byte[] values =
+        parallelCartesianAbstraction.computePredicateValues(f, instantiatedPredicates);
+    stats.numCartesianAbsPredicatesParallel += values.length;
+
+    Map<AbstractionPredicate, Byte> result = Maps.newHashMapWithExpectedSize(values.length);
+    for (int i = 0; i < values.length; i++) {
+      result.put(uncachedPredicates.get(i), values[i]);
+    }
+    return result;
+  }
+
   /**
    * Compute a Boolean abstraction of a formula given a set of predicates.
    * The abstracted formula is expected to have been pushed onto the solver stack already.
@@ -1026,6 +1119,7 @@ public class PredicateAbstractionManager {
     Region result = thmProver.allSat(callback, predVars);
 
     // pop() is actually costly sometimes, and we delete the environment anyway
+    // (a reused environment pops all additional levels itself when it is closed)
     // thmProver.pop();
 
     // update statistics
@@ -31,6 +31,7 @@ import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -91,6 +92,15 @@ public class PredicateCPA
   @Option(secure=true, name="blk.useCache", description="use caching of path formulas")
   private boolean useCache = true;
 
+  @Option(
+      secure = true,
+      name = "blk.cacheSize",
+      description =
+          "maximum number of entries in each cache of path formulas (0 for unbounded caches),"
+              + " the least recently used entries are evicted if a cache is full")
+  @IntegerOption(min = 0)
+  private int cacheSize = 0;
+
   @Option(secure=true, name="enableBlockreducer", description="Enable the possibility to precompute explicit abstraction locations.")
   private boolean enableBlockreducer = false;
 
@@ -164,7 +174,7 @@ public class PredicateCPA
 
     PathFormulaManager pfMgr = new PathFormulaManagerImpl(formulaManager, config, logger, shutdownNotifier, cfa, direction);
     if (useCache) {
-      pfMgr = new CachingPathFormulaManager(pfMgr);
+      pfMgr = new CachingPathFormulaManager(pfMgr, cacheSize);
     }
     pathFormulaManager = pfMgr;
 
@@ -331,6 +341,7 @@ public class PredicateCPA
 
   @Override
   public void close() {
+    predicateManager.close();
     solver.close();
   }
 
@@ -295,6 +295,11 @@ class PredicateCPAStatistics implements Statistics {
     out.println("Number of SMT sat checks:          " + solver.satChecks);
     out.println("  trivial:                         " + solver.trivialSatChecks);
     out.println("  cached:                          " + solver.cachedSatChecks);
+    int reusedProverLevels = solver.getReusedProverLevels();
+    int pushedProverLevels = solver.getPushedProverLevels();
+    if (reusedProverLevels + pushedProverLevels > 0) {
+      out.println("Number of reused prover levels:    " + reusedProverLevels + " (" + toPercent(reusedProverLevels, reusedProverLevels + pushedProverLevels) + ")");
+    }
     out.println();
     out.println("Max ABE block size:                       " + statistics.blockSize.getMaxValue());
     put(out, 0, statistics.blockSize);
@@ -321,6 +326,9 @@ class PredicateCPAStatistics implements Statistics {
       if (as.cartesianAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds cached for cartesian abs: " + valueWithPercentage(as.numCartesianAbsPredicatesCached, as.numTotalPredicates));
         out.println("Number of preds solved by cartesian abs:  " + valueWithPercentage(as.numCartesianAbsPredicates, as.numTotalPredicates));
+        if (as.numCartesianAbsPredicatesParallel > 0) {
+          out.println("Number of preds checked in parallel:      " + valueWithPercentage(as.numCartesianAbsPredicatesParallel, as.numTotalPredicates));
+        }
       }
       if (as.booleanAbstractionTime.getNumberOfIntervals() > 0) {
         out.println("Number of preds handled by boolean abs:   " + valueWithPercentage(as.numBooleanAbsPredicates, as.numTotalPredicates));
@@ -26,7 +26,6 @@ package org.sosy_lab.cpachecker.cpa.smg;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -89,6 +88,7 @@ import org.sosy_lab.cpachecker.cpa.smg.join.SMGIsLessOrEqual;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoin;
 import org.sosy_lab.cpachecker.cpa.smg.join.SMGJoinStatus;
 import org.sosy_lab.cpachecker.cpa.smg.refiner.SMGMemoryPath;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentBiMap;
 import org.sosy_lab.cpachecker.cpa.smg.util.PersistentSet;
 import org.sosy_lab.cpachecker.exceptions.InvalidQueryException;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
@@ -110,7 +110,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
   private final int predecessorId;
   private final int id;
 
-  private final BiMap<SMGKnownSymbolicValue, SMGKnownExpValue> explicitValues = HashBiMap.create();
+  private PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> explicitValues;
   private final CLangSMG heap;
 
   private final boolean blockEnded;
@@ -171,7 +171,14 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       CLangSMG pHeap,
       int pPredId,
       Map<SMGKnownSymbolicValue, SMGKnownExpValue> pMergedExplicitValues) {
-    this(pLogger, pOptions, pHeap, pPredId, pMergedExplicitValues, SMGErrorInfo.of(), false);
+    this(
+        pLogger,
+        pOptions,
+        pHeap,
+        pPredId,
+        copyExplicitValues(pMergedExplicitValues),
+        SMGErrorInfo.of(),
+        false);
   }
 
   /** Copy constructor. */
@@ -180,7 +187,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       SMGOptions pOptions,
       CLangSMG pHeap,
       int pPredId,
-      Map<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues,
+      PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues,
       SMGErrorInfo pErrorInfo,
       boolean pBlockEnded) {
     options = pOptions;
@@ -188,9 +195,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     logger = pLogger;
     predecessorId = pPredId;
     id = ID_COUNTER.getFreshId();
-    Preconditions.checkArgument(!pExplicitValues.containsKey(null));
-    Preconditions.checkArgument(!pExplicitValues.containsValue(null));
-    explicitValues.putAll(pExplicitValues);
+    explicitValues = pExplicitValues; // persistent, no copy needed
     errorInfo = pErrorInfo;
     blockEnded = pBlockEnded;
     sizeOfVoidPointerInBits =
@@ -203,7 +208,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     options = pOriginalState.options;
     predecessorId = pOriginalState.getId();
     id = ID_COUNTER.getFreshId();
-    explicitValues.putAll(pOriginalState.explicitValues);
+    explicitValues = pOriginalState.explicitValues;
     blockEnded = pOriginalState.blockEnded;
     errorInfo = pOriginalState.errorInfo.withProperty(pProperty);
     sizeOfVoidPointerInBits = pOriginalState.sizeOfVoidPointerInBits;
@@ -216,7 +221,15 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
   @Override
   public SMGState copyWith(CLangSMG pSmg, BiMap<SMGKnownSymbolicValue, SMGKnownExpValue> pValues) {
-    return new SMGState(logger, options, pSmg, id, pValues, errorInfo, blockEnded);
+    return new SMGState(
+        logger, options, pSmg, id, copyExplicitValues(pValues), errorInfo, blockEnded);
+  }
+
+  private static PersistentBiMap<SMGKnownSymbolicValue, SMGKnownExpValue> copyExplicitValues(
+      Map<SMGKnownSymbolicValue, SMGKnownExpValue> pExplicitValues) {
+    Preconditions.checkArgument(!pExplicitValues.containsKey(null));
+    Preconditions.checkArgument(!pExplicitValues.containsValue(null));
+    return PersistentBiMap.copyOf(pExplicitValues);
   }
 
   @Override
@@ -229,7 +242,15 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     if (errorInfo.equals(pOther.errorInfo)) {
       return this;
     }
-    SMGState result = new SMGState(logger, options, heap, ID_COUNTER.getFreshId(), explicitValues);
+    SMGState result =
+        new SMGState(
+            logger,
+            options,
+            heap,
+            ID_COUNTER.getFreshId(),
+            explicitValues,
+            SMGErrorInfo.of(),
+            false);
     result.errorInfo = result.errorInfo.mergeWith(pOther.errorInfo);
     return result;
   }
@@ -403,7 +424,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
   @Override
   public String toDot(String pName, String pLocation) {
     SMGPlotter plotter = new SMGPlotter();
-    return plotter.smgAsDot(heap, pName, pLocation, explicitValues);
+    return plotter.smgAsDot(heap, pName, pLocation, explicitValues.asMap());
   }
 
   /**
@@ -1787,9 +1808,9 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
 
     heap.replaceValue(pKnownVal1, pKnownVal2);
-    SMGKnownExpValue expVal = explicitValues.remove(pKnownVal2);
+    SMGKnownExpValue expVal = explicitValues.get(pKnownVal2);
     if (expVal != null) {
-      explicitValues.put(pKnownVal1, expVal);
+      explicitValues = explicitValues.removeAndCopy(pKnownVal2).putAndCopy(pKnownVal1, expVal);
     }
   }
 
@@ -1876,26 +1897,26 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       SMGKnownSymbolicValue symValue = explicitValues.inverse().get(pValue);
 
       if (!pKey.equals(symValue)) {
-        explicitValues.remove(symValue);
+        explicitValues = explicitValues.removeAndCopy(symValue);
         if (symValue.isZero()) { // swap values, we prefer ZERO in the SMG.
           heap.replaceValue(symValue, pKey);
         } else {
           heap.replaceValue(pKey, symValue);
         }
-        explicitValues.put(pKey, pValue);
+        explicitValues = explicitValues.putAndCopy(pKey, pValue);
         return symValue;
       }
 
       return null;
     }
 
-    explicitValues.put(pKey, pValue);
+    explicitValues = explicitValues.putAndCopy(pKey, pValue);
     return null;
   }
 
   @Deprecated // unused
   public void clearExplicit(SMGKnownSymbolicValue pKey) {
-    explicitValues.remove(pKey);
+    explicitValues = explicitValues.removeAndCopy(pKey);
   }
 
   @Override
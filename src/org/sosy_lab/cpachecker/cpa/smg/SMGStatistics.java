@@ -43,6 +43,7 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.globalsTimer);
     put(pOut, 1, SMGIsLessOrEqual.stackTimer);
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
+    put(pOut, 1, "Number of objects with shared edges", SMGIsLessOrEqual.sharedObjects.sum());
     put(pOut, 0, abstractions);
     put(pOut, 0, totalAbstraction);
   }
@@ -30,6 +30,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
@@ -395,6 +396,11 @@ public class SMG implements UnmodifiableSMG {
     return ImmutableSet.copyOf(pFilter.filter(hv_edges));
   }
 
+  @Override
+  public final List<SMGEdgeHasValue> getHVEdgesOfObject(SMGObject pObject) {
+    return hv_edges.getEdgesForObject(pObject);
+  }
+
   @Override
   public Set<SMGEdgePointsTo> getPtEdges(SMGEdgePointsToFilter pFilter) {
     return ImmutableSet.copyOf(pFilter.filter(pt_edges));
@@ -23,66 +23,136 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import org.checkerframework.checker.nullness.qual.Nullable;
+import com.google.common.collect.Iterables;
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.Comparator;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentSortedMap;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
-import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
 
+/**
+ * An immutable set of has-value-edges, grouped by their object.
+ *
+ * <p>The edges of an object are stored in a list that is sorted by offset, which needs much less
+ * memory than a hash-based set for the few edges of typical objects. Modifications only copy the
+ * list of the modified object, the lists of all other objects are shared between copies.
+ *
+ * <p>The hash code is the sum of the hash codes of all edges and is updated incrementally, such
+ * that it can be used as cheap fingerprint of the set.
+ */
 public class SMGHasValueEdgeSet implements SMGHasValueEdges {
 
-  private final PersistentMultimap<SMGObject, SMGEdgeHasValue> map;
+  /**
+   * A total order on values that is consistent with {@link SMGValue#equals}: known values are equal
+   * iff they are of the same kind and have the same number. {@link SMGValue#compareTo} is not
+   * suitable here, because it orders ZERO before any other explicit value with the number 0.
+   */
+  private static final Comparator<SMGValue> VALUE_ORDER =
+      Comparator.comparingInt(SMGHasValueEdgeSet::getKind)
+          .thenComparing(SMGHasValueEdgeSet::getNumber);
+
+  /**
+   * A total order on the edges of one object that is consistent with {@link
+   * SMGEdgeHasValue#equals}, such that equal sets have equal lists.
+   */
+  private static final Comparator<SMGEdgeHasValue> EDGE_ORDER =
+      Comparator.comparingLong(SMGEdgeHasValue::getOffset)
+          .thenComparingLong(SMGEdgeHasValue::getSizeInBits)
+          .thenComparing(SMGEdgeHasValue::getValue, VALUE_ORDER);
+
+  private final PersistentSortedMap<SMGObject, ImmutableList<SMGEdgeHasValue>> map;
+  private final int hashCode;
 
   public SMGHasValueEdgeSet() {
-    map = PersistentMultimap.of();
+    map = PathCopyingPersistentTreeMap.of();
+    hashCode = 0;
   }
 
-  private SMGHasValueEdgeSet(PersistentMultimap<SMGObject, SMGEdgeHasValue> pMap) {
+  private SMGHasValueEdgeSet(
+      PersistentSortedMap<SMGObject, ImmutableList<SMGEdgeHasValue>> pMap, int pHashCode) {
     map = pMap;
+    hashCode = pHashCode;
   }
 
   @Override
   public SMGHasValueEdgeSet removeAllEdgesOfObjectAndCopy(SMGObject obj) {
-    return new SMGHasValueEdgeSet(map.removeAndCopy(obj));
+    ImmutableList<SMGEdgeHasValue> edges = getEdgesForObject(obj);
+    if (edges.isEmpty()) {
+      return this;
+    }
+    int updatedHashCode = hashCode;
+    for (SMGEdgeHasValue edge : edges) {
+      updatedHashCode -= edge.hashCode();
+    }
+    return new SMGHasValueEdgeSet(map.removeAndCopy(obj), updatedHashCode);
   }
 
   @Override
   public SMGHasValueEdgeSet addEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    return new SMGHasValueEdgeSet(map.putAndCopy(pEdge.getObject(), pEdge));
+    ImmutableList<SMGEdgeHasValue> edges = getEdgesForObject(pEdge.getObject());
+    int index = Collections.binarySearch(edges, pEdge, EDGE_ORDER);
+    if (index >= 0) {
+      return this;
+    }
+    int insertionPoint = -index - 1;
+    ImmutableList<SMGEdgeHasValue> updated =
+        ImmutableList.<SMGEdgeHasValue>builderWithExpectedSize(edges.size() + 1)
+            .addAll(edges.subList(0, insertionPoint))
+            .add(pEdge)
+            .addAll(edges.subList(insertionPoint, edges.size()))
+            .build();
+    return new SMGHasValueEdgeSet(
+        map.putAndCopy(pEdge.getObject(), updated), hashCode + pEdge.hashCode());
   }
 
   @Override
   public SMGHasValueEdgeSet removeEdgeAndCopy(SMGEdgeHasValue pEdge) {
-    PersistentMultimap<SMGObject, SMGEdgeHasValue> updated =
-        map.removeAndCopy(pEdge.getObject(), pEdge);
-    if (map == updated) {
+    ImmutableList<SMGEdgeHasValue> edges = getEdgesForObject(pEdge.getObject());
+    int index = Collections.binarySearch(edges, pEdge, EDGE_ORDER);
+    if (index < 0) {
       return this;
-    } else {
-      return new SMGHasValueEdgeSet(updated);
     }
+    if (edges.size() == 1) {
+      return new SMGHasValueEdgeSet(
+          map.removeAndCopy(pEdge.getObject()), hashCode - pEdge.hashCode());
+    }
+    ImmutableList<SMGEdgeHasValue> updated =
+        ImmutableList.<SMGEdgeHasValue>builderWithExpectedSize(edges.size() - 1)
+            .addAll(edges.subList(0, index))
+            .addAll(edges.subList(index + 1, edges.size()))
+            .build();
+    return new SMGHasValueEdgeSet(
+        map.putAndCopy(pEdge.getObject(), updated), hashCode - pEdge.hashCode());
   }
 
   @Override
   public ImmutableSet<SMGEdgeHasValue> getHvEdges() {
-    return map.values();
+    return ImmutableSet.copyOf(Iterables.concat(map.values()));
   }
 
   @Override
-  public ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
-    @Nullable ImmutableSet<SMGEdgeHasValue> edges = map.get(pObject);
-    return edges == null ? ImmutableSet.of() : edges;
+  public ImmutableList<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject) {
+    ImmutableList<SMGEdgeHasValue> edges = map.get(pObject);
+    return edges == null ? ImmutableList.of() : edges;
   }
 
   @Override
   public int hashCode() {
-    return map.hashCode();
+    return hashCode;
   }
 
   @Override
   public boolean equals(Object pObj) {
     if (pObj instanceof SMGHasValueEdgeSet) {
       SMGHasValueEdgeSet other = (SMGHasValueEdgeSet) pObj;
-      return map.equals(other.map);
+      return hashCode == other.hashCode && map.equals(other.map);
     }
     return false;
   }
@@ -91,4 +161,24 @@ public class SMGHasValueEdgeSet implements SMGHasValueEdges {
   public String toString() {
     return map.toString();
   }
-}
\ No newline at end of file
+
+  private static int getKind(SMGValue pValue) {
+    if (pValue.isUnknown()) {
+      return 0;
+    } else if (pValue instanceof SMGKnownExpValue) { // includes ZERO
+      return 1;
+    } else if (pValue instanceof SMGKnownSymValue) { // includes addresses
+      return 2;
+    }
+    throw new AssertionError("unexpected value " + pValue);
+  }
+
+  private static BigInteger getNumber(SMGValue pValue) {
+    if (pValue instanceof SMGKnownExpValue) {
+      return ((SMGKnownExpValue) pValue).getValue();
+    } else if (pValue instanceof SMGKnownSymValue) {
+      return ((SMGKnownSymValue) pValue).getId();
+    }
+    return BigInteger.ZERO; // UNKNOWN
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.smg.graphs;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGRegion;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownExpValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownSymValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGUnknownValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGZeroValue;
+
+public class SMGHasValueEdgeSetTest {
+
+  private static final int SIZE = 32;
+
+  private final SMGObject obj1 = new SMGRegion(128, "object-1");
+  private final SMGObject obj2 = new SMGRegion(128, "object-2");
+
+  private final SMGValue val1 = SMGKnownSymValue.valueOf(1);
+  private final SMGValue val2 = SMGKnownSymValue.valueOf(2);
+
+  private final SMGEdgeHasValue obj1At0 = new SMGEdgeHasValue(SIZE, 0, obj1, val1);
+  private final SMGEdgeHasValue obj1At32 = new SMGEdgeHasValue(SIZE, 32, obj1, val2);
+  private final SMGEdgeHasValue obj1At64 = new SMGEdgeHasValue(SIZE, 64, obj1, val1);
+  private final SMGEdgeHasValue obj2At0 = new SMGEdgeHasValue(SIZE, 0, obj2, val2);
+
+  @Test
+  public void testEdgesAreSortedByOffset() {
+    SMGHasValueEdgeSet set =
+        new SMGHasValueEdgeSet()
+            .addEdgeAndCopy(obj1At64)
+            .addEdgeAndCopy(obj2At0)
+            .addEdgeAndCopy(obj1At0)
+            .addEdgeAndCopy(obj1At32);
+
+    assertThat(set.getEdgesForObject(obj1)).containsExactly(obj1At0, obj1At32, obj1At64).inOrder();
+    assertThat(set.getEdgesForObject(obj2)).containsExactly(obj2At0);
+    assertThat(set.getHvEdges()).containsExactly(obj1At0, obj1At32, obj1At64, obj2At0);
+  }
+
+  @Test
+  public void testInsertionOrderDoesNotMatter() {
+    SMGHasValueEdgeSet set1 =
+        new SMGHasValueEdgeSet()
+            .addEdgeAndCopy(obj1At0)
+            .addEdgeAndCopy(obj1At32)
+            .addEdgeAndCopy(obj2At0);
+    SMGHasValueEdgeSet set2 =
+        new SMGHasValueEdgeSet()
+            .addEdgeAndCopy(obj2At0)
+            .addEdgeAndCopy(obj1At32)
+            .addEdgeAndCopy(obj1At0);
+
+    assertThat(set1).isEqualTo(set2);
+    assertThat(set1.hashCode()).isEqualTo(set2.hashCode());
+  }
+
+  @Test
+  public void testAddAndRemove() {
+    SMGHasValueEdgeSet empty = new SMGHasValueEdgeSet();
+    SMGHasValueEdgeSet set = empty.addEdgeAndCopy(obj1At0).addEdgeAndCopy(obj1At32);
+
+    SMGHasValueEdgeSet removed = set.removeEdgeAndCopy(obj1At0);
+    assertThat(removed.getEdgesForObject(obj1)).containsExactly(obj1At32);
+    assertThat(set.getEdgesForObject(obj1)).containsExactly(obj1At0, obj1At32).inOrder();
+
+    SMGHasValueEdgeSet removedAll = removed.removeEdgeAndCopy(obj1At32);
+    assertThat(removedAll.getHvEdges()).isEmpty();
+    assertThat(removedAll).isEqualTo(empty);
+    assertThat(removedAll.hashCode()).isEqualTo(empty.hashCode());
+
+    assertThat(set.removeAllEdgesOfObjectAndCopy(obj1)).isEqualTo(empty);
+  }
+
+  @Test
+  public void testUnchangedSetIsReturned() {
+    SMGHasValueEdgeSet set = new SMGHasValueEdgeSet().addEdgeAndCopy(obj1At0);
+
+    assertThat(set.addEdgeAndCopy(obj1At0)).isSameInstanceAs(set);
+    assertThat(set.addEdgeAndCopy(new SMGEdgeHasValue(SIZE, 0, obj1, val1)))
+        .isSameInstanceAs(set);
+    assertThat(set.removeEdgeAndCopy(obj1At32)).isSameInstanceAs(set);
+    assertThat(set.removeEdgeAndCopy(obj2At0)).isSameInstanceAs(set);
+    assertThat(set.removeAllEdgesOfObjectAndCopy(obj2)).isSameInstanceAs(set);
+  }
+
+  @Test
+  public void testEdgesOfOtherObjectsAreShared() {
+    SMGHasValueEdgeSet set = new SMGHasValueEdgeSet().addEdgeAndCopy(obj1At0);
+    SMGHasValueEdgeSet copy = set.addEdgeAndCopy(obj2At0);
+
+    assertThat(copy.getEdgesForObject(obj1)).isSameInstanceAs(set.getEdgesForObject(obj1));
+  }
+
+  @Test
+  public void testEqualValuesAreTheSameEdge() {
+    // valueOf(int) does not return the ZERO instance, but both values are equal
+    SMGValue explicitZero = SMGKnownExpValue.valueOf(0);
+    assertThat(explicitZero).isEqualTo(SMGZeroValue.INSTANCE);
+
+    SMGEdgeHasValue zeroEdge = new SMGEdgeHasValue(SIZE, 0, obj1, SMGZeroValue.INSTANCE);
+    SMGEdgeHasValue explicitZeroEdge = new SMGEdgeHasValue(SIZE, 0, obj1, explicitZero);
+    SMGHasValueEdgeSet set = new SMGHasValueEdgeSet().addEdgeAndCopy(zeroEdge);
+
+    assertThat(set.addEdgeAndCopy(explicitZeroEdge)).isSameInstanceAs(set);
+    assertThat(set.removeEdgeAndCopy(explicitZeroEdge).getHvEdges()).isEmpty();
+  }
+
+  @Test
+  public void testDifferentValuesAreDifferentEdges() {
+    // an explicit and a symbolic value with the same number are not equal
+    SMGEdgeHasValue explicitEdge =
+        new SMGEdgeHasValue(SIZE, 0, obj1, SMGKnownExpValue.valueOf(1));
+    SMGEdgeHasValue unknownEdge = new SMGEdgeHasValue(SIZE, 0, obj1, SMGUnknownValue.INSTANCE);
+    SMGHasValueEdgeSet set =
+        new SMGHasValueEdgeSet()
+            .addEdgeAndCopy(obj1At0)
+            .addEdgeAndCopy(explicitEdge)
+            .addEdgeAndCopy(unknownEdge);
+
+    assertThat(set.getEdgesForObject(obj1)).containsExactly(obj1At0, explicitEdge, unknownEdge);
+    assertThat(set.removeEdgeAndCopy(explicitEdge).getEdgesForObject(obj1))
+        .containsExactly(obj1At0, unknownEdge);
+  }
+}
@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
@@ -43,6 +44,9 @@ public interface SMGHasValueEdges {
   /** get all outgoing edges of all {@link SMGObject}s. */
   ImmutableSet<SMGEdgeHasValue> getHvEdges();
 
-  /** get all outgoing edges of an {@link SMGObject}, e.g., all values of this object. */
-  ImmutableSet<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
+  /**
+   * get all outgoing edges of an {@link SMGObject}, e.g., all values of this object, sorted by
+   * offset.
+   */
+  ImmutableList<SMGEdgeHasValue> getEdgesForObject(SMGObject pObject);
 }
\ No newline at end of file
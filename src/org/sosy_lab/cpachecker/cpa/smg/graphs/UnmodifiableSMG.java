@@ -23,6 +23,7 @@
  */
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
+import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -61,6 +62,12 @@ public interface UnmodifiableSMG {
 
   Set<SMGEdgeHasValue> getHVEdges(SMGEdgeHasValueFilter pFilter);
 
+  /**
+   * Returns the Has-Value edges of the given object, sorted by offset. Copies of an SMG share this
+   * list as long as the edges of the object are not modified, which allows cheap comparisons.
+   */
+  List<SMGEdgeHasValue> getHVEdgesOfObject(SMGObject pObject);
+
   Set<SMGEdgePointsTo> getPtEdges(SMGEdgePointsToFilter pFilter);
 
   SMGPointsToEdges getPTEdges();
@@ -36,7 +36,8 @@ import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
  */
 public class SMGEdgeHasValue extends SMGEdge {
 
-  private final BigInteger sizeInBits;
+  /** Sizes are stored as primitive, because there are many edges and sizes are small. */
+  private final long sizeInBits;
 
   /**
    * @param pOffset the offset relative to the start of the source object, i.e. ZERO represents an
@@ -46,12 +47,12 @@ public class SMGEdgeHasValue extends SMGEdge {
    * @param pValue the value that points to some object.
    */
   public SMGEdgeHasValue(BigInteger pSizeInBits, long pOffset, SMGObject pObject, SMGValue pValue) {
-    super(pValue, pObject, pOffset);
-    sizeInBits = pSizeInBits;
+    this(pSizeInBits.longValueExact(), pOffset, pObject, pValue);
   }
 
   public SMGEdgeHasValue(long pSizeInBits, long pOffset, SMGObject pObject, SMGValue pValue) {
-    this(BigInteger.valueOf(pSizeInBits), pOffset, pObject, pValue);
+    super(pValue, pObject, pOffset);
+    sizeInBits = pSizeInBits;
   }
 
   @Override
@@ -60,7 +61,7 @@ public class SMGEdgeHasValue extends SMGEdge {
   }
 
   public long getSizeInBits() {
-    return sizeInBits.longValueExact();
+    return sizeInBits;
   }
 
   @Override
@@ -71,7 +72,7 @@ public class SMGEdgeHasValue extends SMGEdge {
 
     if (object == other.object
         && getOffset() == other.getOffset()
-        && sizeInBits.equals(((SMGEdgeHasValue) other).sizeInBits)) {
+        && sizeInBits == ((SMGEdgeHasValue) other).sizeInBits) {
       return value.equals(other.value);
     }
 
@@ -107,7 +108,7 @@ public class SMGEdgeHasValue extends SMGEdge {
 
   @Override
   public int hashCode() {
-    return 31 * super.hashCode() + sizeInBits.hashCode();
+    return 31 * super.hashCode() + Long.hashCode(sizeInBits);
   }
 
   @Override
@@ -116,6 +117,6 @@ public class SMGEdgeHasValue extends SMGEdge {
       return false;
     }
     SMGEdgeHasValue other = (SMGEdgeHasValue) obj;
-    return super.equals(obj) && sizeInBits.equals(other.sizeInBits);
+    return super.equals(obj) && sizeInBits == other.sizeInBits;
   }
 }
\ No newline at end of file
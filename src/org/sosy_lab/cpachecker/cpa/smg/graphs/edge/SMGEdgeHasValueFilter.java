@@ -26,7 +26,6 @@ package org.sosy_lab.cpachecker.cpa.smg.graphs.edge;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
-import java.util.Set;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.SMGHasValueEdges;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
@@ -97,7 +96,7 @@ public class SMGEdgeHasValueFilter {
   }
 
   public Iterable<SMGEdgeHasValue> filter(SMGHasValueEdges pEdges) {
-    Set<SMGEdgeHasValue> filtered;
+    Iterable<SMGEdgeHasValue> filtered;
     if (object != null) {
       filtered = pEdges.getEdgesForObject(object);
     } else {
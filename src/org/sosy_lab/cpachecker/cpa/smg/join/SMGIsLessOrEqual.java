@@ -27,9 +27,11 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import com.google.common.collect.Iterables;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
 import org.sosy_lab.cpachecker.cpa.smg.CLangStackFrame;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.UnmodifiableCLangSMG;
@@ -57,6 +59,8 @@ public class SMGIsLessOrEqual {
       new ThreadSafeTimerContainer("Time for joining stacks");
   public static final ThreadSafeTimerContainer heapTimer =
       new ThreadSafeTimerContainer("Time for joining heaps");
+  /** Counts objects with shared edges, may be incremented concurrently like the timers above. */
+  public static final LongAdder sharedObjects = new LongAdder();
 
   private SMGIsLessOrEqual() {} // Utility class.
 
@@ -240,6 +244,18 @@ public class SMGIsLessOrEqual {
         (pSMG1.getObjects().contains(pSMGObject1) && pSMG2.getObjects().contains(pSMGObject2)),
         "SMGJoinFields object arguments need to be included in parameter SMGs");
 
+    // Both SMGs are often copies of each other and share the edges of unmodified objects.
+    // Then each edge of SMG1 is also in SMG2 and only the pointers need to be compared.
+    if (pSMGObject1 == pSMGObject2) {
+      List<SMGEdgeHasValue> edges1 = pSMG1.getHVEdgesOfObject(pSMGObject1);
+      List<SMGEdgeHasValue> edges2 = pSMG2.getHVEdgesOfObject(pSMGObject2);
+      if (edges1 == edges2) {
+        sharedObjects.increment();
+        return pSMG1.getPTEdges() == pSMG2.getPTEdges()
+            || isLessOrEqualPointers(pSMG1, pSMG2, edges1);
+      }
+    }
+
     SMGEdgeHasValueFilter filterForSMG1 = SMGEdgeHasValueFilter.objectFilter(pSMGObject1);
     SMGEdgeHasValueFilter filterForSMG2 = SMGEdgeHasValueFilter.objectFilter(pSMGObject2);
 
@@ -256,27 +272,46 @@ public class SMGIsLessOrEqual {
         return false;
       }
 
-      SMGValue value = edge1.getValue();
-
-      if (pSMG1.isPointer(value)) {
-        if (!pSMG2.isPointer(value)) {
-          return false;
-        }
+      if (!isLessOrEqualPointer(pSMG1, pSMG2, edge1.getValue())) {
+        return false;
+      }
+    }
 
-        SMGEdgePointsTo ptE1 = pSMG1.getPointer(value);
-        SMGEdgePointsTo ptE2 = pSMG2.getPointer(value);
-        String label1 = ptE1.getObject().getLabel();
-        String label2 = ptE2.getObject().getLabel();
-        long offset1 = ptE1.getOffset();
-        long offset2 = ptE2.getOffset();
+    return true;
+  }
 
-        //TODO How does one check, if two pointers point to the same region? You would have to recover the stack frame.
-        if (!(offset1 == offset2 && label1.equals(label2))) {
-          return false;
-        }
+  private static boolean isLessOrEqualPointers(
+      UnmodifiableCLangSMG pSMG1, UnmodifiableCLangSMG pSMG2, List<SMGEdgeHasValue> pEdges) {
+    for (SMGEdgeHasValue edge : pEdges) {
+      if (!isLessOrEqualPointer(pSMG1, pSMG2, edge.getValue())) {
+        return false;
       }
     }
+    return true;
+  }
+
+  private static boolean isLessOrEqualPointer(
+      UnmodifiableCLangSMG pSMG1, UnmodifiableCLangSMG pSMG2, SMGValue value) {
+    if (pSMG1.isPointer(value)) {
+      if (!pSMG2.isPointer(value)) {
+        return false;
+      }
 
+      SMGEdgePointsTo ptE1 = pSMG1.getPointer(value);
+      SMGEdgePointsTo ptE2 = pSMG2.getPointer(value);
+      if (ptE1 == ptE2) {
+        return true;
+      }
+      String label1 = ptE1.getObject().getLabel();
+      String label2 = ptE2.getObject().getLabel();
+      long offset1 = ptE1.getOffset();
+      long offset2 = ptE2.getOffset();
+
+      //TODO How does one check, if two pointers point to the same region? You would have to recover the stack frame.
+      if (!(offset1 == offset2 && label1.equals(label2))) {
+        return false;
+      }
+    }
     return true;
   }
 }
\ No newline at end of file
@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
@@ -118,6 +119,17 @@ public class ValueAnalysisCPA extends AbstractCPA
       description = "Tells the value analysis how to handle unknown values.")
   private UnknownValueStrategy unknownValueStrategy = UnknownValueStrategy.DISCARD;
 
+  @Option(
+      secure = true,
+      name = "internStates",
+      description =
+          "Represent equal states by a single canonical instance (hash-consing) and share"
+              + " the memory locations and values of all states. This reduces the memory"
+              + " consumption if many equal states are reached along different paths. Not"
+              + " compatible with analyses that modify the states in the reached set, e.g.,"
+              + " the impact refinement.")
+  private boolean internStates = false;
+
   public static CPAFactory factory() {
     return AutomaticCPAFactory.forType(ValueAnalysisCPA.class);
   }
@@ -139,6 +151,7 @@ public class ValueAnalysisCPA extends AbstractCPA
   private final ValueTransferOptions transferOptions;
   private final PrecAdjustmentOptions precisionAdjustmentOptions;
   private final PrecAdjustmentStatistics precisionAdjustmentStatistics;
+  private final @Nullable ValueAnalysisStateInterner interner;
 
   private SymbolicStatistics symbolicStats;
 
@@ -164,6 +177,7 @@ public class ValueAnalysisCPA extends AbstractCPA
     transferOptions = new ValueTransferOptions(config);
     precisionAdjustmentOptions = new PrecAdjustmentOptions(config, cfa);
     precisionAdjustmentStatistics = new PrecAdjustmentStatistics();
+    interner = internStates ? new ValueAnalysisStateInterner() : null;
   }
 
   private MemoryLocationValueHandler createUnknownValueHandler()
@@ -273,7 +287,7 @@ public class ValueAnalysisCPA extends AbstractCPA
 
   @Override
   public AbstractState getInitialState(CFANode pNode, StateSpacePartition pPartition) {
-    return new ValueAnalysisState(cfa.getMachineModel());
+    return new ValueAnalysisState(cfa.getMachineModel(), interner);
   }
 
   @Override
@@ -322,6 +336,9 @@ public class ValueAnalysisCPA extends AbstractCPA
   public void collectStatistics(Collection<Statistics> pStatsCollection) {
     pStatsCollection.add(statistics);
     pStatsCollection.add(precisionAdjustmentStatistics);
+    if (interner != null) {
+      pStatsCollection.add(interner);
+    }
     if (symbolicStats != null) {
       pStatsCollection.add(symbolicStats);
     }
@@ -246,6 +246,7 @@ public class ValueAnalysisPrecisionAdjustment implements PrecisionAdjustment {
     }
 
     resultState = resultState.equals(pState) ? pState : resultState;
+    resultState = resultState.intern();
 
     return Optional.of(PrecisionAdjustmentResult.create(resultState, pPrecision, Action.CONTINUE));
   }
@@ -24,13 +24,17 @@
 package org.sosy_lab.cpachecker.cpa.value;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.Maps;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -51,6 +55,7 @@ import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
 import org.sosy_lab.cpachecker.core.defaults.LatticeAbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractQueryableState;
+import org.sosy_lab.cpachecker.core.interfaces.CoverageIndexable;
 import org.sosy_lab.cpachecker.core.interfaces.FormulaReportingState;
 import org.sosy_lab.cpachecker.core.interfaces.Graphable;
 import org.sosy_lab.cpachecker.core.interfaces.PseudoPartitionable;
@@ -77,7 +82,7 @@ import org.sosy_lab.java_smt.api.FormulaType.FloatingPointType;
 public final class ValueAnalysisState
     implements AbstractQueryableState, FormulaReportingState,
         ForgetfulState<ValueAnalysisInformation>, Serializable, Graphable,
-        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable {
+        LatticeAbstractState<ValueAnalysisState>, PseudoPartitionable, CoverageIndexable {
 
   private static final long serialVersionUID = -3152134511524554358L;
 
@@ -102,30 +107,47 @@ public final class ValueAnalysisState
 
   private final @Nullable MachineModel machineModel;
 
+  /** the interner that is used for this state and its successors, if interning is enabled */
+  private final transient @Nullable ValueAnalysisStateInterner interner;
+
+  /**
+   * whether this state is the canonical instance of its interner, then it is immutable. Volatile,
+   * because canonical states are shared between threads.
+   */
+  private transient volatile boolean interned = false;
+
   public ValueAnalysisState(MachineModel pMachineModel) {
     this(
         checkNotNull(pMachineModel),
-        PathCopyingPersistentTreeMap.of());
+        PathCopyingPersistentTreeMap.of(),
+        null);
+  }
+
+  ValueAnalysisState(MachineModel pMachineModel, @Nullable ValueAnalysisStateInterner pInterner) {
+    this(checkNotNull(pMachineModel), PathCopyingPersistentTreeMap.of(), pInterner);
   }
 
   public ValueAnalysisState(
       Optional<MachineModel> pMachineModel,
       PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
-    this(pMachineModel.orElse(null), pConstantsMap);
+    this(pMachineModel.orElse(null), pConstantsMap, null);
   }
 
   private ValueAnalysisState(
       @Nullable MachineModel pMachineModel,
-      PersistentMap<MemoryLocation, ValueAndType> pConstantsMap) {
+      PersistentMap<MemoryLocation, ValueAndType> pConstantsMap,
+      @Nullable ValueAnalysisStateInterner pInterner) {
     machineModel = pMachineModel;
     constantsMap = checkNotNull(pConstantsMap);
     hashCode = constantsMap.hashCode();
+    interner = pInterner;
   }
 
   private ValueAnalysisState(ValueAnalysisState state) {
     machineModel = state.machineModel;
     constantsMap = checkNotNull(state.constantsMap);
     hashCode = state.hashCode;
+    interner = state.interner;
     assert hashCode == constantsMap.hashCode();
   }
 
@@ -133,6 +155,28 @@ public final class ValueAnalysisState
     return new ValueAnalysisState(state);
   }
 
+  /**
+   * Return the canonical instance of this state if interning is enabled, otherwise the state
+   * itself. The returned state must not be modified.
+   */
+  ValueAnalysisState intern() {
+    return interner == null ? this : interner.intern(this);
+  }
+
+  boolean isInterned() {
+    return interned;
+  }
+
+  void markInterned() {
+    if (!interned) { // avoid writing to canonical states that are already shared
+      interned = true;
+    }
+  }
+
+  private void checkNotInterned() {
+    checkState(!interned, "canonical value-analysis states must not be modified: %s", this);
+  }
+
   /**
    * This method assigns a value to the variable and puts it in the map.
    *
@@ -157,13 +201,20 @@ public final class ValueAnalysisState
       valueToAdd = ((SymbolicValue) valueToAdd).copyForLocation(pMemLoc);
     }
 
+    checkNotInterned();
+
+    MemoryLocation memLoc = pMemLoc;
     ValueAndType valueAndType = new ValueAndType(checkNotNull(valueToAdd), pType);
-    ValueAndType oldValueAndType = constantsMap.get(pMemLoc);
+    if (interner != null) {
+      memLoc = interner.intern(memLoc);
+      valueAndType = interner.intern(valueAndType);
+    }
+    ValueAndType oldValueAndType = constantsMap.get(memLoc);
     if (oldValueAndType != null) {
-      hashCode -= (pMemLoc.hashCode() ^ oldValueAndType.hashCode());
+      hashCode -= (memLoc.hashCode() ^ oldValueAndType.hashCode());
     }
-    constantsMap = constantsMap.putAndCopy(pMemLoc, valueAndType);
-    hashCode += (pMemLoc.hashCode() ^ valueAndType.hashCode());
+    constantsMap = constantsMap.putAndCopy(memLoc, valueAndType);
+    hashCode += (memLoc.hashCode() ^ valueAndType.hashCode());
   }
 
   /**
@@ -230,6 +281,7 @@ public final class ValueAnalysisState
       return ValueAnalysisInformation.EMPTY;
     }
 
+    checkNotInterned();
     ValueAndType value = constantsMap.get(pMemoryLocation);
     constantsMap = constantsMap.removeAndCopy(pMemoryLocation);
     hashCode -= (pMemoryLocation.hashCode() ^ value.hashCode());
@@ -372,7 +424,7 @@ public final class ValueAnalysisState
     if (newConstantsMap.size() == reachedState.constantsMap.size()) {
       return reachedState;
     } else {
-      return new ValueAnalysisState(machineModel, newConstantsMap);
+      return new ValueAnalysisState(machineModel, newConstantsMap, interner);
     }
   }
 
@@ -384,6 +436,9 @@ public final class ValueAnalysisState
    */
   @Override
   public boolean isLessOrEqual(ValueAnalysisState other) {
+    if (this == other) {
+      return true;
+    }
 
     // also, this element is not less or equal than the other element, if it contains less elements
     if (constantsMap.size() < other.constantsMap.size()) {
@@ -427,6 +482,10 @@ public final class ValueAnalysisState
     }
 
     ValueAnalysisState otherElement = (ValueAnalysisState) other;
+    if (interned && otherElement.interned && interner == otherElement.interner) {
+      // canonical states are unique
+      return false;
+    }
     // hashCode is used as optimization: about 20% speedup when using many SingletonSets
     return otherElement.hashCode == hashCode && otherElement.constantsMap.equals(constantsMap);
   }
@@ -752,6 +811,16 @@ public final class ValueAnalysisState
     return this;
   }
 
+  /**
+   * The features are the assignments of this state, without their types. A state is only
+   * 'lessOrEqual' to another state if it contains all assignments of the other state.
+   */
+  @Override
+  public Collection<?> getCoverageFeatures() {
+    return Collections2.transform(
+        constantsMap.entrySet(), e -> Maps.immutableEntry(e.getKey(), e.getValue().getValue()));
+  }
+
   public static class ValueAndType implements Serializable {
     private static final long serialVersionUID = 1L;
     private final Value value;
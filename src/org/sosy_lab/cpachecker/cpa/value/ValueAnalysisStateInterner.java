@@ -0,0 +1,92 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.PrintStream;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisState.ValueAndType;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Hash-consing of value-analysis states. Equal states are represented by a single canonical
+ * instance, such that duplicate states along different paths share their memory, and equality of
+ * canonical states is a pointer comparison. The memory locations and values that are assigned in
+ * states with an interner are shared, too.
+ *
+ * <p>All tables use weak references, such that canonical instances do not prevent garbage
+ * collection. The interner is thread-safe.
+ */
+final class ValueAnalysisStateInterner implements Statistics {
+
+  private final Interner<ValueAnalysisState> states = Interners.newWeakInterner();
+  private final Interner<MemoryLocation> memoryLocations = Interners.newWeakInterner();
+  private final Interner<ValueAndType> values = Interners.newWeakInterner();
+
+  private final StatCounter newStates = new StatCounter("Number of new canonical states");
+  private final StatCounter reusedStates = new StatCounter("Number of reused canonical states");
+
+  /**
+   * Return the canonical instance for the given state. The given state becomes canonical itself if
+   * there is no equal state yet, and must not be modified afterwards.
+   */
+  ValueAnalysisState intern(ValueAnalysisState pState) {
+    if (pState.isInterned()) {
+      return pState;
+    }
+    ValueAnalysisState canonical = states.intern(pState);
+    // Another thread may get the canonical state from the interner before the thread that added
+    // it has marked it, thus every thread marks the state before returning it.
+    canonical.markInterned();
+    if (canonical == pState) {
+      newStates.inc();
+    } else {
+      reusedStates.inc();
+    }
+    return canonical;
+  }
+
+  MemoryLocation intern(MemoryLocation pMemoryLocation) {
+    return memoryLocations.intern(pMemoryLocation);
+  }
+
+  ValueAndType intern(ValueAndType pValue) {
+    return values.intern(pValue);
+  }
+
+  @Override
+  public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter.writingStatisticsTo(pOut).put(newStates).put(reusedStates);
+  }
+
+  @Override
+  public String getName() {
+    return "ValueAnalysisStateInterner";
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.cpa.value;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+
+public class ValueAnalysisStateInternerTest {
+
+  private ValueAnalysisStateInterner interner;
+
+  @Before
+  public void setUp() {
+    interner = new ValueAnalysisStateInterner();
+  }
+
+  private ValueAnalysisState createState(int pValue) {
+    ValueAnalysisState state = new ValueAnalysisState(MachineModel.LINUX32, interner);
+    state.assignConstant("main::x", new NumericValue(pValue));
+    state.assignConstant("main::y", new NumericValue(0));
+    return state;
+  }
+
+  @Test
+  public void testEqualStatesAreShared() {
+    ValueAnalysisState first = createState(1);
+    ValueAnalysisState second = createState(1);
+    assertThat(second).isNotSameInstanceAs(first);
+
+    ValueAnalysisState canonical = first.intern();
+    assertThat(canonical).isSameInstanceAs(first);
+    assertThat(second.intern()).isSameInstanceAs(canonical);
+    assertThat(canonical.intern()).isSameInstanceAs(canonical);
+    assertThat(canonical.isInterned()).isTrue();
+    assertThat(second.isInterned()).isFalse();
+  }
+
+  @Test
+  public void testDifferentStatesAreNotShared() {
+    ValueAnalysisState first = createState(1).intern();
+    ValueAnalysisState second = createState(2).intern();
+    assertThat(second).isNotSameInstanceAs(first);
+    assertThat(second).isNotEqualTo(first);
+    assertThat(createState(2).intern()).isSameInstanceAs(second);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCanonicalStateIsImmutable() {
+    ValueAnalysisState canonical = createState(1).intern();
+    canonical.assignConstant("main::x", new NumericValue(2));
+  }
+
+  @Test
+  public void testConcurrentInterning() throws Exception {
+    final int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<ValueAnalysisState>> results = new ArrayList<>();
+      for (int i = 0; i < 100 * threads; i++) {
+        results.add(executor.submit(() -> createState(1).intern()));
+      }
+      ValueAnalysisState canonical = results.get(0).get();
+      for (Future<ValueAnalysisState> result : results) {
+        ValueAnalysisState state = result.get();
+        assertThat(state).isSameInstanceAs(canonical);
+        assertThat(state.isInterned()).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -201,6 +201,24 @@ public class ValueAnalysisRefiner
     checker = pFeasibilityChecker;
     concreteErrorPathAllocator = new ValueAnalysisConcreteErrorPathAllocator(pConfig, logger, pCfa.getMachineModel());
     shutdownNotifier = pShutdownNotifier;
+
+    enableConcurrentInterpolation(
+        () -> {
+          StrongestPostOperator<ValueAnalysisState> workerStrongestPostOp =
+              new ValueAnalysisStrongestPostOperator(pLogger, pConfig, pCfa);
+          ValueAnalysisFeasibilityChecker workerChecker =
+              new ValueAnalysisFeasibilityChecker(workerStrongestPostOp, pLogger, pCfa, pConfig);
+          return Pair.of(
+              new ValueAnalysisPathInterpolator(
+                  workerChecker,
+                  workerStrongestPostOp,
+                  new ValueAnalysisPrefixProvider(pLogger, pCfa, pConfig, pShutdownNotifier),
+                  pConfig,
+                  pLogger,
+                  pShutdownNotifier,
+                  pCfa),
+              workerChecker);
+        });
   }
 
   @Override
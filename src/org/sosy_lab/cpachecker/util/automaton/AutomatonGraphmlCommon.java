@@ -28,6 +28,7 @@ import static org.sosy_lab.common.collect.Collections3.transformedImmutableListC
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
@@ -44,6 +45,7 @@ import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -56,6 +58,9 @@ import java.util.Set;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
@@ -348,6 +353,51 @@ public class AutomatonGraphmlCommon {
     return BaseEncoding.base16().lowerCase().encode(hash.asBytes());
   }
 
+  /**
+   * Compute the data of the graph element of a GraphML witness, i.e., the meta data of the
+   * verification task.
+   */
+  private static ImmutableListMultimap<KeyDef, String> getGraphData(
+      WitnessType pGraphType, CFA pCfa, VerificationTaskMetaData pVerificationTaskMetaData)
+      throws IOException {
+    ImmutableListMultimap.Builder<KeyDef, String> result = ImmutableListMultimap.builder();
+    result.put(KeyDef.WITNESS_TYPE, pGraphType.toString());
+    result.put(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString());
+    result.put(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString());
+
+    int nSpecs = 0;
+    for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
+      result.put(KeyDef.SPECIFICATION, property.toString());
+      ++nSpecs;
+    }
+
+    for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
+      result.put(
+          KeyDef.SPECIFICATION, MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim());
+      ++nSpecs;
+    }
+
+    if (nSpecs == 0) {
+      result.put(KeyDef.SPECIFICATION, "TRUE");
+    }
+
+    for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
+      result.put(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness));
+    }
+
+    for (Path programFile : pCfa.getFileNames()) {
+      result.put(KeyDef.PROGRAMFILE, programFile.toString());
+    }
+    for (Path programFile : pCfa.getFileNames()) {
+      result.put(KeyDef.PROGRAMHASH, computeHash(programFile));
+    }
+
+    result.put(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel()));
+    ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
+    result.put(KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+    return result.build();
+  }
+
   public static class GraphMlBuilder {
 
     private final Document doc;
@@ -380,47 +430,10 @@ public class AutomatonGraphmlCommon {
       graph = doc.createElement("graph");
       root.appendChild(graph);
       graph.setAttribute("edgedefault", "directed");
-      graph.appendChild(createDataElement(KeyDef.WITNESS_TYPE, pGraphType.toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.SOURCECODELANGUAGE, pCfa.getLanguage().toString()));
-      graph.appendChild(
-          createDataElement(KeyDef.PRODUCER, pVerificationTaskMetaData.getProducerString()));
-
-      int nSpecs = 0;
-      for (SpecificationProperty property : pVerificationTaskMetaData.getProperties()) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, property.toString()));
-        ++nSpecs;
+      for (Map.Entry<KeyDef, String> data :
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData).entries()) {
+        graph.appendChild(createDataElement(data.getKey(), data.getValue()));
       }
-
-      for (Path specFile : pVerificationTaskMetaData.getNonPropertySpecificationFiles()) {
-        graph.appendChild(
-            createDataElement(
-                KeyDef.SPECIFICATION,
-                MoreFiles.asCharSource(specFile, Charsets.UTF_8).read().trim()));
-        ++nSpecs;
-      }
-
-      if (nSpecs == 0) {
-        graph.appendChild(createDataElement(KeyDef.SPECIFICATION, "TRUE"));
-      }
-
-      for (Path inputWitness : pVerificationTaskMetaData.getInputWitnessFiles()) {
-        graph.appendChild(createDataElement(KeyDef.INPUTWITNESSHASH, computeHash(inputWitness)));
-      }
-
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMFILE, programFile.toString()));
-      }
-      for (Path programFile : pCfa.getFileNames()) {
-        graph.appendChild(createDataElement(KeyDef.PROGRAMHASH, computeHash(programFile)));
-      }
-
-      graph.appendChild(
-          createDataElement(KeyDef.ARCHITECTURE, getArchitecture(pCfa.getMachineModel())));
-      ZonedDateTime now = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
-      graph.appendChild(
-          createDataElement(
-              KeyDef.CREATIONTIME, now.format(DateTimeFormatter.ISO_OFFSET_DATE_TIME)));
     }
 
     private void defineKey(KeyDef pKeyDef) {
@@ -525,6 +538,194 @@ public class AutomatonGraphmlCommon {
 
   }
 
+  /**
+   * Writes a GraphML document directly to its target while the nodes and edges are produced,
+   * instead of building the whole document in memory like {@link GraphMlBuilder}. The key
+   * definitions precede the graph, thus the keys of all data of nodes and edges need to be known
+   * upfront. Like in {@link GraphMlBuilder}, the key definitions are written in the order in which
+   * the keys are declared in {@link KeyDef}, not in the order of their first use. After all nodes
+   * and edges are written, {@link #finish()} needs to be called.
+   */
+  public static class GraphMlWriter {
+
+    private final XMLStreamWriter out;
+    private final Set<KeyDef> keys;
+    private int depth = 0;
+
+    private int writtenNodes = 0;
+    private int writtenEdges = 0;
+
+    public GraphMlWriter(
+        Appendable pTarget,
+        Set<KeyDef> pNodeAndEdgeKeys,
+        WitnessType pGraphType,
+        @Nullable String pDefaultSourceFileName,
+        CFA pCfa,
+        VerificationTaskMetaData pVerificationTaskMetaData)
+        throws IOException {
+      ImmutableListMultimap<KeyDef, String> graphData =
+          getGraphData(pGraphType, pCfa, pVerificationTaskMetaData);
+      // an EnumSet iterates in declaration order, like the EnumMap of GraphMlBuilder
+      keys = EnumSet.of(KeyDef.ORIGINFILE);
+      keys.addAll(pNodeAndEdgeKeys);
+      for (KeyDef keyDef : KeyDef.values()) {
+        if (keyDef.keyFor == ElementType.GRAPH) {
+          keys.add(keyDef);
+        }
+      }
+
+      try {
+        out = XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        out.writeStartDocument("UTF-8", "1.0");
+        newLine();
+        out.writeStartElement("graphml");
+        out.writeDefaultNamespace("http://graphml.graphdrawing.org/xmlns");
+        out.writeNamespace("xsi", "http://www.w3.org/2001/XMLSchema-instance");
+        depth++;
+
+        for (KeyDef keyDef : keys) {
+          String defaultValue =
+              keyDef == KeyDef.ORIGINFILE && pDefaultSourceFileName != null
+                  ? pDefaultSourceFileName
+                  : keyDef.defaultValue;
+          newLine();
+          if (defaultValue == null) {
+            out.writeEmptyElement(GraphMLTag.KEY.toString());
+          } else {
+            out.writeStartElement(GraphMLTag.KEY.toString());
+          }
+          out.writeAttribute("id", keyDef.id);
+          out.writeAttribute("for", keyDef.keyFor.toString());
+          out.writeAttribute("attr.name", keyDef.attrName);
+          out.writeAttribute("attr.type", keyDef.attrType);
+          if (defaultValue != null) {
+            depth++;
+            newLine();
+            out.writeStartElement(GraphMLTag.DEFAULT.toString());
+            out.writeCharacters(defaultValue);
+            out.writeEndElement();
+            depth--;
+            newLine();
+            out.writeEndElement();
+          }
+        }
+
+        newLine();
+        out.writeStartElement(GraphMLTag.GRAPH.toString());
+        out.writeAttribute("edgedefault", "directed");
+        depth++;
+        writeData(graphData.entries());
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    /**
+     * Write a node with the given data, whose keys were given to the constructor. A node type
+     * other than {@link AutomatonGraphmlCommon#defaultNodeType} is given as data for {@link
+     * KeyDef#NODETYPE}, such that its key is declared like all others.
+     */
+    public void writeNode(String pNodeId, Collection<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        startElement(GraphMLTag.NODE, pData.isEmpty());
+        out.writeAttribute("id", pNodeId);
+        endElement(pData);
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+      writtenNodes++;
+    }
+
+    /** Write an edge with the given data, whose keys were given to the constructor. */
+    public void writeEdge(String pFrom, String pTo, Collection<Map.Entry<KeyDef, String>> pData)
+        throws IOException {
+      try {
+        startElement(GraphMLTag.EDGE, pData.isEmpty());
+        out.writeAttribute("source", pFrom);
+        out.writeAttribute("target", pTo);
+        endElement(pData);
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+      writtenEdges++;
+    }
+
+    /** Close the graph and the document, and flush all output to the target. */
+    public void finish() throws IOException {
+      try {
+        depth--;
+        newLine();
+        out.writeEndElement(); // graph
+        depth--;
+        newLine();
+        out.writeEndElement(); // graphml
+        out.writeEndDocument();
+        newLine();
+        out.flush();
+      } catch (XMLStreamException e) {
+        throw asIOException(e);
+      }
+    }
+
+    public int getWrittenNodes() {
+      return writtenNodes;
+    }
+
+    public int getWrittenEdges() {
+      return writtenEdges;
+    }
+
+    private void startElement(GraphMLTag pTag, boolean pEmpty) throws XMLStreamException {
+      newLine();
+      if (pEmpty) {
+        out.writeEmptyElement(pTag.toString());
+      } else {
+        out.writeStartElement(pTag.toString());
+      }
+    }
+
+    /** Write the data children of the current element and close it, unless it is empty. */
+    private void endElement(Collection<Map.Entry<KeyDef, String>> pData)
+        throws XMLStreamException {
+      if (!pData.isEmpty()) {
+        depth++;
+        writeData(pData);
+        depth--;
+        newLine();
+        out.writeEndElement();
+      }
+    }
+
+    private void writeData(Collection<Map.Entry<KeyDef, String>> pData)
+        throws XMLStreamException {
+      for (Map.Entry<KeyDef, String> data : pData) {
+        Preconditions.checkArgument(
+            keys.contains(data.getKey()), "key %s was not declared", data.getKey());
+        newLine();
+        out.writeStartElement(GraphMLTag.DATA.toString());
+        out.writeAttribute("key", data.getKey().id);
+        out.writeCharacters(data.getValue());
+        out.writeEndElement();
+      }
+    }
+
+    private void newLine() throws XMLStreamException {
+      out.writeCharacters("\n");
+      for (int i = 0; i < depth; i++) {
+        out.writeCharacters(" ");
+      }
+    }
+
+    private static IOException asIOException(XMLStreamException e) {
+      if (e.getNestedException() instanceof IOException) {
+        return (IOException) e.getNestedException();
+      }
+      return new IOException(e);
+    }
+  }
+
+
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
       pAdditionalInfo) {
     if (pAdditionalInfo != null && !pAdditionalInfo.getInfos().isEmpty()) {
@@ -23,7 +23,6 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.interpolation;
 
-import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.div;
 
@@ -49,9 +48,11 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -168,6 +169,12 @@ public final class InterpolationManager {
       w1.put("Reused formulas on solver stack", reusedFormulasOnSolverStack + " (Avg: " + div(reusedFormulasOnSolverStack, satCheckTimer.getNumberOfIntervals()) + ")");
     }
     w1.put("Interpolant computation", getInterpolantTimer);
+    if (prefixCache != null) {
+      w1.put(prefixCache.cacheHits)
+          .put(prefixCache.cacheMisses)
+          .put(prefixCache.skippedChecks)
+          .put(prefixCache.evictions);
+    }
     if (interpolantVerificationTimer.getNumberOfIntervals() > 0) {
       w1.put("Interpolant verification", interpolantVerificationTimer);
     }
@@ -182,7 +189,8 @@ public final class InterpolationManager {
   private final Solver solver;
   private Configuration myConfig;
 
-  private final Interpolator<?> interpolator;
+  /** The reused solver environments, the most recently used one first. */
+  private final List<Interpolator<?>> reusedInterpolators = new ArrayList<>();
 
   @Option(secure=true, description="apply deletion-filter to the abstract counterexample, to get "
     + "a minimal set of blocks, before applying interpolation-based refinement")
@@ -254,6 +262,27 @@ public final class InterpolationManager {
   @Option(secure=true, description="Use a single SMT solver environment for several interpolation queries")
   private boolean reuseInterpolationEnvironment = false;
 
+  @Option(
+      secure = true,
+      description =
+          "number of SMT solver environments that are kept if reuseInterpolationEnvironment "
+              + "is enabled. Each query resumes the solver stack that shares the longest prefix "
+              + "with the counterexample, the least recently used one is replaced if necessary.")
+  @IntegerOption(min = 1)
+  private int interpolationEnvironments = 1;
+
+  @Option(
+      secure = true,
+      description =
+          "cache the feasible prefixes of counterexamples across refinements, such that "
+              + "incrementalCexTraceCheck does not check them again "
+              + "(maximal number of cached block formulas, 0 to disable). "
+              + "The least recently used prefixes are evicted first.")
+  @IntegerOption(min = 0)
+  private int prefixCacheSize = 0;
+
+  private final @Nullable InterpolationPrefixCache prefixCache;
+
   private final ExecutorService executor;
   private final LoopStructure loopStructure;
   private final VariableClassification variableClassification;
@@ -286,10 +315,15 @@ public final class InterpolationManager {
           Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true).build());
     }
 
-    if (reuseInterpolationEnvironment) {
-      interpolator = new Interpolator<>();
+    if (prefixCacheSize > 0) {
+      if (!incrementalCheck) {
+        throw new InvalidConfigurationException(
+            "Caching of feasible prefixes requires "
+                + "cpa.predicate.refinement.incrementalCexTraceCheck.");
+      }
+      prefixCache = new InterpolationPrefixCache(prefixCacheSize);
     } else {
-      interpolator = null;
+      prefixCache = null;
     }
   }
 
@@ -362,15 +396,14 @@ public final class InterpolationManager {
 
       final Interpolator<?> currentInterpolator;
       if (reuseInterpolationEnvironment) {
-        currentInterpolator = checkNotNull(interpolator);
+        currentInterpolator = selectInterpolator(f.getFormulas());
       } else {
         currentInterpolator = new Interpolator<>();
       }
 
       try {
         try {
-          return currentInterpolator.buildCounterexampleTrace(
-              f, pAbstractionStates);
+          return currentInterpolator.buildCounterexampleTrace(f, pAbstractionStates);
         } finally {
           if (!reuseInterpolationEnvironment) {
             currentInterpolator.close();
@@ -389,6 +422,35 @@ public final class InterpolationManager {
     }
   }
 
+  /**
+   * Select the reused solver environment whose solver stack shares the longest prefix with the
+   * given formulas. The formulas are compared in their original order, even if the
+   * counterexample is checked in a different direction. If no solver stack shares a prefix, a new
+   * environment is created, or the least recently used one is replaced if there are already
+   * {@link #interpolationEnvironments} environments.
+   */
+  private Interpolator<?> selectInterpolator(List<BooleanFormula> pFormulas) {
+    Interpolator<?> best = null;
+    int bestLength = 0;
+    for (Interpolator<?> candidate : reusedInterpolators) {
+      int length = candidate.getCommonPrefixLength(pFormulas);
+      if (length > bestLength) {
+        best = candidate;
+        bestLength = length;
+      }
+    }
+
+    if (best != null) {
+      reusedInterpolators.remove(best);
+    } else if (reusedInterpolators.size() < interpolationEnvironments) {
+      best = new Interpolator<>();
+    } else {
+      best = reusedInterpolators.remove(reusedInterpolators.size() - 1);
+    }
+    reusedInterpolators.add(0, best);
+    return best;
+  }
+
   /**
    * Counterexample analysis without interpolation. Use this method if you want to check a
    * counterexample for feasibility and in case of a feasible counterexample want the proper path
@@ -943,6 +1005,9 @@ public final class InterpolationManager {
       // which formulas need to be removed from the solver stack,
       // and which formulas need to be added to the solver stack
       ListIterator<Triple<BooleanFormula, AbstractState, Integer>> todoIterator = traceFormulas.listIterator();
+      List<BooleanFormula> stackFormulas = Lists.transform(traceFormulas, Triple::getFirst);
+      int knownFeasiblePrefix =
+          prefixCache == null ? 0 : prefixCache.getFeasiblePrefixLength(stackFormulas);
       int firstBadIndex =
           getIndexOfFirstNonReusableFormula(formulasWithStatesAndGroupdIds, todoIterator);
 
@@ -950,7 +1015,8 @@ public final class InterpolationManager {
       cleanupSolverStack(firstBadIndex);
 
       // push new formulas onto the solver stack
-      addNewFormulasToStack(formulasWithStatesAndGroupdIds, todoIterator);
+      int feasiblePrefix =
+          addNewFormulasToStack(formulasWithStatesAndGroupdIds, todoIterator, knownFeasiblePrefix);
 
       assert Iterables.elementsEqual(
           from(traceFormulas).transform(Triple::getFirst),
@@ -959,7 +1025,11 @@ public final class InterpolationManager {
       // we have to do the sat check every time, as it could be that also
       // with incremental checking it was missing (when the path is infeasible
       // and formulas get pushed afterwards)
-      return itpProver.isUnsat();
+      boolean unsat = itpProver.isUnsat();
+      if (prefixCache != null) {
+        prefixCache.putFeasiblePrefix(stackFormulas, unsat ? feasiblePrefix : stackFormulas.size());
+      }
+      return unsat;
     }
 
     /**
@@ -1041,17 +1111,26 @@ public final class InterpolationManager {
      *
      * @param formulasWithStatesAndGroupdIds the new sorted collection of formulas, with indizes
      * @param todoIterator iterator from the new collection of formulas, is the new starting point
+     * @param knownFeasiblePrefix the number of formulas on the new solver stack that are known to
+     *     be satisfiable, these are not checked again
+     * @return the number of formulas on the solver stack that were found to be satisfiable by the
+     *     incremental check
      */
-    private void addNewFormulasToStack(
+    private int addNewFormulasToStack(
         final List<Triple<BooleanFormula, AbstractState, T>> formulasWithStatesAndGroupdIds,
-        ListIterator<Triple<BooleanFormula, AbstractState, Integer>> todoIterator)
+        ListIterator<Triple<BooleanFormula, AbstractState, Integer>> todoIterator,
+        int knownFeasiblePrefix)
         throws SolverException, InterruptedException {
       boolean isStillFeasible = true;
+      int feasiblePrefix = 0;
 
       // we do only need this unsat call here if we are using the incremental
       // checking option, otherwise it is anyway done later on
       if (incrementalCheck && !currentlyAssertedFormulas.isEmpty()) {
-        isStillFeasible = !itpProver.isUnsat();
+        isStillFeasible = isStillFeasible(knownFeasiblePrefix);
+        if (isStillFeasible) {
+          feasiblePrefix = currentlyAssertedFormulas.size();
+        }
       }
 
       // add remaining formulas to the solver stack
@@ -1070,10 +1149,37 @@ public final class InterpolationManager {
 
         // We need to iterate through the full loop
         // to add all formulas, but this prevents us from doing further sat checks.
-        if (incrementalCheck && isStillFeasible && !bfmgr.isTrue(f)) {
-          isStillFeasible = !itpProver.isUnsat();
+        if (incrementalCheck && isStillFeasible) {
+          if (!bfmgr.isTrue(f)) {
+            isStillFeasible = isStillFeasible(knownFeasiblePrefix);
+          }
+          if (isStillFeasible) {
+            feasiblePrefix = currentlyAssertedFormulas.size();
+          }
         }
       }
+      return feasiblePrefix;
+    }
+
+    /** Check whether the formulas on the solver stack are satisfiable, unless this is known. */
+    private boolean isStillFeasible(int knownFeasiblePrefix)
+        throws SolverException, InterruptedException {
+      if (currentlyAssertedFormulas.size() <= knownFeasiblePrefix) {
+        prefixCache.skippedChecks.inc();
+        return true;
+      }
+      return !itpProver.isUnsat();
+    }
+
+    /** Return the number of formulas on the solver stack that equal the start of the given ones. */
+    private int getCommonPrefixLength(List<BooleanFormula> pFormulas) {
+      int length = 0;
+      while (length < currentlyAssertedFormulas.size()
+          && length < pFormulas.size()
+          && currentlyAssertedFormulas.get(length).getFirst().equals(pFormulas.get(length))) {
+        length++;
+      }
+      return length;
     }
 
     private void close() {
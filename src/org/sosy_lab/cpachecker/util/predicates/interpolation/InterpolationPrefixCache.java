@@ -0,0 +1,138 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * A cache for the feasible prefixes of counterexamples across refinements, keyed by the sequence
+ * of formulas in the order in which they are pushed onto the solver stack.
+ *
+ * <p>Consecutive refinements often check counterexamples that share long prefixes with earlier
+ * ones. If a sequence of formulas is satisfiable, all its prefixes are satisfiable, too, and an
+ * incremental feasibility check does not need to check them again. Infeasible counterexamples are
+ * not cached, because reusing the interpolants of an earlier refinement would not make progress.
+ *
+ * <p>The cache is a trie over the formulas, in which each node represents a satisfiable prefix.
+ * The size of the cache is its number of nodes. If it grows larger than the maximal size, the least
+ * recently used leaves are evicted. Each access touches the nodes of a path from the leaf to the
+ * root, thus a node is always more recently used than its children and the least recently used
+ * node is always a leaf.
+ */
+final class InterpolationPrefixCache {
+
+  private static final class Node {
+    private final @Nullable Node parent;
+    private final @Nullable BooleanFormula formula;
+    private final Map<BooleanFormula, Node> children = new HashMap<>();
+
+    private Node(@Nullable Node pParent, @Nullable BooleanFormula pFormula) {
+      parent = pParent;
+      formula = pFormula;
+    }
+  }
+
+  private final int maxSize;
+  private final Node root = new Node(null, null);
+
+  /** All nodes except the root, ordered by their last access (least recently used first). */
+  private final LinkedHashMap<Node, Boolean> nodes = new LinkedHashMap<>(16, 0.75f, true);
+
+  final StatCounter cacheHits = new StatCounter("Counterexamples with cached feasible prefix");
+  final StatCounter cacheMisses = new StatCounter("Counterexamples without cached feasible prefix");
+  final StatCounter skippedChecks =
+      new StatCounter("Satisfiability checks skipped for cached feasible prefixes");
+  final StatCounter evictions = new StatCounter("Feasible prefixes evicted from cache");
+
+  /** @param pMaxSize the maximal number of cached formulas */
+  InterpolationPrefixCache(int pMaxSize) {
+    checkArgument(pMaxSize > 0);
+    maxSize = pMaxSize;
+  }
+
+  /** Return the length of the longest prefix of the given formulas that is known to be feasible. */
+  int getFeasiblePrefixLength(List<BooleanFormula> pFormulas) {
+    List<Node> path = new ArrayList<>();
+    Node current = root;
+    for (BooleanFormula f : pFormulas) {
+      current = current.children.get(f);
+      if (current == null) {
+        break;
+      }
+      path.add(current);
+    }
+    touch(path);
+
+    if (path.isEmpty()) {
+      cacheMisses.inc();
+    } else {
+      cacheHits.inc();
+    }
+    return path.size();
+  }
+
+  /** Remember that the first formulas of the given list are satisfiable. */
+  void putFeasiblePrefix(List<BooleanFormula> pFormulas, int pLength) {
+    checkArgument(0 <= pLength && pLength <= pFormulas.size());
+    List<Node> path = new ArrayList<>(pLength);
+    Node current = root;
+    for (BooleanFormula f : pFormulas.subList(0, pLength)) {
+      Node parent = current;
+      current = parent.children.computeIfAbsent(f, k -> new Node(parent, k));
+      path.add(current);
+    }
+    touch(path);
+
+    Iterator<Node> eldest = nodes.keySet().iterator();
+    while (nodes.size() > maxSize) {
+      Node leaf = eldest.next();
+      assert leaf.children.isEmpty() : "least recently used node is not a leaf";
+      eldest.remove();
+      leaf.parent.children.remove(leaf.formula);
+      evictions.inc();
+    }
+  }
+
+  /** Mark the nodes of a path from the root as most recently used, the root-most node last. */
+  private void touch(List<Node> pPath) {
+    for (Node node : Lists.reverse(pPath)) {
+      nodes.put(node, Boolean.TRUE);
+    }
+  }
+
+  int size() {
+    return nodes.size();
+  }
+}
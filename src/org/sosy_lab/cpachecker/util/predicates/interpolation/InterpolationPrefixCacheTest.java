@@ -0,0 +1,129 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.interpolation;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class InterpolationPrefixCacheTest {
+
+  private final BooleanFormula a = mock(BooleanFormula.class);
+  private final BooleanFormula b = mock(BooleanFormula.class);
+  private final BooleanFormula c = mock(BooleanFormula.class);
+  private final BooleanFormula d = mock(BooleanFormula.class);
+
+  @Test
+  public void testEmptyCache() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(10);
+
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b))).isEqualTo(0);
+    assertThat(cache.cacheMisses.getValue()).isEqualTo(1);
+    assertThat(cache.cacheHits.getValue()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSharedPrefix() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(10);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b, c), 3);
+
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, c))).isEqualTo(3);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, c, d))).isEqualTo(3);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, d))).isEqualTo(2);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a))).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(b, c))).isEqualTo(0);
+    assertThat(cache.cacheHits.getValue()).isEqualTo(4);
+    assertThat(cache.cacheMisses.getValue()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOnlyFeasiblePartIsStored() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(10);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b, c), 1);
+
+    assertThat(cache.size()).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, c))).isEqualTo(1);
+
+    cache.putFeasiblePrefix(ImmutableList.of(a, b), 0);
+    assertThat(cache.size()).isEqualTo(1);
+  }
+
+  @Test
+  public void testPrefixesAreShared() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(10);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b, c), 3);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b, d), 3);
+
+    assertThat(cache.size()).isEqualTo(4);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, c))).isEqualTo(3);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, d))).isEqualTo(3);
+  }
+
+  @Test
+  public void testLeastRecentlyUsedLeafIsEvicted() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(3);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b), 2);
+    cache.putFeasiblePrefix(ImmutableList.of(c), 1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a))).isEqualTo(1);
+
+    // b is the least recently used node, its parent a was used later
+    cache.putFeasiblePrefix(ImmutableList.of(d), 1);
+
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.evictions.getValue()).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b))).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(c))).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(d))).isEqualTo(1);
+  }
+
+  @Test
+  public void testEvictionKeepsOtherPrefixes() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(3);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b), 2);
+    cache.putFeasiblePrefix(ImmutableList.of(c, d), 2);
+
+    // the path a, b is older than c, d, so its leaf b is evicted first
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b))).isEqualTo(1);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(c, d))).isEqualTo(2);
+
+    cache.putFeasiblePrefix(ImmutableList.of(b), 1);
+    assertThat(cache.size()).isEqualTo(3);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a))).isEqualTo(0);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(c, d))).isEqualTo(2);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(b))).isEqualTo(1);
+  }
+
+  @Test
+  public void testLongPrefixIsTruncated() {
+    InterpolationPrefixCache cache = new InterpolationPrefixCache(2);
+    cache.putFeasiblePrefix(ImmutableList.of(a, b, c, d), 4);
+
+    assertThat(cache.size()).isEqualTo(2);
+    assertThat(cache.getFeasiblePrefixLength(ImmutableList.of(a, b, c, d))).isEqualTo(2);
+  }
+}
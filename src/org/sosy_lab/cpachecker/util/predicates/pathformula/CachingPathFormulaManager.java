@@ -23,10 +23,13 @@
  */
 package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import java.io.PrintStream;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -48,6 +51,7 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 /**
  * Implementation of {@link PathFormulaManager} that delegates to another
  * instance but caches results of some methods.
+ * The caches can be bounded, then the least recently used entries are evicted.
  */
 public class CachingPathFormulaManager implements PathFormulaManager {
 
@@ -56,29 +60,49 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   public final PathFormulaManager delegate;
 
-  private final Map<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>> andFormulaWithConditionsCache
-            = new HashMap<>();
-  private final Map<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<CFAEdge, PathFormula>, Pair<PathFormula, ErrorConditions>>
+      andFormulaWithConditionsCache;
+  private final Cache<Pair<CFAEdge, PathFormula>, PathFormula> andFormulaCache;
 
-  private final Map<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache
-            = new HashMap<>();
+  private final Cache<Pair<PathFormula, PathFormula>, PathFormula> orFormulaCache;
 
-  private final Map<PathFormula, PathFormula> emptyFormulaCache
-            = new HashMap<>();
+  private final Cache<PathFormula, PathFormula> emptyFormulaCache;
 
   private final PathFormula emptyFormula;
 
   public CachingPathFormulaManager(PathFormulaManager pDelegate) {
+    this(pDelegate, 0);
+  }
+
+  /**
+   * Create a caching path-formula manager.
+   *
+   * @param pMaxCacheSize the maximum number of entries of each cache, or 0 for unbounded caches.
+   */
+  public CachingPathFormulaManager(PathFormulaManager pDelegate, long pMaxCacheSize) {
+    checkArgument(pMaxCacheSize >= 0, "cache size must not be negative");
     delegate = pDelegate;
     emptyFormula = delegate.makeEmptyPathFormula();
+    andFormulaWithConditionsCache = createCache(pMaxCacheSize);
+    andFormulaCache = createCache(pMaxCacheSize);
+    orFormulaCache = createCache(pMaxCacheSize);
+    emptyFormulaCache = createCache(pMaxCacheSize);
+  }
+
+  private static <K, V> Cache<K, V> createCache(long pMaxCacheSize) {
+    // no concurrent access expected, a single segment gives the best LRU approximation
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().concurrencyLevel(1);
+    if (pMaxCacheSize > 0) {
+      builder = builder.maximumSize(pMaxCacheSize);
+    }
+    return builder.recordStats().build();
   }
 
   @Override
   public Pair<PathFormula, ErrorConditions> makeAndWithErrorConditions(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
 
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.get(formulaCacheKey);
+    Pair<PathFormula, ErrorConditions> result = andFormulaWithConditionsCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       pathFormulaComputationTimer.start();
       // compute new pathFormula with the operation on the edge
@@ -95,7 +119,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
   @Override
   public PathFormula makeAnd(PathFormula pOldFormula, CFAEdge pEdge) throws CPATransferException, InterruptedException {
     final Pair<CFAEdge, PathFormula> formulaCacheKey = Pair.of(pEdge, pOldFormula);
-    PathFormula result = andFormulaCache.get(formulaCacheKey);
+    PathFormula result = andFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       try {
       pathFormulaComputationTimer.start();
@@ -114,14 +138,11 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeOr(PathFormula pF1, PathFormula pF2) throws InterruptedException {
-    final Pair<PathFormula, PathFormula> formulaCacheKey = Pair.of(pF1, pF2);
-
-    PathFormula result = orFormulaCache.get(formulaCacheKey);
-    if (result == null) {
-      // try again with other order
-      result = orFormulaCache.get(Pair.of(pF2, pF1));
-    }
+    // the disjunction is symmetric, so both orders of the arguments share one cache entry
+    final Pair<PathFormula, PathFormula> formulaCacheKey =
+        pF1.hashCode() <= pF2.hashCode() ? Pair.of(pF1, pF2) : Pair.of(pF2, pF1);
 
+    PathFormula result = orFormulaCache.getIfPresent(formulaCacheKey);
     if (result == null) {
       result = delegate.makeOr(pF1, pF2);
       orFormulaCache.put(formulaCacheKey, result);
@@ -138,7 +159,7 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public PathFormula makeEmptyPathFormula(PathFormula pOldFormula) {
-    PathFormula result = emptyFormulaCache.get(pOldFormula);
+    PathFormula result = emptyFormulaCache.getIfPresent(pOldFormula);
     if (result == null) {
       result = delegate.makeEmptyPathFormula(pOldFormula);
       emptyFormulaCache.put(pOldFormula, result);
@@ -205,10 +226,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
 
   @Override
   public void clearCaches() {
-    andFormulaWithConditionsCache.clear();
-    andFormulaCache.clear();
-    orFormulaCache.clear();
-    emptyFormulaCache.clear();
+    andFormulaWithConditionsCache.invalidateAll();
+    andFormulaCache.invalidateAll();
+    orFormulaCache.invalidateAll();
+    emptyFormulaCache.invalidateAll();
     delegate.clearCaches();
   }
 
@@ -234,6 +255,10 @@ public class CachingPathFormulaManager implements PathFormulaManager {
             + " ("
             + toPercent(cacheHits, totalPathFormulaComputations)
             + ")");
+    printCacheStatistics(out, "and", andFormulaCache);
+    printCacheStatistics(out, "and with error conditions", andFormulaWithConditionsCache);
+    printCacheStatistics(out, "or", orFormulaCache);
+    printCacheStatistics(out, "empty", emptyFormulaCache);
     out.println();
 
     out.println("Inside post operator:                  ");
@@ -244,6 +269,22 @@ public class CachingPathFormulaManager implements PathFormulaManager {
     delegate.printStatistics(out);
   }
 
+  private static void printCacheStatistics(PrintStream out, String name, Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    if (stats.requestCount() == 0) {
+      return;
+    }
+    out.println(
+        String.format(
+            "  Cache for %s: size=%d, hits=%d (%s), misses=%d, evictions=%d",
+            name,
+            cache.size(),
+            stats.hitCount(),
+            toPercent(stats.hitCount(), stats.requestCount()),
+            stats.missCount(),
+            stats.evictionCount()));
+  }
+
   @Override
   public BooleanFormula addBitwiseAxiomsIfNeeded(final BooleanFormula pMainFormula, final BooleanFormula pExtractionFormula) {
     return delegate.addBitwiseAxiomsIfNeeded(pMainFormula, pExtractionFormula);
@@ -0,0 +1,221 @@
+/*
+ *  CPAchecker is a tool for configurable software verification.
+ *  This file is part of CPAchecker.
+ *
+ *  Copyright (C) 2007-2020  Dirk Beyer
+ *  All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ *
+ *  CPAchecker web page:
+ *    http://cpachecker.sosy-lab.org
+ */
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.Model;
+import org.sosy_lab.java_smt.api.Model.ValueAssignment;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * A prover environment that is not closed after usage, but kept alive for the next query. The
+ * formulas of a query are given as a list of prefix formulas, each of them is asserted on its own
+ * level of the solver stack. The next query only pops the levels that differ from its own prefix,
+ * such that common prefixes (e.g., the abstraction formula of a shared predecessor) are asserted
+ * only once and the solver can keep its learned information.
+ *
+ * <p>Calling {@link #close()} only removes all levels that were pushed by the user on top of the
+ * prefix. The underlying prover is closed by {@link Solver#close()}.
+ */
+final class ReusableProverEnvironment implements ProverEnvironment {
+
+  private final ProverEnvironment delegate;
+
+  /** The formulas of the prefix, each of them is on its own level of the solver stack. */
+  private final List<BooleanFormula> prefix = new ArrayList<>();
+
+  /** The number of levels that were pushed by the user on top of the prefix. */
+  private int userLevels = 0;
+
+  private boolean inUse = false;
+
+  // stats
+  int reusedLevels = 0;
+  int pushedLevels = 0;
+
+  ReusableProverEnvironment(ProverEnvironment pDelegate) {
+    delegate = pDelegate;
+  }
+
+  boolean isInUse() {
+    return inUse;
+  }
+
+  /**
+   * Prepare the prover for a new query, such that exactly the given formulas are asserted, and
+   * mark it as in use until {@link #close()} is called.
+   */
+  void open(List<BooleanFormula> pPrefix) throws InterruptedException {
+    checkState(!inUse, "prover is still in use");
+    checkState(userLevels == 0);
+
+    int common = 0;
+    while (common < prefix.size()
+        && common < pPrefix.size()
+        && prefix.get(common).equals(pPrefix.get(common))) {
+      common++;
+    }
+    try {
+      while (prefix.size() > common) {
+        delegate.pop();
+        prefix.remove(prefix.size() - 1);
+      }
+
+      for (BooleanFormula f : pPrefix.subList(common, pPrefix.size())) {
+        // push the level before the formula, such that the levels are tracked even if asserting
+        // the formula fails
+        delegate.push();
+        prefix.add(f);
+        delegate.addConstraint(f);
+      }
+    } catch (InterruptedException | RuntimeException e) {
+      // the prover stays available, but we do not know its prefix anymore
+      reset();
+      throw e;
+    }
+
+    reusedLevels += common;
+    pushedLevels += pPrefix.size() - common;
+    inUse = true;
+  }
+
+  /** Remove all levels of the solver stack, e.g., after the solver failed. */
+  private void reset() {
+    for (int i = userLevels + prefix.size(); i > 0; i--) {
+      delegate.pop();
+    }
+    userLevels = 0;
+    prefix.clear();
+  }
+
+  @Override
+  public Void push(BooleanFormula f) throws InterruptedException {
+    Void result = delegate.push(f);
+    userLevels++;
+    return result;
+  }
+
+  @Override
+  public void push() {
+    delegate.push();
+    userLevels++;
+  }
+
+  @Override
+  public void pop() {
+    checkState(userLevels > 0, "cannot pop levels of the prefix");
+    delegate.pop();
+    userLevels--;
+  }
+
+  @Override
+  public Void addConstraint(BooleanFormula constraint) throws InterruptedException {
+    if (userLevels == 0) {
+      // do not modify the top level of the prefix, it might be reused later
+      push();
+    }
+    return delegate.addConstraint(constraint);
+  }
+
+  @Override
+  public boolean isUnsat() throws SolverException, InterruptedException {
+    try {
+      return delegate.isUnsat();
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      // we do not know the state of the solver anymore, start from scratch next time
+      reset();
+      throw e;
+    }
+  }
+
+  @Override
+  public boolean isUnsatWithAssumptions(Collection<BooleanFormula> pAssumptions)
+      throws SolverException, InterruptedException {
+    try {
+      return delegate.isUnsatWithAssumptions(pAssumptions);
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      reset();
+      throw e;
+    }
+  }
+
+  @Override
+  public Model getModel() throws SolverException {
+    return delegate.getModel();
+  }
+
+  @Override
+  public ImmutableList<ValueAssignment> getModelAssignments() throws SolverException {
+    return delegate.getModelAssignments();
+  }
+
+  @Override
+  public List<BooleanFormula> getUnsatCore() {
+    return delegate.getUnsatCore();
+  }
+
+  @Override
+  public Optional<List<BooleanFormula>> unsatCoreOverAssumptions(
+      Collection<BooleanFormula> pAssumptions) throws SolverException, InterruptedException {
+    return delegate.unsatCoreOverAssumptions(pAssumptions);
+  }
+
+  @Override
+  public <R> R allSat(AllSatCallback<R> pCallback, List<BooleanFormula> pImportant)
+      throws InterruptedException, SolverException {
+    try {
+      return delegate.allSat(pCallback, pImportant);
+    } catch (SolverException | InterruptedException | RuntimeException e) {
+      reset();
+      throw e;
+    }
+  }
+
+  /** Release the prover for the next query, the prefix stays asserted. */
+  @Override
+  public void close() {
+    while (userLevels > 0) {
+      pop();
+    }
+    inUse = false;
+  }
+
+  /** Really close the underlying prover. */
+  void dispose() {
+    delegate.close();
+  }
+
+  @Override
+  public String toString() {
+    return delegate.toString();
+  }
+}
@@ -31,6 +31,8 @@ import com.google.common.base.Verify;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -102,6 +104,14 @@ public final class Solver implements AutoCloseable {
               + "otherwise nothing is logged from the solver.")
   private boolean enableLoggingInSolver = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Keep prover environments alive after abstraction queries and reuse them for the next"
+              + " query with push/pop, such that common prefixes of the queries"
+              + " (e.g., the abstraction formula of the predecessor) are asserted only once.")
+  private boolean reuseProvers = false;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -125,6 +135,10 @@ public final class Solver implements AutoCloseable {
   private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
       groupedUnsatCache = new HashMap<>();
 
+  /** Prover environments kept alive for reuse, one for each combination of options. */
+  private final Map<Set<ProverOptions>, ReusableProverEnvironment> reusableProvers =
+      new HashMap<>();
+
   private final LogManager logger;
 
   // stats
@@ -303,6 +317,45 @@ public final class Solver implements AutoCloseable {
     return pe;
   }
 
+  /**
+   * Direct reference to the underlying SMT solver, with the given formulas already asserted. Each
+   * of the formulas is pushed onto its own level of the solver stack.
+   *
+   * <p>If prover reuse is enabled, this returns a prover environment that was already used
+   * before, and only those formulas are pushed that differ from the prefix of the previous query.
+   * Thus callers should order the formulas such that formulas that are likely shared with other
+   * queries come first. Closing the environment does not close the prover, but only pops all
+   * levels that were pushed after this method returned. The environment needs to be closed after
+   * it is used by calling {@link ProverEnvironment#close()}, it is recommended to use the
+   * try-with-resources syntax.
+   */
+  public ProverEnvironment newProverEnvironmentWithPrefix(
+      List<BooleanFormula> prefix, ProverOptions... options) throws InterruptedException {
+    if (reuseProvers) {
+      ReusableProverEnvironment pe =
+          reusableProvers.computeIfAbsent(
+              toOptionSet(options),
+              k -> new ReusableProverEnvironment(newProverEnvironment0(options)));
+      if (!pe.isInUse()) {
+        pe.open(prefix);
+        return pe;
+      }
+      // nested usage, fall back to a fresh prover
+    }
+
+    ProverEnvironment pe = newProverEnvironment0(options);
+    for (BooleanFormula f : prefix) {
+      pe.push(f);
+    }
+    return pe;
+  }
+
+  private static Set<ProverOptions> toOptionSet(ProverOptions... options) {
+    Set<ProverOptions> result = EnumSet.noneOf(ProverOptions.class);
+    Collections.addAll(result, options);
+    return result;
+  }
+
   /**
    * Direct reference to the underlying SMT solver for interpolation queries.
    * This creates a fresh, new, environment in the solver.
@@ -527,6 +580,11 @@ public final class Solver implements AutoCloseable {
    */
   @Override
   public void close() {
+    for (ReusableProverEnvironment pe : reusableProvers.values()) {
+      pe.dispose();
+    }
+    reusableProvers.clear();
+
     // Reliably close both formula managers and re-throw exceptions,
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables
@@ -553,6 +611,16 @@ public final class Solver implements AutoCloseable {
     }
   }
 
+  /** Return the number of solver-stack levels that were reused from previous queries. */
+  public int getReusedProverLevels() {
+    return reusableProvers.values().stream().mapToInt(pe -> pe.reusedLevels).sum();
+  }
+
+  /** Return the number of solver-stack levels that were pushed for reusable provers. */
+  public int getPushedProverLevels() {
+    return reusableProvers.values().stream().mapToInt(pe -> pe.pushedLevels).sum();
+  }
+
   public String getVersion() {
     return solvingContext.getVersion();
   }
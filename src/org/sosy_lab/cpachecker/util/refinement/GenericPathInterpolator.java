@@ -33,6 +33,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.logging.Level;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -40,6 +42,7 @@ import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.TimeSpan;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
 import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
@@ -93,6 +96,9 @@ public class GenericPathInterpolator<S extends ForgetfulState<?>, I extends Inte
   private final StatTimer prefixExtractionTime      = new StatTimer("Extracting infeasible sliced prefixes");
   private final StatTimer prefixSelectionTime       = new StatTimer("Selecting infeasible sliced prefixes");
 
+  /** Interpolators used concurrently to this one, their statistics are included in ours. */
+  private final List<GenericPathInterpolator<?, ?>> concurrentInterpolators = new ArrayList<>();
+
   private final CFA cfa;
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
@@ -384,16 +390,60 @@ public class GenericPathInterpolator<S extends ForgetfulState<?>, I extends Inte
     }
   }
 
+  /**
+   * Include the statistics of the given interpolator, which is used concurrently to this one for
+   * the same analysis, in the statistics of this interpolator.
+   */
+  public void addStatisticsOf(GenericPathInterpolator<?, ?> pOther) {
+    concurrentInterpolators.add(pOther);
+  }
+
   @Override
   public void printStatistics(PrintStream out, Result result, UnmodifiableReachedSet reached) {
     StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(out).beginLevel();
-    writer.put(timerInterpolation)
-        .put(totalInterpolations)
-        .put(totalInterpolationQueries)
-        .put(sizeOfInterpolant)
-        .put(totalPrefixes);
-    writer.put(prefixExtractionTime);
-    writer.put(prefixSelectionTime);
+    putMerged(writer, timerInterpolation, i -> i.timerInterpolation);
+    writer.put(merge(totalInterpolations, i -> i.totalInterpolations))
+        .put(merge(totalInterpolationQueries, i -> i.totalInterpolationQueries))
+        .put(merge(sizeOfInterpolant, i -> i.sizeOfInterpolant))
+        .put(merge(totalPrefixes, i -> i.totalPrefixes));
+    putMerged(writer, prefixExtractionTime, i -> i.prefixExtractionTime);
+    putMerged(writer, prefixSelectionTime, i -> i.prefixSelectionTime);
+  }
+
+  private StatCounter merge(
+      StatCounter pStat, Function<GenericPathInterpolator<?, ?>, StatCounter> pGetStat) {
+    StatCounter result = new StatCounter(pStat.getTitle());
+    result.mergeWith(pStat);
+    for (GenericPathInterpolator<?, ?> other : concurrentInterpolators) {
+      result.mergeWith(pGetStat.apply(other));
+    }
+    return result;
+  }
+
+  private StatInt merge(StatInt pStat, Function<GenericPathInterpolator<?, ?>, StatInt> pGetStat) {
+    StatInt result = new StatInt(pStat.getMainStatisticKind(), pStat.getTitle());
+    result.add(pStat);
+    for (GenericPathInterpolator<?, ?> other : concurrentInterpolators) {
+      result.add(pGetStat.apply(other));
+    }
+    return result;
+  }
+
+  private void putMerged(
+      StatisticsWriter pWriter,
+      StatTimer pStat,
+      Function<GenericPathInterpolator<?, ?>, StatTimer> pGetStat) {
+    if (concurrentInterpolators.isEmpty()) {
+      pWriter.put(pStat);
+      return;
+    }
+    // timers cannot be merged, so only the sum of the times is written
+    List<TimeSpan> times = new ArrayList<>();
+    times.add(pStat.getConsumedTime());
+    for (GenericPathInterpolator<?, ?> other : concurrentInterpolators) {
+      times.add(pGetStat.apply(other).getConsumedTime());
+    }
+    pWriter.put(pStat.getTitle(), TimeSpan.sum(times).formatAs(TimeUnit.SECONDS));
   }
 
   /**
@@ -23,18 +23,32 @@
  */
 package org.sosy_lab.cpachecker.util.refinement;
 
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.errorprone.annotations.ForOverride;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -55,6 +69,7 @@ import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException.Reason;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
@@ -72,7 +87,7 @@ import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
  */
 @Options(prefix = "cpa.value.refinement")
 public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Interpolant<S, I>>
-    implements ARGBasedRefiner, StatisticsProvider {
+    implements ARGBasedRefiner, StatisticsProvider, AutoCloseable {
 
   @Option(secure = true, description = "when to export the interpolation tree"
       + "\nNEVER:   never export the interpolation tree"
@@ -110,6 +125,16 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
       + " e.g., for supporting counterexample checks")
   private boolean addAssumptionsToCex = true;
 
+  @Option(
+      secure = true,
+      description =
+          "number of threads for interpolating independent paths of the interpolation tree "
+              + "concurrently, each of them with its own path interpolator and feasibility checker. "
+              + "The interpolants are merged in a deterministic order. "
+              + "Only supported by some refiners, e.g., the refiners of the value analysis.")
+  @IntegerOption(min = 1)
+  private int interpolationThreads = 1;
+
   protected final LogManager logger;
 
   private final PathInterpolator<I> interpolator;
@@ -122,10 +147,18 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
 
   private Set<Integer> previousErrorPathIds = new HashSet<>();
 
+  /** The interpolators and checkers for concurrent interpolation, empty if disabled. */
+  private ImmutableList<Pair<GenericPathInterpolator<S, I>, FeasibilityChecker<S>>>
+      interpolationWorkers = ImmutableList.of();
+
+  private @Nullable ExecutorService interpolationExecutor = null;
+
   // statistics
   private final StatCounter refinementCounter = new StatCounter("Number of refinements");
   private final StatInt numberOfTargets = new StatInt(StatKind.SUM, "Number of targets found");
   private final StatTimer refinementTime = new StatTimer("Time for completing refinement");
+  private final StatInt concurrentInterpolations =
+      new StatInt(StatKind.SUM, "Number of concurrently interpolated paths");
 
   public GenericRefiner(
       final FeasibilityChecker<S> pFeasibilityChecker,
@@ -145,6 +178,46 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     pathExtractor = pPathExtractor;
   }
 
+  /** Factory for the path interpolator and feasibility checker of a thread of interpolation. */
+  @FunctionalInterface
+  protected interface InterpolationWorkerFactory<
+      S extends ForgetfulState<?>, I extends Interpolant<S, I>> {
+    Pair<GenericPathInterpolator<S, I>, FeasibilityChecker<S>> create()
+        throws InvalidConfigurationException;
+  }
+
+  /**
+   * Enable the concurrent interpolation of independent paths, if more than one thread is
+   * configured. The factory is called once for each thread, and the created objects must not share
+   * any mutable state with each other or with the ones given to the constructor. The statistics of
+   * the created interpolators are included in the ones of the interpolator given to the
+   * constructor, which therefore needs to be a {@link GenericPathInterpolator}, too.
+   */
+  protected final void enableConcurrentInterpolation(InterpolationWorkerFactory<S, I> pFactory)
+      throws InvalidConfigurationException {
+    if (interpolationThreads <= 1 || interpolationExecutor != null) {
+      return;
+    }
+    checkState(
+        interpolator instanceof GenericPathInterpolator,
+        "concurrent interpolation is only supported for GenericPathInterpolator");
+    ImmutableList.Builder<Pair<GenericPathInterpolator<S, I>, FeasibilityChecker<S>>> workers =
+        ImmutableList.builder();
+    for (int i = 0; i < interpolationThreads; i++) {
+      Pair<GenericPathInterpolator<S, I>, FeasibilityChecker<S>> worker = pFactory.create();
+      ((GenericPathInterpolator<?, ?>) interpolator).addStatisticsOf(worker.getFirst());
+      workers.add(worker);
+    }
+    interpolationWorkers = workers.build();
+    interpolationExecutor =
+        Executors.newFixedThreadPool(
+            interpolationThreads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true) // do not block termination of CPAchecker
+                .setNameFormat(getClass().getSimpleName() + "-interpolation-%d")
+                .build());
+  }
+
   private boolean madeProgress(ARGPath path) {
     if (disableErrorPathTracking) {
       return true;
@@ -218,7 +291,11 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
         createInterpolationTree(ImmutableList.of(pTargetPath));
 
     while (interpolationTree.hasNextPathForInterpolation()) {
-      performPathInterpolation(interpolationTree);
+      if (interpolationExecutor == null) {
+        performPathInterpolation(interpolationTree);
+      } else {
+        performConcurrentPathInterpolation(interpolationTree);
+      }
     }
 
     exportTree(interpolationTree, "FINAL");
@@ -245,7 +322,86 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
 
     I initialItp = interpolationTree.getInitialInterpolantForPath(errorPath);
 
-    if (isInitialInterpolantTooWeak(interpolationTree.getRoot(), initialItp, errorPath)) {
+    interpolationTree.addInterpolants(
+        interpolatePath(errorPath, initialItp, interpolationTree.getRoot(), interpolator, checker));
+    exportTree(interpolationTree, "ALWAYS");
+  }
+
+  /**
+   * Interpolate all independent paths of the interpolation tree concurrently. Each worker
+   * interpolates a fixed subset of the paths, and the interpolants are added to the tree in the
+   * order of the paths, such that the result does not depend on the scheduling of the workers.
+   */
+  private void performConcurrentPathInterpolation(InterpolationTree<S, I> interpolationTree)
+      throws CPAException, InterruptedException {
+    List<ARGPath> errorPaths = interpolationTree.getIndependentPathsForInterpolation();
+    if (errorPaths.isEmpty()) {
+      logger.log(Level.FINEST, "skipping interpolation,"
+          + " because false interpolant on paths to target states");
+      return;
+    }
+
+    // the tree is not thread-safe, so we read the initial interpolants before starting the workers
+    final ARGState root = interpolationTree.getRoot();
+    final List<I> initialItps = new ArrayList<>(errorPaths.size());
+    for (ARGPath errorPath : errorPaths) {
+      initialItps.add(interpolationTree.getInitialInterpolantForPath(errorPath));
+    }
+
+    final int workers = Math.min(interpolationWorkers.size(), errorPaths.size());
+    List<Future<List<Map<ARGState, I>>>> futures = new ArrayList<>(workers);
+    for (int w = 0; w < workers; w++) {
+      final int firstPath = w;
+      final PathInterpolator<I> workerInterpolator = interpolationWorkers.get(w).getFirst();
+      final FeasibilityChecker<S> workerChecker = interpolationWorkers.get(w).getSecond();
+      futures.add(
+          interpolationExecutor.submit(
+              () -> {
+                List<Map<ARGState, I>> result = new ArrayList<>();
+                for (int i = firstPath; i < errorPaths.size(); i += workers) {
+                  result.add(
+                      interpolatePath(
+                          errorPaths.get(i), initialItps.get(i), root, workerInterpolator,
+                          workerChecker));
+                }
+                return result;
+              }));
+    }
+
+    // Always wait for all tasks, even if one of them fails or we get interrupted,
+    // such that no worker is running anymore when the ARG is modified.
+    List<List<Map<ARGState, I>>> results = new ArrayList<>(workers);
+    Throwable failure = null;
+    for (Future<List<Map<ARGState, I>>> future : futures) {
+      try {
+        results.add(Uninterruptibles.getUninterruptibly(future));
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("interpolation", failure);
+    }
+
+    for (int i = 0; i < errorPaths.size(); i++) {
+      interpolationTree.addInterpolants(results.get(i % workers).get(i / workers));
+      exportTree(interpolationTree, "ALWAYS");
+    }
+    concurrentInterpolations.setNextValue(errorPaths.size());
+  }
+
+  private Map<ARGState, I> interpolatePath(
+      ARGPath errorPath,
+      I initialItp,
+      ARGState root,
+      PathInterpolator<I> pInterpolator,
+      FeasibilityChecker<S> pChecker)
+      throws CPAException, InterruptedException {
+
+    if (isInitialInterpolantTooWeak(root, initialItp, errorPath, pChecker)) {
       errorPath = ARGUtils.getOnePathTo(errorPath.getLastState());
       initialItp = interpolantManager.createInitialInterpolant();
     }
@@ -253,11 +409,11 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     logger.log(Level.FINEST, "performing interpolation, starting at ", errorPath.getFirstState().getStateId(),
         ", using interpolant ", initialItp);
 
-    interpolationTree.addInterpolants(interpolator.performInterpolation(errorPath, initialItp));
-    exportTree(interpolationTree, "ALWAYS");
+    return pInterpolator.performInterpolation(errorPath, initialItp);
   }
 
-  private boolean isInitialInterpolantTooWeak(ARGState root, I initialItp, ARGPath errorPath)
+  private boolean isInitialInterpolantTooWeak(
+      ARGState root, I initialItp, ARGPath errorPath, FeasibilityChecker<S> pChecker)
       throws CPAException, InterruptedException {
 
     // if the first state of the error path is the root, the interpolant cannot be to weak
@@ -266,7 +422,7 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     }
 
     // for all other cases, check if the path is feasible when using the interpolant as initial state
-    return checker.isFeasible(errorPath, initialItp.reconstructState());
+    return pChecker.isFeasible(errorPath, initialItp.reconstructState());
   }
 
   private CounterexampleInfo isPathFeasible(
@@ -336,9 +492,19 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     writer.put(refinementCounter)
         .put(numberOfTargets)
         .put(refinementTime);
+    if (interpolationExecutor != null) {
+      writer.put(concurrentInterpolations);
+    }
     printAdditionalStatistics(pOut, pResult, pReached); //hook
   }
 
+  @Override
+  public void close() {
+    if (interpolationExecutor != null) {
+      interpolationExecutor.shutdownNow();
+    }
+  }
+
   protected abstract void printAdditionalStatistics(final PrintStream out, final Result pResult, final UnmodifiableReachedSet pReached);
 
   private int obtainErrorPathId(ARGPath path) {
@@ -259,6 +259,17 @@ public class InterpolationTree<S extends AbstractState, I extends Interpolant<S,
     return strategy.getNextPathForInterpolation();
   }
 
+  /**
+   * This method returns all error paths whose initial interpolants are already known, such that
+   * they can be interpolated independently of each other, e.g., concurrently. Paths that need not
+   * be interpolated, because there is a false interpolant on them, are not contained.
+   *
+   * @return the error paths for subsequent interpolations, in a deterministic order
+   */
+  public List<ARGPath> getIndependentPathsForInterpolation() {
+    return strategy.getIndependentPathsForInterpolation();
+  }
+
   /**
    * This method returns the interpolant to be used for interpolation of the given path.
    *
@@ -481,6 +492,8 @@ public class InterpolationTree<S extends AbstractState, I extends Interpolant<S,
 
     ARGPath getNextPathForInterpolation();
 
+    List<ARGPath> getIndependentPathsForInterpolation();
+
     boolean hasNextPathForInterpolation();
 
     I getInitialInterpolantForRoot(ARGState root);
@@ -495,9 +508,28 @@ public class InterpolationTree<S extends AbstractState, I extends Interpolant<S,
 
     @Override
     public ARGPath getNextPathForInterpolation() {
-      ARGPathBuilder errorPathBuilder = ARGPath.builder();
+      return getPathFrom(sources.pop(), sources);
+    }
 
-      ARGState current = sources.pop();
+    @Override
+    public List<ARGPath> getIndependentPathsForInterpolation() {
+      // the interpolants of the predecessors of all current sources are known,
+      // but the sources found on the new paths depend on the interpolants of these paths
+      Deque<ARGState> currentSources = sources;
+      sources = new ArrayDeque<>();
+
+      List<ARGPath> errorPaths = new ArrayList<>(currentSources.size());
+      for (ARGState current : currentSources) {
+        ARGPath errorPath = getPathFrom(current, sources);
+        if (errorPath != EMPTY_PATH) {
+          errorPaths.add(errorPath);
+        }
+      }
+      return errorPaths;
+    }
+
+    private ARGPath getPathFrom(ARGState current, Deque<ARGState> newSources) {
+      ARGPathBuilder errorPathBuilder = ARGPath.builder();
 
       if (!isValidInterpolationRoot(predecessorRelation.get(current))) {
         logger.log(Level.FINEST, "interpolant of predecessor of ", current.getStateId(), " is already false, so return empty path");
@@ -521,7 +553,7 @@ public class InterpolationTree<S extends AbstractState, I extends Interpolant<S,
           size++;
           ARGState sibling = children.next();
           logger.log(Level.FINEST, "\tpush new root ", sibling.getStateId(), " onto stack for parent ", predecessorRelation.get(sibling).getStateId());
-          sources.push(sibling);
+          newSources.push(sibling);
         }
         assert(size <= 2);
 
@@ -597,6 +629,19 @@ public class InterpolationTree<S extends AbstractState, I extends Interpolant<S,
       return errorPathBuilder.build(current);
     }
 
+    @Override
+    public List<ARGPath> getIndependentPathsForInterpolation() {
+      // all paths start with the initial interpolant
+      List<ARGPath> errorPaths = new ArrayList<>(sources.size());
+      while (!sources.isEmpty()) {
+        ARGPath errorPath = getNextPathForInterpolation();
+        if (errorPath != EMPTY_PATH) {
+          errorPaths.add(errorPath);
+        }
+      }
+      return errorPaths;
+    }
+
     @Override
     public I getInitialInterpolantForRoot(ARGState pRoot) {
       return interpolantManager.createInitialInterpolant();